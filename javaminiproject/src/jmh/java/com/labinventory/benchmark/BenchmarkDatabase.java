@@ -0,0 +1,43 @@
+package com.labinventory.benchmark;
+
+import com.labinventory.database.DatabaseManager;
+import com.labinventory.database.DatasetGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+// A throwaway database filled by DatasetGenerator, so benchmarks run on the same distributions as load tests.
+// Item ids are 1 to rows.
+public class BenchmarkDatabase {
+    private final Path directory;
+
+    private BenchmarkDatabase(Path directory) {
+        this.directory = directory;
+    }
+
+    public static BenchmarkDatabase create(int rows, long seed) throws IOException, SQLException {
+        return create(rows, 0, seed);
+    }
+
+    // Also places orders, mostly for popular items, with statuses that follow each order's age.
+    public static BenchmarkDatabase create(int rows, int orders, long seed) throws IOException, SQLException {
+        Path directory = Files.createTempDirectory("labinventory-bench");
+        DatabaseManager.setDatabasePath(directory.resolve("bench.db").toString());
+        DatabaseManager.initialize();
+        new DatasetGenerator(seed, LocalDate.now()).writeDatabase(rows, rows > 0 ? orders : 0);
+        return new BenchmarkDatabase(directory);
+    }
+
+    public void close() throws IOException {
+        DatabaseManager.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+}
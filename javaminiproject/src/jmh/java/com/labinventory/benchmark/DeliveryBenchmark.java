@@ -0,0 +1,78 @@
+package com.labinventory.benchmark;
+
+import com.labinventory.model.Equipment;
+import com.labinventory.model.Order;
+import com.labinventory.service.InventoryService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Times concurrent deliveries. Each iteration places a set of orders and every order is delivered by two racing
+// attempts, one of which loses. DeliveryConcurrencyTest checks that no delivery is lost or applied twice.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, batchSize = 1000)
+@Measurement(iterations = 5, batchSize = 1000)
+@Threads(4)
+@Fork(1)
+public class DeliveryBenchmark {
+    private static final int EQUIPMENT_ITEMS = 4;
+    private static final int ORDER_QUANTITY = 3;
+
+    private BenchmarkDatabase database;
+    private InventoryService service;
+    private List<Equipment> equipment;
+
+    private int[] orderIds;
+    private int[] orderEquipment;
+    private final AtomicInteger nextAttempt = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.create(EQUIPMENT_ITEMS, 7);
+        service = new InventoryService();
+        equipment = service.getAllEquipment();
+        service.getDashboardSnapshot();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void placeOrders(BenchmarkParams benchmark, IterationParams iteration) throws SQLException {
+        int orders = benchmark.getThreads() * iteration.getBatchSize() / 2;
+        orderIds = new int[orders];
+        orderEquipment = new int[orders];
+
+        service.inTransaction(() -> {
+            for (int i = 0; i < orders; i++) {
+                Equipment item = equipment.get(i % equipment.size());
+                Order order = new Order(0, item.getId(), item.getName(), ORDER_QUANTITY, LocalDate.now(),
+                        LocalDate.now().plusDays(3), null, Order.OrderStatus.PENDING, item.getSupplier(),
+                        ORDER_QUANTITY * item.getUnitPrice());
+                if (!service.addOrder(order)) {
+                    throw new SQLException("Could not place order " + i);
+                }
+                orderIds[i] = order.getId();
+                orderEquipment[i] = item.getId();
+            }
+            return orders;
+        });
+        nextAttempt.set(0);
+    }
+
+    @Benchmark
+    public boolean deliver() {
+        int order = nextAttempt.getAndIncrement() / 2 % orderIds.length;
+        return service.markOrderAsDelivered(orderIds[order], orderEquipment[order], ORDER_QUANTITY);
+    }
+}
@@ -0,0 +1,149 @@
+package com.labinventory.benchmark;
+
+import com.labinventory.database.EquipmentDAO;
+import com.labinventory.database.EquipmentTotals;
+import com.labinventory.database.OrderDAO;
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.model.Equipment;
+import com.labinventory.model.EquipmentSort;
+import com.labinventory.model.Order;
+import com.labinventory.service.EquipmentSorter;
+import com.labinventory.service.InventoryService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// The calls behind the dashboard and the equipment view, at 1,000, 100,000 and 1,000,000 equipment items with one
+// order for every ten items. The DAO benchmarks go straight to SQLite, bypassing the in-memory catalog, so they
+// show what a cold load or a cache miss costs. Lookups cycle through a fixed, seeded set of ids.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotPathBenchmark {
+    private static final Logger LOG = Log.getLogger(HotPathBenchmark.class);
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private BenchmarkDatabase database;
+    private EquipmentDAO equipmentDAO;
+    private OrderDAO orderDAO;
+    private InventoryService service;
+    private List<Equipment> catalog;
+    private final int[] ids = new int[LOOKUPS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        long start = System.nanoTime();
+        database = BenchmarkDatabase.create(rows, rows / 10, 17);
+        LOG.atInfo().field("items", rows).field("orders", rows / 10)
+                .field("millis", (System.nanoTime() - start) / 1_000_000).log("Benchmark database seeded");
+        equipmentDAO = new EquipmentDAO();
+        orderDAO = new OrderDAO();
+        service = new InventoryService();
+        service.getDashboardSnapshot();
+        catalog = equipmentDAO.getAllEquipment();
+        Random random = new Random(17);
+        for (int i = 0; i < LOOKUPS; i++) {
+            ids[i] = 1 + random.nextInt(rows);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Equipment> getAllEquipment() {
+        return equipmentDAO.getAllEquipment();
+    }
+
+    @Benchmark
+    public Equipment getEquipmentById() {
+        return equipmentDAO.getEquipmentById(ids[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Equipment> searchEquipment() {
+        return equipmentDAO.searchEquipment("pip");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Equipment> getLowStockEquipment() {
+        return equipmentDAO.getLowStockEquipment();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Order> getActiveOrders() {
+        return orderDAO.getActiveOrders();
+    }
+
+    // Served from the delta-maintained dashboard aggregates.
+    @Benchmark
+    public long getTotalEquipmentQuantity() {
+        return service.getTotalEquipmentQuantity();
+    }
+
+    // The same figure summed by SQLite, which is what the aggregates save on every dashboard refresh.
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public EquipmentTotals getEquipmentTotals() {
+        return equipmentDAO.getEquipmentTotals(LocalDate.now().plusDays(15));
+    }
+
+    // What handleSort does for a list that fits in memory: copy the items and sort them on precomputed keys.
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Equipment> sort(SortState state) {
+        List<Equipment> sorted = new ArrayList<>(catalog);
+        EquipmentSorter.sort(sorted, state.sort);
+        return sorted;
+    }
+
+    // Each invocation delivers a pending order placed just before it, outside the measurement.
+    @Benchmark
+    public boolean markOrderAsDelivered(DeliveryState state) {
+        Order order = state.order;
+        if (!service.markOrderAsDelivered(order.getId(), order.getEquipmentId(), order.getQuantity())) {
+            throw new IllegalStateException("Order " + order.getId() + " was not delivered");
+        }
+        return true;
+    }
+
+    @State(Scope.Benchmark)
+    public static class SortState {
+        @Param({"NAME_ASC", "QUANTITY_DESC", "EXPIRY_DATE"})
+        public EquipmentSort sort;
+    }
+
+    @State(Scope.Thread)
+    public static class DeliveryState {
+        private Order order;
+        private int placed;
+
+        @Setup(Level.Invocation)
+        public void placeOrder(HotPathBenchmark benchmark) {
+            int equipmentId = benchmark.ids[placed++ & (LOOKUPS - 1)];
+            order = new Order(0, equipmentId, "Equipment " + equipmentId, 5, LocalDate.now(),
+                    LocalDate.now().plusDays(7), null, Order.OrderStatus.PENDING, "Sigma Labs", 50);
+            if (!benchmark.service.addOrder(order)) {
+                throw new IllegalStateException("Could not place order for item " + equipmentId);
+            }
+        }
+    }
+}
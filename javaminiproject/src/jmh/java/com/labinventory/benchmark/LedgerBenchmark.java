@@ -0,0 +1,150 @@
+package com.labinventory.benchmark;
+
+import com.labinventory.database.DatabaseManager;
+import com.labinventory.database.PooledConnection;
+import com.labinventory.database.SnapshotRun;
+import com.labinventory.database.StockLedgerDAO;
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.service.LedgerSnapshotter;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Point-in-time stock queries against a ledger of millions of movements over 10,000 items. The generated history
+// runs forward from the opening balances, one movement every few milliseconds across a year, with a snapshot pass
+// every 50,000 movements as LedgerSnapshotter would run them. quantityAtByReplay is the same query answered by
+// adding up the item's whole history, which is what the snapshots avoid. Setup checks both agree on every probe.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerBenchmark {
+    private static final Logger LOG = Log.getLogger(LedgerBenchmark.class);
+    private static final int ITEMS = 10_000;
+    private static final int ROWS_PER_INSERT = 500;
+    private static final int SNAPSHOT_EVERY = 50_000;
+    private static final int PROBES = 4096;
+    private static final long SPAN_MILLIS = TimeUnit.DAYS.toMillis(365);
+    private static final String REPLAY = "SELECT IFNULL(SUM(delta), 0) FROM stock_movements " +
+            "WHERE equipment_id = ? AND moved_at <= ?";
+
+    @Param({"1000000", "4000000"})
+    public int movements;
+
+    private BenchmarkDatabase database;
+    private final StockLedgerDAO ledger = new StockLedgerDAO();
+    private final int[] probeItems = new int[PROBES];
+    private final Instant[] probeTimes = new Instant[PROBES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if (movements % ROWS_PER_INSERT != 0) {
+            throw new IllegalArgumentException("movements must be a multiple of " + ROWS_PER_INSERT);
+        }
+        database = BenchmarkDatabase.create(ITEMS, 29);
+        long start = System.nanoTime();
+        long first = generateHistory(new Random(29));
+        LOG.atInfo().field("movements", movements).field("millis", (System.nanoTime() - start) / 1_000_000)
+                .log("Ledger history generated");
+
+        Random random = new Random(31);
+        for (int i = 0; i < PROBES; i++) {
+            probeItems[i] = 1 + random.nextInt(ITEMS);
+            probeTimes[i] = Instant.ofEpochMilli(first + (long) (random.nextDouble() * SPAN_MILLIS));
+        }
+        for (int i = 0; i < PROBES; i++) {
+            int fromSnapshot = ledger.getQuantityAt(probeItems[i], probeTimes[i]);
+            int replayed = replay(probeItems[i], probeTimes[i]);
+            if (fromSnapshot != replayed) {
+                throw new IllegalStateException("Item " + probeItems[i] + " at " + probeTimes[i] + ": snapshot gives " +
+                        fromSnapshot + ", replay " + replayed);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    public int quantityAt() {
+        int i = next++ & (PROBES - 1);
+        return ledger.getQuantityAt(probeItems[i], probeTimes[i]);
+    }
+
+    @Benchmark
+    public int quantityAtByReplay() throws SQLException {
+        int i = next++ & (PROBES - 1);
+        return replay(probeItems[i], probeTimes[i]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<Integer, Integer> quantitiesAt() {
+        int i = next++ & (PROBES - 1);
+        return ledger.getQuantitiesAt(probeTimes[i]);
+    }
+
+    // Appends the movements in time order and returns the time of the first one.
+    private long generateHistory(Random random) throws SQLException {
+        long first = System.currentTimeMillis() + 1;
+        long step = Math.max(1, SPAN_MILLIS / movements);
+        StringBuilder sql = new StringBuilder("INSERT INTO stock_movements (equipment_id, delta, reason, order_id, moved_at) VALUES ");
+        for (int i = 0; i < ROWS_PER_INSERT; i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, NULL, ?)");
+        }
+        int written = 0;
+        SnapshotRun last = null;
+        while (written < movements) {
+            int chunk = Math.min(SNAPSHOT_EVERY, movements - written);
+            int offset = written;
+            DatabaseManager.inTransaction(() -> {
+                try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+                    PreparedStatement pstmt = conn.prepareCached(sql.toString());
+                    for (int row = 0; row < chunk; row++) {
+                        int p = (row % ROWS_PER_INSERT) * 4;
+                        boolean delivery = random.nextInt(8) == 0;
+                        pstmt.setInt(p + 1, 1 + random.nextInt(ITEMS));
+                        pstmt.setInt(p + 2, delivery ? 20 + random.nextInt(40) : -1 - random.nextInt(6));
+                        pstmt.setString(p + 3, delivery ? "DELIVERY" : "ADJUSTMENT");
+                        pstmt.setLong(p + 4, first + (offset + row) * step);
+                        if (row % ROWS_PER_INSERT == ROWS_PER_INSERT - 1) {
+                            pstmt.executeUpdate();
+                        }
+                    }
+                    return chunk;
+                }
+            });
+            written += chunk;
+            last = ledger.takeSnapshots(LedgerSnapshotter.MIN_MOVEMENTS);
+        }
+        try (PooledConnection conn = DatabaseManager.getWriteConnection();
+             ResultSet rs = conn.createStatement().executeQuery("SELECT COUNT(*) FROM stock_snapshots")) {
+            rs.next();
+            LOG.atInfo().field("snapshots", rs.getInt(1)).field("lastRun", last).log("Ledger snapshots taken");
+        }
+        return first;
+    }
+
+    private int replay(int equipmentId, Instant at) throws SQLException {
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(REPLAY);
+            pstmt.setInt(1, equipmentId);
+            pstmt.setLong(2, at.toEpochMilli());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+}
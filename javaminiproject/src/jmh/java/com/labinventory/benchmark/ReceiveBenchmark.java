@@ -0,0 +1,135 @@
+package com.labinventory.benchmark;
+
+import com.labinventory.database.EquipmentDAO;
+import com.labinventory.model.Equipment;
+import com.labinventory.model.Order;
+import com.labinventory.service.InventoryService;
+import com.labinventory.service.OrderReceipt;
+import com.labinventory.service.ReceiveReport;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Receives the same number of orders per iteration through receiveOrders in batches of batchSize; batchSize 0 is
+// the baseline of one markOrderAsDelivered call per order. Divide ORDERS by the iteration time for orders per second.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReceiveBenchmark {
+    private static final int ORDERS = 2_000;
+    private static final int EQUIPMENT_ITEMS = 50;
+    private static final int ORDER_QUANTITY = 2;
+
+    @Param({"0", "1", "10", "100", "1000"})
+    public int batchSize;
+
+    private BenchmarkDatabase database;
+    private InventoryService service;
+    private EquipmentDAO equipmentDAO;
+    private List<Equipment> equipment;
+
+    private List<Order> orders;
+    private Map<Integer, Integer> startQuantities;
+    private int delivered;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.create(EQUIPMENT_ITEMS, 11);
+        service = new InventoryService();
+        equipmentDAO = new EquipmentDAO();
+        equipment = service.getAllEquipment();
+        service.getDashboardSnapshot();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void placeOrders() throws SQLException {
+        orders = new ArrayList<>(ORDERS);
+        startQuantities = new HashMap<>();
+        for (Equipment item : equipment) {
+            startQuantities.put(item.getId(), equipmentDAO.getEquipmentById(item.getId()).getQuantity());
+        }
+        service.inTransaction(() -> {
+            for (int i = 0; i < ORDERS; i++) {
+                Equipment item = equipment.get(i % equipment.size());
+                Order order = new Order(0, item.getId(), item.getName(), ORDER_QUANTITY, LocalDate.now(),
+                        LocalDate.now().plusDays(3), null, Order.OrderStatus.PENDING, item.getSupplier(),
+                        ORDER_QUANTITY * item.getUnitPrice());
+                if (!service.addOrder(order)) {
+                    throw new SQLException("Could not place order " + i);
+                }
+                orders.add(order);
+            }
+            return ORDERS;
+        });
+        delivered = 0;
+    }
+
+    @Benchmark
+    public int receive() {
+        if (batchSize == 0) {
+            for (Order order : orders) {
+                if (service.markOrderAsDelivered(order.getId(), order.getEquipmentId(), order.getQuantity())) {
+                    delivered++;
+                }
+            }
+            return delivered;
+        }
+        List<Integer> batch = new ArrayList<>(batchSize);
+        for (Order order : orders) {
+            batch.add(order.getId());
+            if (batch.size() == batchSize) {
+                delivered += receiveBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            delivered += receiveBatch(batch);
+        }
+        return delivered;
+    }
+
+    private int receiveBatch(List<Integer> batch) {
+        ReceiveReport report = service.receiveOrders(batch);
+        if (report.count(OrderReceipt.Outcome.FAILED) > 0) {
+            throw new IllegalStateException("Receiving failed: " + report.receipts());
+        }
+        return report.delivered();
+    }
+
+    @TearDown(Level.Iteration)
+    public void verify() {
+        if (delivered != ORDERS) {
+            throw new IllegalStateException(ORDERS + " orders but " + delivered + " delivered");
+        }
+        Map<Integer, Integer> expected = new HashMap<>(startQuantities);
+        for (Order order : orders) {
+            expected.merge(order.getEquipmentId(), ORDER_QUANTITY, Integer::sum);
+        }
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            int stored = equipmentDAO.getEquipmentById(entry.getKey()).getQuantity();
+            int cached = service.getEquipmentById(entry.getKey()).getQuantity();
+            if (stored != entry.getValue() || cached != stored) {
+                throw new IllegalStateException("Equipment " + entry.getKey() + ": expected " + entry.getValue() +
+                        ", database " + stored + ", catalog " + cached);
+            }
+        }
+        List<String> drift = service.reconcileDashboard();
+        if (!drift.isEmpty()) {
+            throw new IllegalStateException("Dashboard aggregates drifted: " + drift);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.labinventory.benchmark;
+
+import com.labinventory.database.DatabaseManager;
+import com.labinventory.database.OrderDAO;
+import com.labinventory.database.PooledConnection;
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.model.Equipment;
+import com.labinventory.model.Order;
+import com.labinventory.service.InventoryService;
+import com.labinventory.service.ReorderPlan;
+import com.labinventory.service.ReorderPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Plans, and plans and places, reorders for a catalog where three in five items are low on stock and a quarter of
+// those already have an active order. Each iteration starts from the same state: planAndPlace's orders are deleted
+// again after it has been checked that a second plan finds nothing left to order.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReorderBenchmark {
+    private static final Logger LOG = Log.getLogger(ReorderBenchmark.class);
+
+    @Param({"10000", "50000"})
+    public int rows;
+
+    @Param({"min-max", "eoq"})
+    public String policy;
+
+    private BenchmarkDatabase database;
+    private InventoryService service;
+    private ReorderPlan plan;
+    private int placed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.create(rows, 23);
+        try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+            conn.createStatement().executeUpdate(
+                    "UPDATE equipments SET quantity = lower_limit * (id % 3) / 3 WHERE id % 5 < 3");
+        }
+        List<Order> existing = new ArrayList<>();
+        for (Equipment item : new InventoryService().getLowStockAlerts()) {
+            if (item.getId() % 4 == 0) {
+                existing.add(new Order(0, item.getId(), item.getName(), item.getLowerLimit(), LocalDate.now(),
+                        LocalDate.now().plusDays(5), null, Order.OrderStatus.IN_TRANSIT, item.getSupplier(),
+                        item.getLowerLimit() * item.getUnitPrice()));
+            }
+        }
+        new OrderDAO().addOrderBatch(existing);
+
+        service = new InventoryService();
+        service.setReorderPolicy(policy.equals("eoq") ? ReorderPolicy.economicOrderQuantity() : ReorderPolicy.minMax());
+        service.getDashboardSnapshot();
+        LOG.atInfo().field("lowStock", service.getLowStockCount()).field("activeOrders", existing.size())
+                .log("Reorder benchmark data seeded");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        plan = null;
+        placed = 0;
+    }
+
+    @Benchmark
+    public ReorderPlan plan() {
+        return service.planReorders();
+    }
+
+    @Benchmark
+    public int planAndPlace() {
+        plan = service.planReorders();
+        placed = service.placeReorders(plan);
+        return placed;
+    }
+
+    @TearDown(Level.Iteration)
+    public void verify() throws SQLException {
+        if (plan == null) {
+            return;
+        }
+        if (placed != plan.orderCount()) {
+            throw new IllegalStateException(plan.orderCount() + " orders planned but " + placed + " placed");
+        }
+        ReorderPlan again = service.planReorders();
+        if (!again.isEmpty()) {
+            throw new IllegalStateException("Low stock items left uncovered after placing: " + again);
+        }
+        List<String> drift = service.reconcileDashboard();
+        if (!drift.isEmpty()) {
+            throw new IllegalStateException("Dashboard aggregates drifted: " + drift);
+        }
+        LOG.atInfo().field("orders", plan.orderCount()).field("lowStock", plan.lowStockItems())
+                .field("covered", plan.coveredItems()).field("millis", plan.elapsedMillis()).log("Reorders placed");
+        service.inTransaction(() -> {
+            for (Order order : plan.orders()) {
+                if (!service.deleteOrder(order.getId())) {
+                    throw new SQLException("Could not delete order " + order.getId());
+                }
+            }
+            return plan.orderCount();
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package com.labinventory.benchmark;
+
+import com.labinventory.database.EquipmentDAO;
+import com.labinventory.database.EquipmentSearchHit;
+import com.labinventory.model.Equipment;
+import com.labinventory.service.TrigramSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    @Param({"pip", "scope", "boro"})
+    public String query;
+
+    private BenchmarkDatabase database;
+    private EquipmentDAO equipmentDAO;
+    private TrigramSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.create(rows, 42);
+        equipmentDAO = new EquipmentDAO();
+        index = new TrigramSearchIndex();
+        index.rebuild(equipmentDAO::getAllEquipment);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Integer> trigramIndex() {
+        return index.search(query, 100);
+    }
+
+    @Benchmark
+    public List<Equipment> likeQuery() {
+        return equipmentDAO.searchEquipment(query);
+    }
+
+    @Benchmark
+    public List<EquipmentSearchHit> fullTextQuery() {
+        return equipmentDAO.searchEquipmentRanked(query, 100);
+    }
+}
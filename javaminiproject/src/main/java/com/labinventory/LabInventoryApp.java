@@ -1,19 +1,35 @@
 package com.labinventory;
 
 import com.labinventory.database.DatabaseManager;
+import com.labinventory.database.ScriptResult;
+import com.labinventory.database.SqlScriptRunner;
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.metrics.MetricsEndpoint;
+import com.labinventory.metrics.MetricsRegistry;
+import com.labinventory.metrics.OperationSnapshot;
+import com.labinventory.service.AsyncInventoryService;
+import com.labinventory.service.InventoryService;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.Statement;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
 
 public class LabInventoryApp extends Application {
+    private static final Logger LOG = Log.getLogger(LabInventoryApp.class);
+
+    public static final String SEED_SCRIPT_PROPERTY = "labinventory.seed.script";
+    private static final String SEED_SCRIPT = "java.sql";
+    private static final int REPORTED_OPERATIONS = 5;
+
+    private MetricsEndpoint metricsEndpoint;
 
     @Override
     public void start(Stage primaryStage) {
@@ -21,12 +37,14 @@ public class LabInventoryApp extends Application {
             DatabaseManager.initialize();
             
             boolean isEmpty = DatabaseManager.isDatabaseEmpty();
-            System.out.println("Database is empty: " + isEmpty);
             if (isEmpty) {
                 populateSampleData();
             } else {
-                System.out.println("Database already contains data - skipping sample data load");
+                LOG.info("Database already contains data - skipping sample data load");
             }
+            AsyncInventoryService.getInstance().submit(null, InventoryService::buildSearchIndex);
+            InventoryService.getInstance().getLedgerSnapshotter().start();
+            startMetricsEndpoint();
             
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/labinventory/home.fxml"));
             Parent root = loader.load();
@@ -36,60 +54,76 @@ public class LabInventoryApp extends Application {
             primaryStage.setScene(scene);
             primaryStage.setOnCloseRequest(e -> {
                 DatabaseManager.close();
-                System.out.println("Application closed.");
+                LOG.info("Application closed.");
             });
             primaryStage.show();
             
         } catch (Exception e) {
-            e.printStackTrace();
-            System.err.println("Error starting application: " + e.getMessage());
+            LOG.error("Error starting application", e);
         }
     }
     
     private void populateSampleData() {
-        System.out.println("Populating database with sample data...");
-        
+        LOG.info("Database is empty, populating it with sample data");
+        SqlScriptRunner runner = new SqlScriptRunner(SqlScriptRunner.DEFAULT_BATCH_SIZE, true);
+        Path script = Path.of(System.getProperty(SEED_SCRIPT_PROPERTY, SEED_SCRIPT));
+
         try {
-            String sqlFile = "java.sql";
-            Connection conn = DatabaseManager.getConnection();
-            Statement stmt = conn.createStatement();
-            
-            StringBuilder sqlContent = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new FileReader(sqlFile))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (!line.trim().isEmpty() && !line.trim().startsWith("--")) {
-                        sqlContent.append(line).append("\n");
-                    }
-                }
+            ScriptResult result = Files.exists(script) ? runner.runFile(script) : runner.runResource("/" + SEED_SCRIPT);
+            LOG.atInfo().field("rows", result.rowsAffected()).field("millis", result.elapsedMillis())
+                    .log("Sample data loaded");
+        } catch (IOException e) {
+            LOG.error("Error reading SQL file", e);
+        } catch (SQLException e) {
+            LOG.error("Error populating sample data", e);
+        }
+    }
+
+    private void startMetricsEndpoint() {
+        try {
+            metricsEndpoint = MetricsEndpoint.startFromSystemProperty(MetricsRegistry.getDefault());
+            if (metricsEndpoint != null) {
+                LOG.atInfo().field("url", "http://127.0.0.1:" + metricsEndpoint.getPort() + MetricsEndpoint.PATH)
+                        .log("Metrics endpoint started");
             }
-            
-            String[] sqlStatements = sqlContent.toString().split(";");
-            for (String sql : sqlStatements) {
-                String trimmedSql = sql.trim();
-                if (!trimmedSql.isEmpty()) {
-                    try {
-                        stmt.execute(trimmedSql);
-                    } catch (Exception e) {
-                        System.out.println("Note: " + e.getMessage());
-                    }
-                }
+        } catch (IOException e) {
+            LOG.warn("Error starting metrics endpoint", e);
+        }
+    }
+
+    private void reportMetrics() {
+        List<OperationSnapshot> operations = MetricsRegistry.getDefault().getOperationSnapshots();
+        for (int i = 0; i < Math.min(REPORTED_OPERATIONS, operations.size()); i++) {
+            OperationSnapshot operation = operations.get(i);
+            LOG.atInfo().field("rank", i + 1).field("operation", operation.component() + "." + operation.operation())
+                    .field("calls", operation.latency().count()).field("totalMillis", (long) operation.totalMillis())
+                    .field("p50Micros", operation.latency().percentileNanos(50) / 1_000)
+                    .field("p99Micros", operation.latency().percentileNanos(99) / 1_000)
+                    .field("rows", operation.rows()).field("errors", operation.errors())
+                    .log("Slowest operations by total time");
+        }
+        try {
+            Path exported = MetricsRegistry.getDefault().exportToConfiguredFile();
+            if (exported != null) {
+                LOG.atInfo().field("file", exported.toAbsolutePath()).log("Metrics written");
             }
-            
-            stmt.close();
-            System.out.println("Sample data loaded successfully!");
-            
         } catch (IOException e) {
-            System.err.println("Error reading SQL file: " + e.getMessage());
-            e.printStackTrace();
-        } catch (Exception e) {
-            System.err.println("Error populating sample data: " + e.getMessage());
-            e.printStackTrace();
+            LOG.warn("Error writing metrics", e);
+        }
+        if (metricsEndpoint != null) {
+            metricsEndpoint.close();
         }
     }
 
     @Override
     public void stop() {
+        AsyncInventoryService.shutdownInstance();
+        InventoryService service = InventoryService.getInstance();
+        LOG.atInfo().field("events", service.getEventBus().getMetrics()).log("Inventory event bus stopped");
+        service.getAlertEngine().shutdown();
+        service.getLedgerSnapshotter().shutdown();
+        service.getEventBus().shutdown();
+        reportMetrics();
         DatabaseManager.close();
     }
 
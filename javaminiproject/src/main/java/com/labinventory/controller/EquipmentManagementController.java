@@ -1,8 +1,20 @@
 package com.labinventory.controller;
 
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
 import com.labinventory.model.Equipment;
+import com.labinventory.model.EquipmentSort;
 import com.labinventory.model.Order;
+import com.labinventory.service.AsyncInventoryService;
+import com.labinventory.service.EquipmentSorter;
+import com.labinventory.service.ImportError;
+import com.labinventory.service.ImportReport;
+import com.labinventory.service.InventoryEvent;
+import com.labinventory.service.InventoryEventBus;
 import com.labinventory.service.InventoryService;
+import com.labinventory.service.PagedEquipmentList;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -12,46 +24,120 @@ import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.*;
 import javafx.scene.text.Text;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
+import java.io.File;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 
 public class EquipmentManagementController {
+    private static final Logger LOG = Log.getLogger(EquipmentManagementController.class);
+
+    private static final int PAGED_LIST_THRESHOLD = 5_000;
+    private static final Duration TYPEAHEAD_DELAY = Duration.millis(150);
+    private static final int TYPEAHEAD_LIMIT = 100;
+    private static final int EVENT_PATCH_LIMIT = 200;
     
     @FXML private TextField searchField;
-    @FXML private ComboBox<String> sortComboBox;
+    @FXML private ComboBox<EquipmentSort> sortComboBox;
     @FXML private ListView<Equipment> equipmentList;
+    @FXML private ProgressIndicator loadingIndicator;
     
     private InventoryService inventoryService;
+    private AsyncInventoryService asyncService;
+    private EquipmentSort currentSort = EquipmentSort.ID;
+    private final PauseTransition typeaheadDelay = new PauseTransition(TYPEAHEAD_DELAY);
+    private InventoryEventBus.Subscription eventSubscription;
     
     @FXML
     public void initialize() {
-        inventoryService = new InventoryService();
+        inventoryService = InventoryService.getInstance();
+        asyncService = AsyncInventoryService.getInstance();
+        loadingIndicator.visibleProperty().bind(asyncService.loadingProperty());
         
         sortComboBox.setItems(FXCollections.observableArrayList(
-            "Name (A-Z)", "Name (Z-A)", 
-            "Category", "Quantity (Low-High)", 
-            "Quantity (High-Low)", "Price (Low-High)", 
-            "Price (High-Low)", "Expiry Date"
+            EquipmentSort.NAME_ASC, EquipmentSort.NAME_DESC, 
+            EquipmentSort.CATEGORY, EquipmentSort.QUANTITY_ASC, 
+            EquipmentSort.QUANTITY_DESC, EquipmentSort.PRICE_ASC, 
+            EquipmentSort.PRICE_DESC, EquipmentSort.EXPIRY_DATE
         ));
         
         equipmentList.setCellFactory(lv -> new EquipmentListCell());
+        typeaheadDelay.setOnFinished(e -> runTypeahead());
+        eventSubscription = asyncService.getEventBus().subscribe(this::applyEvents, Platform::runLater);
         
         loadEquipmentData();
     }
     
+    // Patches the visible rows from committed changes. Search results only have rows replaced or removed, and
+    // the paged list or a burst larger than EVENT_PATCH_LIMIT (an import, say) is reloaded instead.
+    private void applyEvents(List<InventoryEvent> events) {
+        List<InventoryEvent> changes = new ArrayList<>();
+        for (InventoryEvent event : events) {
+            if (event instanceof InventoryEvent.EquipmentAdded || event instanceof InventoryEvent.EquipmentUpdated
+                    || event instanceof InventoryEvent.EquipmentDeleted) {
+                changes.add(event);
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        
+        boolean searching = !searchField.getText().trim().isEmpty();
+        ObservableList<Equipment> items = equipmentList.getItems();
+        if (items instanceof PagedEquipmentList || changes.size() > EVENT_PATCH_LIMIT) {
+            if (searching) {
+                handleSearch();
+            } else {
+                loadEquipmentData();
+            }
+            return;
+        }
+        
+        Comparator<Equipment> order = EquipmentSorter.comparator(currentSort);
+        for (InventoryEvent event : changes) {
+            if (event instanceof InventoryEvent.EquipmentAdded added) {
+                if (!searching) {
+                    ListPatch.put(items, Equipment::getId, added.equipment(), order);
+                }
+            } else if (event instanceof InventoryEvent.EquipmentUpdated updated) {
+                if (!searching) {
+                    ListPatch.put(items, Equipment::getId, updated.after(), order);
+                } else {
+                    int index = ListPatch.indexOf(items, Equipment::getId, updated.after().getId());
+                    if (index >= 0) {
+                        items.set(index, updated.after());
+                    }
+                }
+            } else if (event instanceof InventoryEvent.EquipmentDeleted deleted) {
+                ListPatch.remove(items, Equipment::getId, deleted.id());
+            }
+        }
+    }
+    
     @FXML
     public void loadEquipmentData() {
-        List<Equipment> items = inventoryService.getAllEquipment();
-        System.out.println("Loaded " + items.size() + " equipment items");
-        ObservableList<Equipment> data = FXCollections.observableArrayList(items);
-        equipmentList.setItems(data);
+        asyncService.loadEquipmentList(currentSort, PAGED_LIST_THRESHOLD)
+                .thenAccept(this::showEquipmentData)
+                .exceptionally(this::reportFailure);
+    }
+    
+    private void showEquipmentData(ObservableList<Equipment> items) {
+        LOG.atInfo().field("rows", items.size()).field("paged", items instanceof PagedEquipmentList)
+                .log("Equipment list loaded");
+        equipmentList.setItems(items);
         
         if (items.isEmpty()) {
             showAlert(Alert.AlertType.WARNING, "No Data", 
@@ -60,60 +146,110 @@ public class EquipmentManagementController {
         }
     }
     
+    private Void reportFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (!(cause instanceof CancellationException)) {
+            LOG.error("Error accessing equipment data", cause);
+            showAlert(Alert.AlertType.ERROR, "Error", "Operation failed: " + cause.getMessage());
+        }
+        return null;
+    }
+    
+    @FXML
+    private void refreshEquipmentData() {
+        inventoryService.invalidateCatalog();
+        loadEquipmentData();
+    }
+    
     @FXML
     private void handleSearch() {
+        typeaheadDelay.stop();
         String searchTerm = searchField.getText().trim();
         if (searchTerm.isEmpty()) {
             loadEquipmentData();
         } else {
-            List<Equipment> results = inventoryService.searchEquipment(searchTerm);
-            ObservableList<Equipment> data = FXCollections.observableArrayList(results);
-            equipmentList.setItems(data);
+            asyncService.searchEquipment(searchTerm)
+                    .thenAccept(this::showSearchResults)
+                    .exceptionally(this::reportFailure);
         }
     }
     
+    @FXML
+    private void handleSearchTyped(KeyEvent event) {
+        if (event.getCode() != KeyCode.ENTER) {
+            typeaheadDelay.playFromStart();
+        }
+    }
+    
+    private void runTypeahead() {
+        String searchTerm = searchField.getText().trim();
+        if (searchTerm.isEmpty()) {
+            loadEquipmentData();
+        } else {
+            asyncService.typeaheadSearch(searchTerm, TYPEAHEAD_LIMIT)
+                    .thenAccept(this::showSearchResults)
+                    .exceptionally(this::reportFailure);
+        }
+    }
+    
+    private void showSearchResults(List<Equipment> results) {
+        if (currentSort != EquipmentSort.ID) {
+            EquipmentSorter.sort(results, currentSort);
+        }
+        equipmentList.setItems(FXCollections.observableArrayList(results));
+    }
+    
     @FXML
     private void handleSort() {
-        String sortOption = sortComboBox.getValue();
-        if (sortOption == null) return;
+        EquipmentSort sort = sortComboBox.getValue();
+        if (sort == null) return;
+        currentSort = sort;
         
         ObservableList<Equipment> items = equipmentList.getItems();
-        List<Equipment> sortedList = new ArrayList<>(items);
-        
-        switch (sortOption) {
-            case "Name (A-Z)":
-                sortedList.sort((e1, e2) -> e1.getName().compareToIgnoreCase(e2.getName()));
-                break;
-            case "Name (Z-A)":
-                sortedList.sort((e1, e2) -> e2.getName().compareToIgnoreCase(e1.getName()));
-                break;
-            case "Category":
-                sortedList.sort((e1, e2) -> e1.getCategory().compareToIgnoreCase(e2.getCategory()));
-                break;
-            case "Quantity (Low-High)":
-                sortedList.sort((e1, e2) -> Integer.compare(e1.getQuantity(), e2.getQuantity()));
-                break;
-            case "Quantity (High-Low)":
-                sortedList.sort((e1, e2) -> Integer.compare(e2.getQuantity(), e1.getQuantity()));
-                break;
-            case "Price (Low-High)":
-                sortedList.sort((e1, e2) -> Double.compare(e1.getUnitPrice(), e2.getUnitPrice()));
-                break;
-            case "Price (High-Low)":
-                sortedList.sort((e1, e2) -> Double.compare(e2.getUnitPrice(), e1.getUnitPrice()));
-                break;
-            case "Expiry Date":
-                sortedList.sort((e1, e2) -> {
-                    if (e1.getExpiryDate() == null) return 1;
-                    if (e2.getExpiryDate() == null) return -1;
-                    return e1.getExpiryDate().compareTo(e2.getExpiryDate());
-                });
-                break;
+        if (items instanceof PagedEquipmentList pagedItems) {
+            equipmentList.setItems(pagedItems.resorted(sort));
+            return;
         }
         
+        List<Equipment> sortedList = new ArrayList<>(items);
+        EquipmentSorter.sort(sortedList, sort);
         equipmentList.setItems(FXCollections.observableArrayList(sortedList));
     }
     
+    @FXML
+    private void handleImport() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Equipment");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV / TSV files", "*.csv", "*.tsv", "*.txt"),
+                new FileChooser.ExtensionFilter("All files", "*.*"));
+        File file = chooser.showOpenDialog(equipmentList.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        asyncService.importEquipment(file.toPath())
+                .thenAccept(report -> showAlert(report.rowsRejected() == 0 ? Alert.AlertType.INFORMATION
+                        : Alert.AlertType.WARNING, "Import Finished", describeImport(report)))
+                .exceptionally(this::reportFailure);
+    }
+
+    private String describeImport(ImportReport report) {
+        StringBuilder text = new StringBuilder(String.format("Imported %d of %d rows in %.1f s (%.0f rows/s).",
+                report.rowsImported(), report.rowsRead(), report.elapsedMillis() / 1000.0, report.rowsPerSecond()));
+        if (report.rowsRejected() > 0) {
+            text.append("\n").append(report.rowsRejected()).append(" rows rejected:");
+            List<ImportError> errors = report.errors();
+            for (int i = 0; i < Math.min(errors.size(), 10); i++) {
+                text.append("\n").append(errors.get(i));
+            }
+            if (report.rowsRejected() > 10) {
+                text.append("\n...");
+            }
+        }
+        return text.toString();
+    }
+    
     @FXML
     private void showAddDialog() {
         Dialog<Equipment> dialog = new Dialog<>();
@@ -153,14 +289,15 @@ public class EquipmentManagementController {
         });
         
         Optional<Equipment> result = dialog.showAndWait();
-        result.ifPresent(equipment -> {
-            if (inventoryService.addEquipment(equipment)) {
-                showAlert(Alert.AlertType.INFORMATION, "Success", "Equipment added successfully!");
-                loadEquipmentData();
-            } else {
-                showAlert(Alert.AlertType.ERROR, "Error", "Failed to add equipment.");
-            }
-        });
+        result.ifPresent(equipment -> asyncService.submit(null, s -> s.addEquipment(equipment))
+                .thenAccept(added -> {
+                    if (added) {
+                        showAlert(Alert.AlertType.INFORMATION, "Success", "Equipment added successfully!");
+                    } else {
+                        showAlert(Alert.AlertType.ERROR, "Error", "Failed to add equipment.");
+                    }
+                })
+                .exceptionally(this::reportFailure));
     }
     
     @FXML
@@ -208,14 +345,15 @@ public class EquipmentManagementController {
         });
         
         Optional<Equipment> result = dialog.showAndWait();
-        result.ifPresent(equipment -> {
-            if (inventoryService.updateEquipment(equipment)) {
-                showAlert(Alert.AlertType.INFORMATION, "Success", "Equipment updated successfully!");
-                loadEquipmentData();
-            } else {
-                showAlert(Alert.AlertType.ERROR, "Error", "Failed to update equipment.");
-            }
-        });
+        result.ifPresent(equipment -> asyncService.submit(null, s -> s.updateEquipment(equipment))
+                .thenAccept(updated -> {
+                    if (updated) {
+                        showAlert(Alert.AlertType.INFORMATION, "Success", "Equipment updated successfully!");
+                    } else {
+                        showAlert(Alert.AlertType.ERROR, "Error", "Failed to update equipment.");
+                    }
+                })
+                .exceptionally(this::reportFailure));
     }
     
     @FXML
@@ -248,12 +386,15 @@ public class EquipmentManagementController {
         
         Optional<ButtonType> result = confirmAlert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            if (inventoryService.deleteEquipment(selected.getId())) {
-                showAlert(Alert.AlertType.INFORMATION, "Success", "Equipment deleted successfully!");
-                loadEquipmentData();
-            } else {
-                showAlert(Alert.AlertType.ERROR, "Error", "Failed to delete equipment.");
-            }
+            asyncService.submit(null, s -> s.deleteEquipment(selected.getId()))
+                    .thenAccept(deleted -> {
+                        if (deleted) {
+                            showAlert(Alert.AlertType.INFORMATION, "Success", "Equipment deleted successfully!");
+                        } else {
+                            showAlert(Alert.AlertType.ERROR, "Error", "Failed to delete equipment.");
+                        }
+                    })
+                    .exceptionally(this::reportFailure);
         }
     }
     
@@ -357,17 +498,20 @@ public class EquipmentManagementController {
         });
         
         Optional<Order> result = dialog.showAndWait();
-        result.ifPresent(order -> {
-            if (inventoryService.addOrder(order)) {
-                showAlert(Alert.AlertType.INFORMATION, "Success", "Order placed successfully!");
-            } else {
-                showAlert(Alert.AlertType.ERROR, "Error", "Failed to place order.");
-            }
-        });
+        result.ifPresent(order -> asyncService.submit(null, s -> s.addOrder(order))
+                .thenAccept(placed -> {
+                    if (placed) {
+                        showAlert(Alert.AlertType.INFORMATION, "Success", "Order placed successfully!");
+                    } else {
+                        showAlert(Alert.AlertType.ERROR, "Error", "Failed to place order.");
+                    }
+                })
+                .exceptionally(this::reportFailure));
     }
     
     @FXML
     private void backToHome() {
+        eventSubscription.cancel();
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/labinventory/home.fxml"));
             Parent root = loader.load();
@@ -377,8 +521,7 @@ public class EquipmentManagementController {
             stage.setScene(scene);
             stage.setTitle("Lab Inventory Management System");
         } catch (IOException e) {
-            e.printStackTrace();
-            System.err.println("Error loading Home view: " + e.getMessage());
+            LOG.error("Error loading Home view", e);
         }
     }
     
@@ -532,10 +675,14 @@ public class EquipmentManagementController {
         protected void updateItem(Equipment equipment, boolean empty) {
             super.updateItem(equipment, empty);
             
-            if (empty || equipment == null) {
+            if (empty) {
                 setGraphic(null);
                 setText(null);
+            } else if (equipment == null) {
+                setGraphic(null);
+                setText("Loading...");
             } else {
+                setText(null);
                 HBox card = new HBox(20);
                 card.setAlignment(Pos.CENTER_LEFT);
                 card.setStyle("-fx-background-color: white; -fx-padding: 15; -fx-background-radius: 8; " +
@@ -1,16 +1,33 @@
 package com.labinventory.controller;
 
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
 import com.labinventory.model.Equipment;
 import com.labinventory.model.Order;
+import com.labinventory.service.AsyncInventoryService;
+import com.labinventory.service.DashboardData;
+import com.labinventory.service.DashboardSnapshot;
+import com.labinventory.service.InventoryAlert;
+import com.labinventory.service.InventoryEvent;
+import com.labinventory.service.InventoryEventBus;
 import com.labinventory.service.InventoryService;
+import com.labinventory.service.OrderReceipt;
+import com.labinventory.service.ReceiveReport;
+import com.labinventory.service.ReorderPlan;
+import com.labinventory.service.StockForecast;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.ListView;
 import javafx.scene.control.ListCell;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.SelectionMode;
 import javafx.scene.text.Text;
 import javafx.scene.layout.VBox;
 import javafx.scene.layout.HBox;
@@ -19,9 +36,25 @@ import javafx.geometry.Insets;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 
 public class HomeController {
+    private static final Logger LOG = Log.getLogger(HomeController.class);
+
+    // The same orders the DAO queries use, so patched rows land where a reload would put them.
+    private static final Comparator<Equipment> LOW_STOCK_ORDER =
+            Comparator.comparingInt(Equipment::getQuantity).thenComparingInt(Equipment::getId);
+    private static final Comparator<Equipment> EXPIRY_ORDER =
+            Comparator.comparing(Equipment::getExpiryDate).thenComparingInt(Equipment::getId);
+    private static final Comparator<Order> DELIVERY_ORDER = Comparator.comparing(Order::getExpectedDeliveryDate,
+            Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder())).thenComparingInt(Order::getId);
     
     @FXML private Text lowStockCount;
     @FXML private Text expiryAlertCount;
@@ -30,50 +63,249 @@ public class HomeController {
     @FXML private ListView<Equipment> lowStockList;
     @FXML private ListView<Equipment> expiryList;
     @FXML private ListView<Order> orderList;
+    @FXML private ProgressIndicator loadingIndicator;
     
-    private InventoryService inventoryService;
+    private AsyncInventoryService asyncService;
+    private InventoryEventBus.Subscription eventSubscription;
+    private final Map<Integer, StockForecast> stockForecasts = new HashMap<>();
+    // Low-stock rows shown without a forecast for their latest version yet.
+    private final Map<Integer, Equipment> forecastsPending = new HashMap<>();
     
     @FXML
     public void initialize() {
-        inventoryService = new InventoryService();
+        asyncService = AsyncInventoryService.getInstance();
+        loadingIndicator.visibleProperty().bind(asyncService.loadingProperty());
         
-        lowStockList.setCellFactory(param -> new EquipmentListCell());
+        lowStockList.setCellFactory(param -> new EquipmentListCell(stockForecasts));
         expiryList.setCellFactory(param -> new ExpiryEquipmentListCell());
         orderList.setCellFactory(param -> new OrderListCell());
+        orderList.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        eventSubscription = asyncService.getEventBus().subscribe(this::applyEvents, Platform::runLater);
         
         loadDashboardData();
     }
     
+    // Moves the changed rows in or out of the alert and order lists; the counters come from the in-memory
+    // dashboard aggregates, so nothing here queries the database.
+    private void applyEvents(List<InventoryEvent> events) {
+        LocalDate expiryCutoff = asyncService.getAlertEngine().getExpiryCutoff();
+        for (InventoryEvent event : events) {
+            if (event instanceof InventoryEvent.EquipmentAdded added) {
+                showEquipmentChange(added.equipment().getId(), added.equipment(), expiryCutoff);
+            } else if (event instanceof InventoryEvent.EquipmentUpdated updated) {
+                showEquipmentChange(updated.after().getId(), updated.after(), expiryCutoff);
+            } else if (event instanceof InventoryEvent.EquipmentDeleted deleted) {
+                showEquipmentChange(deleted.id(), null, expiryCutoff);
+            } else if (event instanceof InventoryEvent.OrderPlaced placed) {
+                showOrderChange(placed.order().getId(), placed.order());
+            } else if (event instanceof InventoryEvent.OrderStatusChanged changed) {
+                showOrderChange(changed.order().getId(), changed.order());
+            } else if (event instanceof InventoryEvent.OrderDelivered delivered) {
+                showOrderChange(delivered.orderId(), null);
+            } else if (event instanceof InventoryEvent.OrderDeleted deleted) {
+                showOrderChange(deleted.orderId(), null);
+            } else if (event instanceof InventoryEvent.AlertRaised raised) {
+                showAlertRaised(raised.alert());
+            }
+        }
+        asyncService.submit(null, InventoryService::getDashboardSnapshot)
+                .thenAccept(this::showCounts)
+                .exceptionally(this::reportLoadFailure);
+        if (!forecastsPending.isEmpty()) {
+            loadPendingForecasts();
+        }
+    }
+    
+    // Each request asks for every pending row, so one that supersedes an earlier request still covers its rows.
+    private void loadPendingForecasts() {
+        List<Equipment> items = List.copyOf(forecastsPending.values());
+        asyncService.loadStockForecasts(items)
+                .thenAccept(forecasts -> showForecasts(items, forecasts))
+                .exceptionally(this::reportLoadFailure);
+    }
+    
+    private void showForecasts(List<Equipment> items, Map<Integer, StockForecast> forecasts) {
+        for (Equipment item : items) {
+            // A row changed or removed since the request keeps waiting for, or no longer needs, a forecast.
+            if (forecastsPending.get(item.getId()) == item) {
+                forecastsPending.remove(item.getId());
+                stockForecasts.put(item.getId(), forecasts.get(item.getId()));
+            }
+        }
+        lowStockList.refresh();
+    }
+    
+    private void showEquipmentChange(int id, Equipment equipment, LocalDate expiryCutoff) {
+        if (equipment != null && equipment.isLowStock()) {
+            forecastsPending.put(id, equipment);
+            ListPatch.put(lowStockList.getItems(), Equipment::getId, equipment, LOW_STOCK_ORDER);
+        } else {
+            stockForecasts.remove(id);
+            forecastsPending.remove(id);
+            ListPatch.remove(lowStockList.getItems(), Equipment::getId, id);
+        }
+        if (equipment != null && equipment.isNearExpiry(expiryCutoff)) {
+            ListPatch.put(expiryList.getItems(), Equipment::getId, equipment, EXPIRY_ORDER);
+        } else {
+            ListPatch.remove(expiryList.getItems(), Equipment::getId, id);
+        }
+    }
+    
+    // Raised by the alert engine, also when an item comes within the expiry horizon as the days pass.
+    private void showAlertRaised(InventoryAlert alert) {
+        if (alert.type() == InventoryAlert.Type.NEAR_EXPIRY) {
+            ListPatch.put(expiryList.getItems(), Equipment::getId, alert.equipment(), EXPIRY_ORDER);
+        } else {
+            forecastsPending.put(alert.equipment().getId(), alert.equipment());
+            ListPatch.put(lowStockList.getItems(), Equipment::getId, alert.equipment(), LOW_STOCK_ORDER);
+        }
+    }
+    
+    private void showOrderChange(int id, Order order) {
+        if (order != null && order.isActiveOrder()) {
+            ListPatch.put(orderList.getItems(), Order::getId, order, DELIVERY_ORDER);
+        } else {
+            ListPatch.remove(orderList.getItems(), Order::getId, id);
+        }
+    }
+    
+    private void showCounts(DashboardSnapshot snapshot) {
+        lowStockCount.setText(String.valueOf(snapshot.lowStockCount()));
+        expiryAlertCount.setText(String.valueOf(snapshot.nearExpiryCount()));
+        activeOrderCount.setText(String.valueOf(snapshot.activeOrderCount()));
+    }
+    
     private void loadDashboardData() {
-        List<Equipment> lowStockItems = inventoryService.getLowStockAlerts();
-        System.out.println("Loading " + lowStockItems.size() + " low stock items");
+        asyncService.loadDashboard()
+                .thenAccept(this::showDashboardData)
+                .exceptionally(this::reportLoadFailure);
+    }
+    
+    private void showDashboardData(DashboardData dashboardData) {
+        DashboardSnapshot snapshot = dashboardData.snapshot();
+        
+        List<Equipment> lowStockItems = dashboardData.lowStockItems();
+        stockForecasts.clear();
+        stockForecasts.putAll(dashboardData.stockForecasts());
         ObservableList<Equipment> lowStockData = FXCollections.observableArrayList(lowStockItems);
         lowStockList.setItems(lowStockData);
-        lowStockCount.setText(String.valueOf(lowStockItems.size()));
+        lowStockCount.setText(String.valueOf(snapshot.lowStockCount()));
         
-        List<Equipment> expiryItems = inventoryService.getExpiryAlerts();
-        System.out.println("Loading " + expiryItems.size() + " expiry alerts");
+        List<Equipment> expiryItems = dashboardData.expiryItems();
         ObservableList<Equipment> expiryData = FXCollections.observableArrayList(expiryItems);
         expiryList.setItems(expiryData);
-        expiryAlertCount.setText(String.valueOf(expiryItems.size()));
+        expiryAlertCount.setText(String.valueOf(snapshot.nearExpiryCount()));
         
-        List<Order> activeOrders = inventoryService.getActiveOrders();
-        System.out.println("Loading " + activeOrders.size() + " active orders");
+        List<Order> activeOrders = dashboardData.activeOrders();
         ObservableList<Order> orderData = FXCollections.observableArrayList(activeOrders);
         orderList.setItems(orderData);
-        activeOrderCount.setText(String.valueOf(activeOrders.size()));
+        activeOrderCount.setText(String.valueOf(snapshot.activeOrderCount()));
         
-        System.out.println("Dashboard data loaded successfully!");
+        LOG.atInfo().field("lowStock", lowStockItems.size()).field("expiring", expiryItems.size())
+                .field("activeOrders", activeOrders.size()).log("Dashboard data loaded");
+    }
+    
+    private Void reportLoadFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (!(cause instanceof CancellationException)) {
+            LOG.error("Error loading dashboard data", cause);
+        }
+        return null;
     }
     
     @FXML
     private void refreshDashboard() {
         loadDashboardData();
-        System.out.println("Dashboard refreshed!");
+        LOG.debug("Dashboard refresh requested");
+    }
+    
+    @FXML
+    private void receiveSelectedOrders() {
+        List<Integer> orderIds = new ArrayList<>();
+        for (Order order : orderList.getSelectionModel().getSelectedItems()) {
+            orderIds.add(order.getId());
+        }
+        if (orderIds.isEmpty()) {
+            showAlert(Alert.AlertType.INFORMATION, "Receive Orders", "Select one or more orders to receive.");
+            return;
+        }
+        
+        asyncService.receiveOrders(orderIds)
+                .thenAccept(report -> {
+                    showAlert(report.delivered() == orderIds.size() ? Alert.AlertType.INFORMATION : Alert.AlertType.WARNING,
+                            "Orders Received", describeReceipt(report));
+                })
+                .exceptionally(this::reportLoadFailure);
+    }
+    
+    private String describeReceipt(ReceiveReport report) {
+        StringBuilder text = new StringBuilder(String.format("Received %d of %d orders, restocking %d items.",
+                report.delivered(), report.receipts().size(), report.equipmentRestocked()));
+        for (OrderReceipt receipt : report.receipts()) {
+            if (receipt.outcome() != OrderReceipt.Outcome.DELIVERED) {
+                text.append("\n").append(receipt);
+            }
+        }
+        return text.toString();
+    }
+    
+    @FXML
+    private void reorderLowStock() {
+        asyncService.planReorders()
+                .thenAccept(plan -> {
+                    if (plan.isEmpty()) {
+                        showAlert(Alert.AlertType.INFORMATION, "Reorder Low Stock",
+                                "Every low stock item is already covered by active orders.");
+                        return;
+                    }
+                    Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+                    confirm.setTitle("Reorder Low Stock");
+                    confirm.setHeaderText("Place " + plan.orderCount() + " orders?");
+                    confirm.setContentText(describePlan(plan));
+                    if (confirm.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+                        return;
+                    }
+                    asyncService.placeReorders(plan)
+                            .thenAccept(placed -> {
+                                if (placed < 0) {
+                                    showAlert(Alert.AlertType.ERROR, "Reorder Low Stock", "Failed to place the orders.");
+                                } else if (placed < plan.orderCount()) {
+                                    showAlert(Alert.AlertType.INFORMATION, "Reorder Low Stock", "Placed " + placed +
+                                            " of " + plan.orderCount() + " orders; the rest were ordered in the meantime.");
+                                } else {
+                                    showAlert(Alert.AlertType.INFORMATION, "Reorder Low Stock", "Placed " + placed + " orders.");
+                                }
+                            })
+                            .exceptionally(this::reportLoadFailure);
+                })
+                .exceptionally(this::reportLoadFailure);
+    }
+    
+    private String describePlan(ReorderPlan plan) {
+        StringBuilder text = new StringBuilder(String.format("%d of %d low stock items need reordering, ₹%.2f in total.",
+                plan.orderCount(), plan.lowStockItems(), plan.totalCost()));
+        plan.ordersBySupplier().forEach((supplier, orders) -> {
+            double cost = 0;
+            for (Order order : orders) {
+                cost += order.getTotalCost();
+            }
+            text.append(String.format("%n%s: %d orders, ₹%.2f", supplier.isEmpty() ? "No supplier" : supplier,
+                    orders.size(), cost));
+        });
+        return text.toString();
+    }
+    
+    private void showAlert(Alert.AlertType type, String title, String content) {
+        Alert alert = new Alert(type);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(content);
+        alert.showAndWait();
     }
     
     @FXML
     private void openEquipmentManagement() {
+        eventSubscription.cancel();
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/labinventory/equipment_management.fxml"));
             Parent root = loader.load();
@@ -83,12 +315,17 @@ public class HomeController {
             stage.setScene(scene);
             stage.setTitle("Equipment Management");
         } catch (IOException e) {
-            e.printStackTrace();
-            System.err.println("Error loading Equipment Management view: " + e.getMessage());
+            LOG.error("Error loading Equipment Management view", e);
         }
     }
     
     private static class EquipmentListCell extends ListCell<Equipment> {
+        private final Map<Integer, StockForecast> forecasts;
+        
+        EquipmentListCell(Map<Integer, StockForecast> forecasts) {
+            this.forecasts = forecasts;
+        }
+        
         @Override
         protected void updateItem(Equipment equipment, boolean empty) {
             super.updateItem(equipment, empty);
@@ -116,6 +353,17 @@ public class HomeController {
                 label.setStyle("-fx-font-size: 11px; -fx-fill: #95a5a6;");
                 qtyBox.getChildren().addAll(qty, label);
                 
+                VBox stockoutBox = new VBox(3);
+                stockoutBox.setStyle("-fx-alignment: center-right;");
+                StockForecast forecast = forecasts.get(equipment.getId());
+                Text stockout = new Text(forecast == null || !forecast.hasUsage() ? "-"
+                        : String.format("%.0f days", Math.floor(forecast.daysUntilStockout())));
+                stockout.setStyle("-fx-font-size: 14px; -fx-font-weight: bold; -fx-fill: " +
+                        (forecast != null && forecast.daysUntilStockout() < 7 ? "#FCA47C" : "#34495e") + ";");
+                Text stockoutLabel = new Text("Runs Out In");
+                stockoutLabel.setStyle("-fx-font-size: 11px; -fx-fill: #95a5a6;");
+                stockoutBox.getChildren().addAll(stockoutLabel, stockout);
+                
                 VBox locBox = new VBox(3);
                 locBox.setStyle("-fx-alignment: center-right;");
                 Text location = new Text(equipment.getLocation());
@@ -124,7 +372,7 @@ public class HomeController {
                 locLabel.setStyle("-fx-font-size: 11px; -fx-fill: #95a5a6;");
                 locBox.getChildren().addAll(locLabel, location);
                 
-                container.getChildren().addAll(nameBox, qtyBox, locBox);
+                container.getChildren().addAll(nameBox, qtyBox, stockoutBox, locBox);
                 setGraphic(container);
             }
         }
@@ -0,0 +1,45 @@
+package com.labinventory.controller;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+// Single-row edits on a list kept in comparator order, so a change event touches one row instead of the whole list.
+class ListPatch {
+
+    static <T> int indexOf(List<T> items, ToIntFunction<T> id, int wanted) {
+        for (int i = 0; i < items.size(); i++) {
+            if (id.applyAsInt(items.get(i)) == wanted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static <T> boolean remove(List<T> items, ToIntFunction<T> id, int wanted) {
+        int index = indexOf(items, id, wanted);
+        if (index < 0) {
+            return false;
+        }
+        items.remove(index);
+        return true;
+    }
+
+    // Replaces the row with the same id, or inserts the item if there is none. A row whose sort position is
+    // unchanged is replaced in place so its selection survives.
+    static <T> void put(List<T> items, ToIntFunction<T> id, T item, Comparator<? super T> order) {
+        int index = indexOf(items, id, id.applyAsInt(item));
+        if (index >= 0) {
+            boolean afterPrevious = index == 0 || order.compare(items.get(index - 1), item) <= 0;
+            boolean beforeNext = index == items.size() - 1 || order.compare(item, items.get(index + 1)) <= 0;
+            if (afterPrevious && beforeNext) {
+                items.set(index, item);
+                return;
+            }
+            items.remove(index);
+        }
+        int position = Collections.binarySearch(items, item, order);
+        items.add(position < 0 ? -position - 1 : position, item);
+    }
+}
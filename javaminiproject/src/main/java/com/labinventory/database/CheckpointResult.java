@@ -0,0 +1,22 @@
+package com.labinventory.database;
+
+public record CheckpointResult(Mode mode, boolean busy, int walFrames, int checkpointedFrames, long elapsedMillis) {
+
+    public enum Mode {
+        PASSIVE,
+        FULL,
+        RESTART,
+        TRUNCATE
+    }
+
+    @Override
+    public String toString() {
+        return "CheckpointResult{" +
+                "mode=" + mode +
+                ", busy=" + busy +
+                ", walFrames=" + walFrames +
+                ", checkpointedFrames=" + checkpointedFrames +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
@@ -0,0 +1,235 @@
+package com.labinventory.database;
+
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.metrics.LatencyHistogram;
+import com.labinventory.metrics.MetricsRegistry;
+
+import java.sql.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger LOG = Log.getLogger(ConnectionPool.class);
+
+    public static final long DEFAULT_LEASE_TIMEOUT_MILLIS = 30_000;
+
+    private static final LatencyHistogram READER_ACQUIRE = acquireHistogram("read");
+    private static final LatencyHistogram WRITER_ACQUIRE = acquireHistogram("write");
+
+    private final String url;
+    private final StorageProfile profile;
+    private final long leaseTimeoutMillis;
+    private final int statementCacheSize;
+    private final StatementProfiler profiler;
+    private final StatementCache.Counters statementCacheCounters = new StatementCache.Counters();
+    private final Partition writers;
+    private final Partition readers;
+
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    public ConnectionPool(String url, int readerCount) {
+        this(url, readerCount, StorageProfile.THROUGHPUT);
+    }
+
+    public ConnectionPool(String url, int readerCount, StorageProfile profile) {
+        this(url, readerCount, profile, DEFAULT_LEASE_TIMEOUT_MILLIS, StatementCache.DEFAULT_CAPACITY);
+    }
+
+    public ConnectionPool(String url, int readerCount, StorageProfile profile,
+                          long leaseTimeoutMillis, int statementCacheSize) {
+        this(url, readerCount, profile, leaseTimeoutMillis, statementCacheSize, StatementProfiler.fromSystemProperty());
+    }
+
+    // A null profiler hands out the driver's connections unwrapped.
+    public ConnectionPool(String url, int readerCount, StorageProfile profile,
+                          long leaseTimeoutMillis, int statementCacheSize, StatementProfiler profiler) {
+        if (readerCount < 1) {
+            throw new IllegalArgumentException("Reader count must be at least 1: " + readerCount);
+        }
+        this.url = url;
+        this.profile = profile;
+        this.leaseTimeoutMillis = leaseTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.profiler = profiler;
+        this.writers = new Partition(1, true);
+        this.readers = new Partition(readerCount, false);
+    }
+
+    public PooledConnection leaseWriter() throws SQLException {
+        return lease(writers);
+    }
+
+    public PooledConnection leaseReader() throws SQLException {
+        return lease(readers);
+    }
+
+    public PoolMetrics getMetrics() {
+        return new PoolMetrics(leases.sum(), timeouts.sum(), totalWaitNanos.sum(), maxWaitNanos.get(),
+                readers.open.get(), writers.open.get(), inUse.get());
+    }
+
+    public StatementCacheMetrics getStatementCacheMetrics() {
+        return statementCacheCounters.snapshot();
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public StorageProfile getProfile() {
+        return profile;
+    }
+
+    public StatementProfiler getProfiler() {
+        return profiler;
+    }
+
+    public CheckpointResult checkpoint(CheckpointResult.Mode mode) throws SQLException {
+        long start = System.nanoTime();
+        try (PooledConnection conn = leaseWriter();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(" + mode.name() + ")")) {
+            boolean busy = false;
+            int walFrames = 0;
+            int checkpointedFrames = 0;
+            if (rs.next()) {
+                busy = rs.getInt(1) != 0;
+                walFrames = rs.getInt(2);
+                checkpointedFrames = rs.getInt(3);
+            }
+            return new CheckpointResult(mode, busy, walFrames, checkpointedFrames,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private PooledConnection lease(Partition partition) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        PooledConnection pooled = partition.idle.poll();
+        if (pooled == null) {
+            pooled = partition.tryOpen();
+        }
+        if (pooled == null) {
+            try {
+                pooled = partition.idle.poll(leaseTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+            if (pooled == null) {
+                timeouts.increment();
+                throw new SQLTimeoutException("Timed out after " + leaseTimeoutMillis + " ms waiting for a "
+                        + (partition.writer ? "writer" : "reader") + " connection");
+            }
+        }
+
+        long waited = System.nanoTime() - start;
+        leases.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        (partition.writer ? WRITER_ACQUIRE : READER_ACQUIRE).record(waited);
+        inUse.incrementAndGet();
+        pooled.setLeased(true);
+        return pooled;
+    }
+
+    void release(PooledConnection pooled) {
+        if (!pooled.isLeased()) {
+            return;
+        }
+        pooled.setLeased(false);
+        inUse.decrementAndGet();
+        Partition partition = pooled.isWriter() ? writers : readers;
+
+        boolean reusable;
+        try {
+            Connection conn = pooled.getConnection();
+            reusable = !closed && !conn.isClosed();
+            if (reusable && !conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOG.warn("Discarding broken pooled connection", e);
+            reusable = false;
+        }
+
+        if (!reusable || !partition.idle.offer(pooled)) {
+            pooled.closeQuietly();
+            partition.open.decrementAndGet();
+        }
+    }
+
+    private Connection openConnection(boolean writer) throws SQLException {
+        Connection conn = DriverManager.getConnection(url, profile.toConfig(writer).toProperties());
+        try {
+            profile.applyAfterOpen(conn, writer);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return profiler == null ? conn : profiler.wrap(conn);
+    }
+
+    private static LatencyHistogram acquireHistogram(String mode) {
+        return MetricsRegistry.getDefault().histogram("labinventory_connection_acquire_seconds",
+                "Time to lease a pooled database connection", "mode", mode);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Partition partition : new Partition[] {writers, readers}) {
+            PooledConnection pooled;
+            while ((pooled = partition.idle.poll()) != null) {
+                pooled.closeQuietly();
+                partition.open.decrementAndGet();
+            }
+        }
+    }
+
+    private class Partition {
+        private final int capacity;
+        private final boolean writer;
+        private final BlockingQueue<PooledConnection> idle;
+        private final AtomicInteger open = new AtomicInteger();
+
+        Partition(int capacity, boolean writer) {
+            this.capacity = capacity;
+            this.writer = writer;
+            this.idle = new ArrayBlockingQueue<>(capacity);
+        }
+
+        PooledConnection tryOpen() throws SQLException {
+            int current;
+            do {
+                current = open.get();
+                if (current >= capacity) {
+                    return null;
+                }
+            } while (!open.compareAndSet(current, current + 1));
+
+            try {
+                Connection conn = openConnection(writer);
+                StatementCache cache = new StatementCache(conn, statementCacheSize, statementCacheCounters);
+                return new PooledConnection(ConnectionPool.this, conn, writer, cache);
+            } catch (SQLException e) {
+                open.decrementAndGet();
+                throw e;
+            }
+        }
+    }
+}
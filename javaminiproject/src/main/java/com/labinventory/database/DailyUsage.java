@@ -0,0 +1,5 @@
+package com.labinventory.database;
+
+// Units of an equipment item used on one day, the day given as LocalDate.toEpochDay().
+public record DailyUsage(int equipmentId, long epochDay, int units) {
+}
@@ -1,33 +1,197 @@
 package com.labinventory.database;
 
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.metrics.MetricsRegistry;
+
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
 
 public class DatabaseManager {
+    private static final Logger LOG = Log.getLogger(DatabaseManager.class);
+
+    public static final String DB_PATH_PROPERTY = "labinventory.db.path";
     private static final String DB_NAME = "lab_inventory.db";
-    private static final String DB_URL = "jdbc:sqlite:" + DB_NAME;
-    private static Connection connection = null;
+    private static final int READER_CONNECTIONS = 4;
+    private static String databasePath = System.getProperty(DB_PATH_PROPERTY, DB_NAME);
+    private static StorageProfile storageProfile = StorageProfile.fromSystemProperty();
+    private static ConnectionPool pool = null;
+    private static final ThreadLocal<Transaction> currentTransaction = new ThreadLocal<>();
+
+    static {
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        metrics.gauge("labinventory_pool_connections_open", "Open pooled database connections",
+                () -> openPoolMetrics() == null ? 0 : openPoolMetrics().openConnections());
+        metrics.gauge("labinventory_pool_connections_in_use", "Pooled database connections currently leased",
+                () -> openPoolMetrics() == null ? 0 : openPoolMetrics().inUse());
+        metrics.gauge("labinventory_statement_cache_hit_ratio", "Prepared statement cache hit ratio",
+                () -> openStatementCacheMetrics() == null ? 0 : openStatementCacheMetrics().hitRate());
+    }
 
     public static void initialize() {
         try {
-            connection = DriverManager.getConnection(DB_URL);
-            System.out.println("Database connection established.");
-            createTables();
+            // Opens the first connection now so a bad path or profile fails here rather than on first use.
+            getWriteConnection().close();
+            LOG.atInfo().field("path", databasePath).field("profile", storageProfile)
+                    .log("Database connection pool established");
         } catch (SQLException e) {
-            System.err.println("Error connecting to database: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error connecting to database", e);
+            return;
         }
+        createTables();
+        QueryPlanVerifier.verifyAndReport();
     }
 
-    public static Connection getConnection() {
-        try {
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(DB_URL);
+    public static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            pool = new ConnectionPool("jdbc:sqlite:" + databasePath, READER_CONNECTIONS, storageProfile);
+        }
+        return pool;
+    }
+
+    public static synchronized void setStorageProfile(StorageProfile profile) {
+        if (pool != null) {
+            throw new IllegalStateException("Storage profile must be set before the database is opened");
+        }
+        storageProfile = profile;
+    }
+
+    public static synchronized void setDatabasePath(String path) {
+        if (pool != null) {
+            throw new IllegalStateException("Database path must be set before the database is opened");
+        }
+        databasePath = path;
+    }
+
+    public static String getDatabasePath() {
+        return databasePath;
+    }
+
+    public static StorageProfile getStorageProfile() {
+        return storageProfile;
+    }
+
+    public static CheckpointResult checkpoint(CheckpointResult.Mode mode) throws SQLException {
+        return getPool().checkpoint(mode);
+    }
+
+    public static PooledConnection getReadConnection() throws SQLException {
+        return getPool().leaseReader();
+    }
+
+    public static PooledConnection getWriteConnection() throws SQLException {
+        Transaction transaction = currentTransaction.get();
+        if (transaction != null) {
+            return transaction.connection.join();
+        }
+        return getPool().leaseWriter();
+    }
+
+    // Runs work as one transaction on the writer connection. Every DAO write made by work on this thread joins it.
+    // A nested inTransaction call runs under a savepoint, so its failure only undoes its own writes. Reads still go
+    // to reader connections and do not see the uncommitted writes.
+    public static <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        Transaction outer = currentTransaction.get();
+        if (outer != null) {
+            Connection connection = outer.connection.getConnection();
+            Savepoint savepoint = connection.setSavepoint();
+            int hooks = outer.afterCommit.size();
+            try {
+                T result = work.execute();
+                connection.releaseSavepoint(savepoint);
+                return result;
+            } catch (Throwable e) {
+                connection.rollback(savepoint);
+                // The hooks added under the savepoint describe writes that were just undone.
+                outer.afterCommit.subList(hooks, outer.afterCommit.size()).clear();
+                throw e;
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting database connection: " + e.getMessage());
-            e.printStackTrace();
         }
-        return connection;
+        try (PooledConnection conn = getPool().leaseWriter()) {
+            Connection connection = conn.getConnection();
+            Transaction transaction = new Transaction(conn);
+            connection.setAutoCommit(false);
+            currentTransaction.set(transaction);
+            T result;
+            try {
+                result = work.execute();
+                connection.commit();
+            } catch (Throwable e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                currentTransaction.remove();
+                connection.setAutoCommit(true);
+            }
+            // Hooks run before the writer is released, so they observe commits in the order they happened.
+            for (Runnable hook : transaction.afterCommit) {
+                runHook(hook);
+            }
+            return result;
+        }
+    }
+
+    // inTransaction for loads that insert many equipment rows: the full-text index is rebuilt once when work is
+    // done instead of row by row.
+    public static <T> T inBulkLoad(TransactionWork<T> work) throws SQLException {
+        return inTransaction(() -> {
+            try (PooledConnection conn = getWriteConnection();
+                 Statement stmt = conn.createStatement()) {
+                boolean suspended = SchemaMigrations.suspendSearchInsertSync(stmt);
+                T result = work.execute();
+                if (suspended) {
+                    SchemaMigrations.resumeSearchInsertSync(stmt);
+                }
+                return result;
+            }
+        });
+    }
+
+    public static boolean isInTransaction() {
+        return currentTransaction.get() != null;
+    }
+
+    // Defers hook until the current transaction commits and drops it on rollback, including the rollback of a nested
+    // inTransaction it was added in. Outside a transaction it runs now.
+    public static void afterCommit(Runnable hook) {
+        Transaction transaction = currentTransaction.get();
+        if (transaction != null) {
+            transaction.afterCommit.add(hook);
+        } else {
+            runHook(hook);
+        }
+    }
+
+    private static void runHook(Runnable hook) {
+        try {
+            hook.run();
+        } catch (RuntimeException e) {
+            LOG.error("Error in after-commit hook", e);
+        }
+    }
+
+    public static PoolMetrics getPoolMetrics() {
+        return getPool().getMetrics();
+    }
+
+    public static StatementCacheMetrics getStatementCacheMetrics() {
+        return getPool().getStatementCacheMetrics();
+    }
+
+    // Empty when SQL profiling is turned off.
+    public static List<StatementStats> getStatementStats() {
+        StatementProfiler profiler = getPool().getProfiler();
+        return profiler == null ? List.of() : profiler.getStatementStats();
+    }
+
+    // For gauges: null while the database is closed, instead of opening it.
+    private static synchronized PoolMetrics openPoolMetrics() {
+        return pool == null ? null : pool.getMetrics();
+    }
+
+    private static synchronized StatementCacheMetrics openStatementCacheMetrics() {
+        return pool == null ? null : pool.getStatementCacheMetrics();
     }
 
     private static void createTables() {
@@ -62,38 +226,77 @@ public class DatabaseManager {
             )
         """;
 
-        try (Statement stmt = connection.createStatement()) {
+        try (PooledConnection conn = getWriteConnection();
+             Statement stmt = conn.createStatement()) {
             stmt.execute(createEquipmentsTable);
             stmt.execute(createOrdersTable);
-            System.out.println("Tables created successfully.");
+            LOG.info("Tables created successfully.");
+            SchemaMigrations.migrate(conn);
         } catch (SQLException e) {
-            System.err.println("Error creating tables: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error creating tables", e);
         }
     }
 
-    public static void close() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed.");
+    public static synchronized void close() {
+        if (pool != null) {
+            try (PooledConnection conn = pool.leaseWriter();
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA optimize");
+            } catch (SQLException e) {
+                LOG.warn("Error optimizing database", e);
             }
-        } catch (SQLException e) {
-            System.err.println("Error closing database: " + e.getMessage());
-            e.printStackTrace();
+            try {
+                CheckpointResult checkpoint = pool.checkpoint(CheckpointResult.Mode.TRUNCATE);
+                LOG.atInfo().field("walFrames", checkpoint.walFrames()).field("busy", checkpoint.busy())
+                        .field("millis", checkpoint.elapsedMillis()).log("WAL checkpoint on close");
+            } catch (SQLException e) {
+                LOG.warn("Error checkpointing database", e);
+            }
+            LOG.atInfo().field("pool", pool.getMetrics()).field("statementCache", pool.getStatementCacheMetrics())
+                    .log("Closing database connection pool");
+            logSlowestStatements();
+            pool.close();
+            pool = null;
+            LOG.info("Database connection closed.");
+        }
+    }
+
+    private static void logSlowestStatements() {
+        StatementProfiler profiler = pool.getProfiler();
+        if (profiler == null) {
+            return;
+        }
+        List<StatementStats> stats = profiler.getStatementStats();
+        for (int i = 0; i < Math.min(5, stats.size()); i++) {
+            StatementStats statement = stats.get(i);
+            LOG.atInfo().field("rank", i + 1).field("sql", statement.sql()).field("calls", statement.latency().count())
+                    .field("totalMillis", statement.latency().sumNanos() / 1_000_000)
+                    .field("p50Micros", statement.latency().percentileNanos(50) / 1_000)
+                    .field("p99Micros", statement.latency().percentileNanos(99) / 1_000)
+                    .field("rows", statement.rows()).log("Slowest SQL statements by total time");
         }
     }
 
     public static boolean isDatabaseEmpty() {
         String query = "SELECT COUNT(*) as count FROM equipments";
-        try (Statement stmt = connection.createStatement();
+        try (PooledConnection conn = getReadConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
             if (rs.next()) {
                 return rs.getInt("count") == 0;
             }
         } catch (SQLException e) {
-            System.err.println("Error checking database: " + e.getMessage());
+            LOG.warn("Error checking database", e);
         }
         return true;
     }
+
+    private static class Transaction {
+        private final PooledConnection connection;
+        private final List<Runnable> afterCommit = new ArrayList<>();
+
+        Transaction(PooledConnection connection) {
+            this.connection = connection;
+        }
+    }
 }
@@ -0,0 +1,389 @@
+package com.labinventory.database;
+
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.model.Equipment;
+import com.labinventory.model.Order;
+import com.labinventory.model.Order.OrderStatus;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Generates large, realistic-looking inventories for load and scale testing. Every item and order is a pure
+// function of (seed, asOf, index), so the same arguments always produce the same rows, in any chunk size and
+// whether written to SQLite or to CSV. Categories and suppliers follow Zipf-like popularity, about one item in
+// eleven is at or below its lower limit, and order statuses follow from each order's age relative to asOf.
+//
+//   mvn -q compile org.codehaus.mojo:exec-maven-plugin:3.1.0:java \
+//       -Dexec.mainClass=com.labinventory.database.DatasetGenerator \
+//       -Dexec.args="--items 1000000 --orders 200000 --seed 42 --db big.db"
+public class DatasetGenerator {
+    private static final Logger LOG = Log.getLogger(DatasetGenerator.class);
+
+    public static final int DEFAULT_ROWS_PER_TRANSACTION = 50_000;
+    public static final String EQUIPMENT_CSV = "equipment.csv";
+    public static final String ORDERS_CSV = "orders.csv";
+
+    private static final String EQUIPMENT_HEADER =
+            "name,category,quantity,lower_limit,unit_price,expiry_date,location,supplier,date_added";
+    // equipment_id is the 1-based row number of the item in equipment.csv.
+    private static final String ORDERS_HEADER = "equipment_id,equipment_name,quantity,order_date," +
+            "expected_delivery_date,actual_delivery_date,status,supplier,total_cost";
+
+    private static final long EQUIPMENT_STREAM = 1;
+    private static final long ORDER_STREAM = 2;
+    private static final int ITEM_HISTORY_DAYS = 5 * 365;
+    private static final int ORDER_HISTORY_DAYS = 3 * 365;
+    private static final double LOW_STOCK_SHARE = 0.09;
+    // Orders favour low item indexes: the first 1% of items receive about 16% of all orders.
+    private static final double ORDER_SKEW = 2.5;
+
+    private record Category(String name, String[] items, double medianPrice, double expiringShare,
+                            int shelfLifeDays, int lowerLimit) {
+    }
+
+    // In order of popularity.
+    private static final Category[] CATEGORIES = {
+        new Category("Consumables", new String[] {"Latex Gloves (Box of 100)", "Pipette Tips (Rack of 96)",
+                "Filter Paper (Pack of 100)", "Microcentrifuge Tubes (Pack of 500)", "Weighing Boats (Pack of 100)",
+                "Parafilm Roll"}, 900, 0.5, 1095, 20),
+        new Category("Chemicals", new String[] {"Ethanol (1L)", "Hydrochloric Acid (1L)", "Sodium Chloride (500g)",
+                "Acetone (1L)", "Sulfuric Acid (500ml)", "Methanol (1L)"}, 2400, 0.95, 730, 6),
+        new Category("Glassware", new String[] {"Beakers (500ml)", "Test Tubes (Box of 100)",
+                "Petri Dishes (Pack of 20)", "Conical Flasks (250ml)", "Measuring Cylinders (100ml)",
+                "Burettes (50ml)"}, 1500, 0, 0, 10),
+        new Category("Medical Supplies", new String[] {"Syringes (10ml - Pack of 50)", "Scalpels (Pack of 10)",
+                "Cotton Swabs (Pack of 200)", "Bandage Rolls", "Sterile Gauze (Pack of 50)"}, 2900, 0.9, 1095, 10),
+        new Category("Lab Tools", new String[] {"Pipettes (10ml)", "Spatulas", "Forceps", "Test Tube Racks", "Tongs",
+                "Wash Bottles (500ml)"}, 1000, 0, 0, 12),
+        new Category("Safety Equipment", new String[] {"Safety Goggles", "Lab Coats", "Face Shields",
+                "Fire Extinguisher (CO2)", "Chemical Spill Kit"}, 2000, 0.15, 1825, 10),
+        new Category("Growth Media", new String[] {"Agar Powder (500g)", "Nutrient Broth (500g)", "LB Broth (250g)",
+                "Potato Dextrose Agar (500g)"}, 4500, 1.0, 540, 4),
+        new Category("Measurement Tools", new String[] {"Digital Thermometer", "pH Meter", "Analytical Balance",
+                "Stopwatch", "Vernier Caliper"}, 6000, 0, 0, 3),
+        new Category("Lab Equipment", new String[] {"Centrifuge", "Hot Plate Stirrer", "Water Bath", "Incubator",
+                "Vortex Mixer"}, 45000, 0, 0, 2),
+        new Category("Optical Equipment", new String[] {"Microscope", "Spectrophotometer", "Magnifying Glass",
+                "Microscope Slides (Pack of 72)"}, 30000, 0.05, 1825, 2)
+    };
+    private static final String[] SUPPLIERS = {
+        "ScienceSupplyCo", "LabGlass Inc", "ChemSupply Ltd", "MedicalSupply Co", "PrecisionLab", "SafetyFirst Ltd",
+        "BioSupply Co", "Sigma Labs", "Fisher Scientific", "Borosil", "Himedia Labs", "TechLab Instruments"
+    };
+    private static final String[] LOCATIONS = {
+        "Lab A", "Lab B", "Lab C", "Storage Room A", "Storage Room B", "Cold Room", "Safety Cabinet", "Chemical Store"
+    };
+    private static final double[] CATEGORY_WEIGHTS = zipf(CATEGORIES.length, 1.0);
+    private static final double[] SUPPLIER_WEIGHTS = zipf(SUPPLIERS.length, 1.2);
+
+    private final long seed;
+    private final LocalDate asOf;
+    private final int rowsPerTransaction;
+
+    public DatasetGenerator(long seed, LocalDate asOf) {
+        this(seed, asOf, DEFAULT_ROWS_PER_TRANSACTION);
+    }
+
+    public DatasetGenerator(long seed, LocalDate asOf, int rowsPerTransaction) {
+        if (rowsPerTransaction <= 0) {
+            throw new IllegalArgumentException("rowsPerTransaction must be positive");
+        }
+        this.seed = seed;
+        this.asOf = asOf;
+        this.rowsPerTransaction = rowsPerTransaction;
+    }
+
+    // The item at the given 0-based index; its id is index + 1.
+    public Equipment equipment(long index) {
+        SplittableRandom random = random(EQUIPMENT_STREAM, index);
+        int categoryIndex = pick(CATEGORY_WEIGHTS, random.nextDouble());
+        Category category = CATEGORIES[categoryIndex];
+        String name = category.items()[random.nextInt(category.items().length)] + " " +
+                (char) ('A' + random.nextInt(26)) + (char) ('A' + random.nextInt(26)) + "-" + (100 + random.nextInt(900));
+
+        int lowerLimit = Math.max(1, (int) Math.round(category.lowerLimit() * (0.5 + random.nextDouble())));
+        int quantity = random.nextDouble() < LOW_STOCK_SHARE
+                ? random.nextInt(lowerLimit + 1)
+                : lowerLimit + 1 + (int) (-Math.log(1 - random.nextDouble()) * 3 * lowerLimit);
+        double unitPrice = Math.round(category.medianPrice() * Math.exp(0.6 * random.nextGaussian()) * 100) / 100.0;
+
+        LocalDate dateAdded = asOf.minusDays((long) (ITEM_HISTORY_DAYS * Math.pow(random.nextDouble(), 1.5)));
+        // The expiry date is that of the lot on the shelf now: spread over the shelf life, with a few already past.
+        LocalDate expiryDate = null;
+        if (random.nextDouble() < category.expiringShare()) {
+            expiryDate = asOf.plusDays(random.nextInt(category.shelfLifeDays() + 60) - 60);
+        }
+        String location = LOCATIONS[random.nextInt(LOCATIONS.length)] + " - Shelf " + (1 + random.nextInt(8));
+        // Each category has its own leading supplier.
+        String supplier = SUPPLIERS[(pick(SUPPLIER_WEIGHTS, random.nextDouble()) + categoryIndex * 5) % SUPPLIERS.length];
+        return new Equipment((int) (index + 1), name, category.name(), quantity, lowerLimit, unitPrice, expiryDate,
+                location, supplier, dateAdded);
+    }
+
+    // The order at the given 0-based index, for an inventory of the given number of items. Its equipmentId is the
+    // 1-based index of the ordered item.
+    public Order order(long index, long items) {
+        SplittableRandom random = random(ORDER_STREAM, index);
+        long itemIndex = Math.min(items - 1, (long) (Math.pow(random.nextDouble(), ORDER_SKEW) * items));
+        Equipment item = equipment(itemIndex);
+
+        // Recent orders are denser: half fall in the last nine months.
+        LocalDate ordered = asOf.minusDays((long) (ORDER_HISTORY_DAYS * Math.pow(random.nextDouble(), 2)));
+        LocalDate expected = ordered.plusDays(3 + random.nextInt(19));
+        int roll = random.nextInt(100);
+        OrderStatus status;
+        if (expected.isAfter(asOf)) {
+            status = roll < 45 ? OrderStatus.PENDING : roll < 93 ? OrderStatus.IN_TRANSIT : OrderStatus.CANCELLED;
+        } else if (!expected.isBefore(asOf.minusDays(14))) {
+            status = roll < 70 ? OrderStatus.DELIVERED : roll < 92 ? OrderStatus.IN_TRANSIT : OrderStatus.CANCELLED;
+        } else {
+            status = roll < 93 ? OrderStatus.DELIVERED : OrderStatus.CANCELLED;
+        }
+        LocalDate delivered = null;
+        if (status == OrderStatus.DELIVERED) {
+            delivered = expected.plusDays(random.nextInt(9) - 2);
+            delivered = delivered.isAfter(asOf) ? asOf : delivered.isAfter(ordered) ? delivered : ordered.plusDays(1);
+        }
+
+        int quantity = item.getLowerLimit() * (1 + random.nextInt(4));
+        String supplier = random.nextDouble() < 0.9
+                ? item.getSupplier() : SUPPLIERS[pick(SUPPLIER_WEIGHTS, random.nextDouble())];
+        double totalCost = Math.round(quantity * item.getUnitPrice() * 100) / 100.0;
+        return new Order((int) (index + 1), (int) (itemIndex + 1), item.getName(), quantity, ordered, expected,
+                delivered, status, supplier, totalCost);
+    }
+
+    // Appends the items and orders to the current database, rowsPerTransaction rows per transaction. The search
+    // index is rebuilt once at the end and every new item gets its opening balance in the stock ledger. If the run is
+    // killed partway, the next DatabaseManager.initialize restores the search index.
+    public DatasetResult writeDatabase(long items, long orders) throws SQLException {
+        checkCounts(items, orders);
+        long start = System.nanoTime();
+        EquipmentDAO equipmentDAO = new EquipmentDAO();
+        OrderDAO orderDAO = new OrderDAO();
+        boolean suspended = DatabaseManager.inTransaction(() -> {
+            try (PooledConnection conn = DatabaseManager.getWriteConnection();
+                 Statement stmt = conn.createStatement()) {
+                return SchemaMigrations.suspendSearchInsertSync(stmt);
+            }
+        });
+        try {
+            int firstId = 0;
+            for (long from = 0; from < items; from += rowsPerTransaction) {
+                List<Equipment> chunk = new ArrayList<>(rowsPerTransaction);
+                for (long i = from; i < Math.min(items, from + rowsPerTransaction); i++) {
+                    chunk.add(equipment(i));
+                }
+                if (equipmentDAO.addEquipmentBatch(chunk) != chunk.size()) {
+                    throw new SQLException("Could not insert generated items " + from + " to " + (from + chunk.size()));
+                }
+                if (from == 0) {
+                    firstId = chunk.get(0).getId();
+                }
+                progress("items", from, from + chunk.size(), items);
+            }
+            for (long from = 0; from < orders; from += rowsPerTransaction) {
+                List<Order> chunk = new ArrayList<>(rowsPerTransaction);
+                for (long i = from; i < Math.min(orders, from + rowsPerTransaction); i++) {
+                    Order order = order(i, items);
+                    order.setEquipmentId(firstId - 1 + order.getEquipmentId());
+                    chunk.add(order);
+                }
+                if (orderDAO.addOrderBatch(chunk) != chunk.size()) {
+                    throw new SQLException("Could not insert generated orders " + from + " to " + (from + chunk.size()));
+                }
+                progress("orders", from, from + chunk.size(), orders);
+            }
+        } finally {
+            if (suspended) {
+                DatabaseManager.inTransaction(() -> {
+                    try (PooledConnection conn = DatabaseManager.getWriteConnection();
+                         Statement stmt = conn.createStatement()) {
+                        SchemaMigrations.resumeSearchInsertSync(stmt);
+                        return null;
+                    }
+                });
+            }
+        }
+        if (new StockLedgerDAO().recordOpeningBalances() < 0) {
+            throw new SQLException("Could not record opening balances for the generated items");
+        }
+        return new DatasetResult(items, orders, seed, asOf, DatabaseManager.getDatabasePath(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Streams equipment.csv and orders.csv into the directory, one row at a time. equipment.csv is in the format
+    // EquipmentCsvImporter reads.
+    public DatasetResult writeCsv(Path directory, long items, long orders) throws IOException {
+        checkCounts(items, orders);
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        try (BufferedWriter out = Files.newBufferedWriter(directory.resolve(EQUIPMENT_CSV), StandardCharsets.UTF_8)) {
+            out.write(EQUIPMENT_HEADER);
+            out.write('\n');
+            StringBuilder line = new StringBuilder(160);
+            for (long i = 0; i < items; i++) {
+                Equipment item = equipment(i);
+                line.setLength(0);
+                field(line, item.getName()).append(',');
+                field(line, item.getCategory()).append(',');
+                line.append(item.getQuantity()).append(',').append(item.getLowerLimit()).append(',');
+                money(line, item.getUnitPrice()).append(',');
+                line.append(item.getExpiryDate() != null ? item.getExpiryDate().toString() : "").append(',');
+                field(line, item.getLocation()).append(',');
+                field(line, item.getSupplier()).append(',');
+                line.append(item.getDateAdded()).append('\n');
+                out.append(line);
+            }
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(directory.resolve(ORDERS_CSV), StandardCharsets.UTF_8)) {
+            out.write(ORDERS_HEADER);
+            out.write('\n');
+            StringBuilder line = new StringBuilder(160);
+            for (long i = 0; i < orders; i++) {
+                Order order = order(i, items);
+                line.setLength(0);
+                line.append(order.getEquipmentId()).append(',');
+                field(line, order.getEquipmentName()).append(',');
+                line.append(order.getQuantity()).append(',').append(order.getOrderDate()).append(',');
+                line.append(order.getExpectedDeliveryDate()).append(',');
+                line.append(order.getActualDeliveryDate() != null ? order.getActualDeliveryDate().toString() : "").append(',');
+                line.append(order.getStatus().name()).append(',');
+                field(line, order.getSupplier()).append(',');
+                money(line, order.getTotalCost()).append('\n');
+                out.append(line);
+            }
+        }
+        return new DatasetResult(items, orders, seed, asOf, directory.toString(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        if (options == null || options.containsKey("db") == options.containsKey("csv")) {
+            LOG.warn("Usage: DatasetGenerator [--items N] [--orders N] [--seed N] [--as-of YYYY-MM-DD] " +
+                    "[--rows-per-transaction N] (--db FILE | --csv DIRECTORY)");
+            Log.flush();
+            System.exit(2);
+            return;
+        }
+        long items = Long.parseLong(options.getOrDefault("items", "100000"));
+        long orders = Long.parseLong(options.getOrDefault("orders", String.valueOf(items / 5)));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        LocalDate asOf = options.containsKey("as-of") ? LocalDate.parse(options.get("as-of")) : LocalDate.now();
+        int rowsPerTransaction = Integer.parseInt(options.getOrDefault("rows-per-transaction",
+                String.valueOf(DEFAULT_ROWS_PER_TRANSACTION)));
+        DatasetGenerator generator = new DatasetGenerator(seed, asOf, rowsPerTransaction);
+
+        DatasetResult result;
+        if (options.containsKey("csv")) {
+            result = generator.writeCsv(Path.of(options.get("csv")), items, orders);
+        } else {
+            DatabaseManager.setDatabasePath(options.get("db"));
+            DatabaseManager.initialize();
+            try {
+                result = generator.writeDatabase(items, orders);
+            } finally {
+                DatabaseManager.close();
+            }
+        }
+        LOG.atInfo().field("items", result.items()).field("orders", result.orders()).field("seed", result.seed())
+                .field("target", result.target()).field("millis", result.elapsedMillis())
+                .field("rowsPerSecond", result.rowsPerSecond()).log("Generated dataset");
+        Log.flush();
+    }
+
+    // Accepts --name value and --name=value. Returns null on anything else.
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                return null;
+            }
+            String option = args[i].substring(2);
+            int equals = option.indexOf('=');
+            if (equals >= 0) {
+                options.put(option.substring(0, equals), option.substring(equals + 1));
+            } else if (i + 1 < args.length) {
+                options.put(option, args[++i]);
+            } else {
+                return null;
+            }
+        }
+        return options;
+    }
+
+    private static void checkCounts(long items, long orders) {
+        if (items < 0 || orders < 0 || items > Integer.MAX_VALUE || orders > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Item and order counts must be between 0 and " + Integer.MAX_VALUE);
+        }
+        if (orders > 0 && items == 0) {
+            throw new IllegalArgumentException("Orders need at least one item to refer to");
+        }
+    }
+
+    // Reports every millionth row and the last one.
+    private static void progress(String table, long from, long written, long total) {
+        if (written == total || written / 1_000_000 != from / 1_000_000) {
+            LOG.atInfo().field("table", table).field("rows", written).field("total", total).log("Generating");
+        }
+    }
+
+    // Independent, reproducible randomness per row: the row's generator is seeded from (seed, stream, index).
+    private SplittableRandom random(long stream, long index) {
+        long h = seed * 0x9E3779B97F4A7C15L + stream;
+        h ^= index * 0xBF58476D1CE4E5B9L + asOf.toEpochDay();
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return new SplittableRandom(h ^ (h >>> 31));
+    }
+
+    private static double[] zipf(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            total += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int pick(double[] cumulative, double u) {
+        for (int i = 0; i < cumulative.length - 1; i++) {
+            if (u < cumulative[i]) {
+                return i;
+            }
+        }
+        return cumulative.length - 1;
+    }
+
+    private static StringBuilder field(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return line.append(value);
+        }
+        return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static StringBuilder money(StringBuilder line, double amount) {
+        long cents = Math.round(amount * 100);
+        long fraction = cents % 100;
+        return line.append(cents / 100).append('.').append(fraction < 10 ? "0" : "").append(fraction);
+    }
+}
@@ -0,0 +1,24 @@
+package com.labinventory.database;
+
+import java.time.LocalDate;
+
+// One DatasetGenerator run: what was generated, from which seed and reference date, and where it was written.
+public record DatasetResult(long items, long orders, long seed, LocalDate asOf, String target, long elapsedMillis) {
+
+    public long rowsPerSecond() {
+        return elapsedMillis == 0 ? items + orders : (items + orders) * 1000 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "DatasetResult{" +
+                "items=" + items +
+                ", orders=" + orders +
+                ", seed=" + seed +
+                ", asOf=" + asOf +
+                ", target=" + target +
+                ", elapsedMillis=" + elapsedMillis +
+                ", rowsPerSecond=" + rowsPerSecond() +
+                '}';
+    }
+}
@@ -1,178 +1,592 @@
 package com.labinventory.database;
 
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.metrics.MetricsRegistry;
+import com.labinventory.metrics.OperationMetrics;
+import com.labinventory.metrics.OperationTimer;
 import com.labinventory.model.Equipment;
+import com.labinventory.model.EquipmentSort;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class EquipmentDAO {
-    
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final Logger LOG = Log.getLogger(EquipmentDAO.class);
+    private static final OperationMetrics METRICS = MetricsRegistry.getDefault().operations("EquipmentDAO");
+
+    static final String SELECT_ALL = "SELECT * FROM equipments ORDER BY id ASC";
+    static final String SELECT_BY_ID = "SELECT * FROM equipments WHERE id = ?";
+    static final String SELECT_LOW_STOCK = "SELECT * FROM equipments WHERE quantity <= lower_limit ORDER BY quantity";
+    static final String SELECT_NEAR_EXPIRY = "SELECT * FROM equipments WHERE expiry_date IS NOT NULL AND expiry_date <= ? ORDER BY expiry_date";
+    static final String INSERT = "INSERT INTO equipments (name, category, quantity, lower_limit, unit_price, " +
+            "expiry_date, location, supplier, date_added) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Multi-row inserts keep the statement count down; the FTS triggers flush once per statement, not per row.
+    static final int ROWS_PER_INSERT = 100;
+    private static final int INSERT_COLUMNS = 9;
+    static final String UPDATE = "UPDATE equipments SET name = ?, category = ?, quantity = ?, lower_limit = ?, " +
+            "unit_price = ?, expiry_date = ?, location = ?, supplier = ? WHERE id = ?";
+    static final String DELETE = "DELETE FROM equipments WHERE id = ?";
+    static final String ADJUST_QUANTITY = "UPDATE equipments SET quantity = quantity + ? WHERE id = ? RETURNING quantity";
+    static final String ADD_QUANTITY = "UPDATE equipments SET quantity = quantity + ? WHERE id = ?";
+    static final String SELECT_QUANTITIES = "SELECT id, quantity FROM equipments WHERE id IN (SELECT value FROM json_each(?))";
+    static final String SEARCH = "SELECT * FROM equipments WHERE name LIKE ? OR category LIKE ? ORDER BY name";
+    static final String SELECT_TOTALS = "SELECT COUNT(*) AS types, " +
+            "COALESCE(SUM(quantity <= lower_limit), 0) AS low_stock, " +
+            "COALESCE(SUM(expiry_date IS NOT NULL AND expiry_date <= ?), 0) AS near_expiry, " +
+            "TOTAL(quantity) AS total_quantity, TOTAL(quantity * unit_price) AS total_value FROM equipments";
+    static final String SEARCH_RANKED = "SELECT e.*, equipments_fts.rank AS score, " +
+            "snippet(equipments_fts, -1, '" + EquipmentSearchHit.HIGHLIGHT_START + "', '" +
+            EquipmentSearchHit.HIGHLIGHT_END + "', '...', 8) AS snippet " +
+            "FROM equipments_fts JOIN equipments e ON e.id = equipments_fts.rowid " +
+            "WHERE equipments_fts MATCH ? ORDER BY equipments_fts.rank LIMIT ?";
+    static final String REBUILD_SEARCH_INDEX = "INSERT INTO equipments_fts(equipments_fts) VALUES ('rebuild')";
+    static final String COUNT = "SELECT COUNT(*) FROM equipments";
+    static final String SELECT_PAGE = "SELECT * FROM equipments WHERE id > ? ORDER BY id LIMIT ?";
+
+    static final Map<EquipmentSort, String> SELECT_PAGE_AFTER = new EnumMap<>(EquipmentSort.class);
+    static final Map<EquipmentSort, String> SELECT_PAGE_AT = new EnumMap<>(EquipmentSort.class);
+
+    static {
+        for (EquipmentSort sort : EquipmentSort.values()) {
+            String key = sortKey(sort);
+            String direction = sort.isDescending() ? "DESC" : "ASC";
+            String orderBy = key == null ? " ORDER BY id " + direction
+                    : " ORDER BY " + key + " " + direction + ", id " + direction;
+            String op = sort.isDescending() ? "<" : ">";
+            // Spelled out instead of a row value so SQLite can seek the sort index rather than scan it.
+            String after = key == null ? "id " + op + " ?"
+                    : key + " " + op + "= ? AND (" + key + " " + op + " ? OR id " + op + " ?)";
+            SELECT_PAGE_AFTER.put(sort, "SELECT * FROM equipments WHERE " + after + orderBy + " LIMIT ?");
+            SELECT_PAGE_AT.put(sort, "SELECT * FROM equipments" + orderBy + " LIMIT ? OFFSET ?");
+        }
+    }
+
+    static String sortKey(EquipmentSort sort) {
+        return switch (sort) {
+            case ID -> null;
+            case NAME_ASC, NAME_DESC -> "name COLLATE NOCASE";
+            case CATEGORY -> "category COLLATE NOCASE";
+            case QUANTITY_ASC, QUANTITY_DESC -> "quantity";
+            case PRICE_ASC, PRICE_DESC -> "unit_price";
+            case EXPIRY_DATE -> "COALESCE(expiry_date, '" + EquipmentPageKey.NO_EXPIRY + "')";
+        };
+    }
+
     public List<Equipment> getAllEquipment() {
+        OperationTimer timed = METRICS.start("getAllEquipment");
         List<Equipment> equipmentList = new ArrayList<>();
-        String query = "SELECT * FROM equipments ORDER BY id ASC";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PooledConnection conn = DatabaseManager.getReadConnection();
+             ResultSet rs = conn.prepareCached(SELECT_ALL).executeQuery()) {
             
             while (rs.next()) {
                 equipmentList.add(extractEquipmentFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Error fetching equipment: " + e.getMessage());
-            e.printStackTrace();
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error fetching equipment");
         }
-        return equipmentList;
+        return timed.rows(equipmentList);
     }
 
     public Equipment getEquipmentById(int id) {
-        String query = "SELECT * FROM equipments WHERE id = ?";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
+        OperationTimer timed = METRICS.start("getEquipmentById");
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(SELECT_BY_ID);
             pstmt.setInt(1, id);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return extractEquipmentFromResultSet(rs);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return timed.row(extractEquipmentFromResultSet(rs));
+                }
             }
         } catch (SQLException e) {
-            System.err.println("Error fetching equipment by ID: " + e.getMessage());
-            e.printStackTrace();
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error fetching equipment by ID");
         }
+        timed.done();
         return null;
     }
 
     public List<Equipment> getLowStockEquipment() {
+        OperationTimer timed = METRICS.start("getLowStockEquipment");
         List<Equipment> equipmentList = new ArrayList<>();
-        String query = "SELECT * FROM equipments WHERE quantity <= lower_limit ORDER BY quantity";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PooledConnection conn = DatabaseManager.getReadConnection();
+             ResultSet rs = conn.prepareCached(SELECT_LOW_STOCK).executeQuery()) {
             
             while (rs.next()) {
                 equipmentList.add(extractEquipmentFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Error fetching low stock equipment: " + e.getMessage());
-            e.printStackTrace();
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error fetching low stock equipment");
         }
-        return equipmentList;
+        return timed.rows(equipmentList);
     }
 
-    public List<Equipment> getEquipmentNearExpiry() {
+    public List<Equipment> getEquipmentNearExpiry(LocalDate cutoff) {
+        OperationTimer timed = METRICS.start("getEquipmentNearExpiry");
         List<Equipment> equipmentList = new ArrayList<>();
-        LocalDate fifteenDaysFromNow = LocalDate.now().plusDays(15);
-        String query = "SELECT * FROM equipments WHERE expiry_date IS NOT NULL AND expiry_date <= ? ORDER BY expiry_date";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
-            pstmt.setString(1, fifteenDaysFromNow.toString());
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                equipmentList.add(extractEquipmentFromResultSet(rs));
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(SELECT_NEAR_EXPIRY);
+            pstmt.setString(1, cutoff.toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    equipmentList.add(extractEquipmentFromResultSet(rs));
+                }
             }
         } catch (SQLException e) {
-            System.err.println("Error fetching equipment near expiry: " + e.getMessage());
-            e.printStackTrace();
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error fetching equipment near expiry");
         }
-        return equipmentList;
+        return timed.rows(equipmentList);
     }
 
     public boolean addEquipment(Equipment equipment) {
-        String query = "INSERT INTO equipments (name, category, quantity, lower_limit, unit_price, " +
-                      "expiry_date, location, supplier, date_added) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
-            pstmt.setString(1, equipment.getName());
-            pstmt.setString(2, equipment.getCategory());
-            pstmt.setInt(3, equipment.getQuantity());
-            pstmt.setInt(4, equipment.getLowerLimit());
-            pstmt.setDouble(5, equipment.getUnitPrice());
-            pstmt.setString(6, equipment.getExpiryDate() != null ? equipment.getExpiryDate().toString() : null);
-            pstmt.setString(7, equipment.getLocation());
-            pstmt.setString(8, equipment.getSupplier());
-            pstmt.setString(9, equipment.getDateAdded() != null ? equipment.getDateAdded().toString() : LocalDate.now().toString());
+        OperationTimer timed = METRICS.start("addEquipment");
+        try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(INSERT);
+            bindInsert(pstmt, 1, equipment);
             
             int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            if (rowsAffected > 0) {
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        equipment.setId(keys.getInt(1));
+                    }
+                }
+            }
+            return timed.changed(rowsAffected > 0);
         } catch (SQLException e) {
-            System.err.println("Error adding equipment: " + e.getMessage());
-            e.printStackTrace();
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error adding equipment");
             return false;
         }
     }
 
+    public int addEquipmentBatch(List<Equipment> items) {
+        return addEquipmentBatch(items, DEFAULT_BATCH_SIZE);
+    }
+
+    public int addEquipmentBatch(List<Equipment> items, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        if (items.isEmpty()) {
+            return 0;
+        }
+        OperationTimer timed = METRICS.start("addEquipmentBatch");
+        try {
+            return timed.rowCount(insertBatch(items, batchSize));
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error adding equipment batch");
+            return 0;
+        }
+    }
+
+    // Same as addEquipmentBatch, but the SQL error is thrown instead of logged, for callers that report it per row.
+    public int addEquipmentBatchOrThrow(List<Equipment> items) throws SQLException {
+        if (items.isEmpty()) {
+            return 0;
+        }
+        OperationTimer timed = METRICS.start("addEquipmentBatch");
+        try {
+            return timed.rowCount(insertBatch(items, DEFAULT_BATCH_SIZE));
+        } catch (SQLException e) {
+            timed.failed();
+            throw e;
+        }
+    }
+
+    private int insertBatch(List<Equipment> items, int batchSize) throws SQLException {
+        return DatabaseManager.inTransaction(() -> {
+            try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+                int inserted = 0;
+                for (int start = 0; start < items.size(); start += batchSize) {
+                    List<Equipment> chunk = items.subList(start, Math.min(start + batchSize, items.size()));
+                    insertChunk(conn, chunk);
+                    inserted += chunk.size();
+                }
+                return inserted;
+            }
+        });
+    }
+
+    private void insertChunk(PooledConnection conn, List<Equipment> chunk) throws SQLException {
+        PreparedStatement pstmt = conn.prepareCached(insertRows(ROWS_PER_INSERT));
+        int full = chunk.size() - chunk.size() % ROWS_PER_INSERT;
+        for (int row = 0; row < full; row += ROWS_PER_INSERT) {
+            for (int i = 0; i < ROWS_PER_INSERT; i++) {
+                bindInsert(pstmt, i * INSERT_COLUMNS + 1, chunk.get(row + i));
+            }
+            pstmt.addBatch();
+        }
+        if (full > 0) {
+            pstmt.executeBatch();
+        }
+        if (full < chunk.size()) {
+            // The remainder can have any length, so caching it would evict the statements the cache is for.
+            try (PreparedStatement rest = conn.prepareStatement(insertRows(chunk.size() - full))) {
+                for (int i = full; i < chunk.size(); i++) {
+                    bindInsert(rest, (i - full) * INSERT_COLUMNS + 1, chunk.get(i));
+                }
+                rest.executeUpdate();
+            }
+        }
+        // The writer is the only connection inserting, so AUTOINCREMENT hands this chunk consecutive ids.
+        int lastId = conn.lastInsertId();
+        for (int i = 0; i < chunk.size(); i++) {
+            chunk.get(i).setId(lastId - chunk.size() + 1 + i);
+        }
+    }
+
     public boolean updateEquipment(Equipment equipment) {
-        String query = "UPDATE equipments SET name = ?, category = ?, quantity = ?, lower_limit = ?, " +
-                      "unit_price = ?, expiry_date = ?, location = ?, supplier = ? WHERE id = ?";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
-            pstmt.setString(1, equipment.getName());
-            pstmt.setString(2, equipment.getCategory());
-            pstmt.setInt(3, equipment.getQuantity());
-            pstmt.setInt(4, equipment.getLowerLimit());
-            pstmt.setDouble(5, equipment.getUnitPrice());
-            pstmt.setString(6, equipment.getExpiryDate() != null ? equipment.getExpiryDate().toString() : null);
-            pstmt.setString(7, equipment.getLocation());
-            pstmt.setString(8, equipment.getSupplier());
-            pstmt.setInt(9, equipment.getId());
+        OperationTimer timed = METRICS.start("updateEquipment");
+        try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(UPDATE);
+            bindUpdate(pstmt, equipment);
             
             int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            return timed.changed(rowsAffected > 0);
         } catch (SQLException e) {
-            System.err.println("Error updating equipment: " + e.getMessage());
-            e.printStackTrace();
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error updating equipment");
             return false;
         }
     }
 
+    public int updateEquipmentBatch(List<Equipment> items) {
+        return updateEquipmentBatch(items, DEFAULT_BATCH_SIZE);
+    }
+
+    public int updateEquipmentBatch(List<Equipment> items, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        if (items.isEmpty()) {
+            return 0;
+        }
+        OperationTimer timed = METRICS.start("updateEquipmentBatch");
+        try {
+            return timed.rowCount(DatabaseManager.inTransaction(() -> {
+                try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+                    PreparedStatement pstmt = conn.prepareCached(UPDATE);
+                    int updated = 0;
+                    for (int start = 0; start < items.size(); start += batchSize) {
+                        for (Equipment equipment : items.subList(start, Math.min(start + batchSize, items.size()))) {
+                            bindUpdate(pstmt, equipment);
+                            pstmt.addBatch();
+                        }
+                        for (int count : pstmt.executeBatch()) {
+                            updated += Math.max(count, 0);
+                        }
+                    }
+                    return updated;
+                }
+            }));
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error updating equipment batch");
+            return 0;
+        }
+    }
+
+    // Adds delta to the stored quantity in one statement, so concurrent adjustments cannot overwrite each other.
+    // Returns the new quantity, or -1 if the equipment does not exist or the update failed.
+    public int adjustQuantity(int id, int delta) {
+        OperationTimer timed = METRICS.start("adjustQuantity");
+        try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(ADJUST_QUANTITY);
+            pstmt.setInt(1, delta);
+            pstmt.setInt(2, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int quantity = rs.next() ? rs.getInt(1) : -1;
+                timed.changed(quantity >= 0);
+                return quantity;
+            }
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error adjusting equipment quantity");
+            return -1;
+        }
+    }
+
+    // Applies each equipment's delta with one batched statement and returns the new quantities by equipment id.
+    // Ids that do not exist are missing from the result. Returns null if the update failed.
+    public Map<Integer, Integer> adjustQuantities(Map<Integer, Integer> deltas) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        if (deltas.isEmpty()) {
+            return quantities;
+        }
+        OperationTimer timed = METRICS.start("adjustQuantities");
+        try {
+            return timed.rows(DatabaseManager.inTransaction(() -> {
+                try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+                    PreparedStatement update = conn.prepareCached(ADD_QUANTITY);
+                    for (Map.Entry<Integer, Integer> delta : deltas.entrySet()) {
+                        update.setInt(1, delta.getValue());
+                        update.setInt(2, delta.getKey());
+                        update.addBatch();
+                    }
+                    update.executeBatch();
+
+                    PreparedStatement select = conn.prepareCached(SELECT_QUANTITIES);
+                    select.setString(1, OrderDAO.jsonArray(deltas.keySet()));
+                    try (ResultSet rs = select.executeQuery()) {
+                        while (rs.next()) {
+                            quantities.put(rs.getInt("id"), rs.getInt("quantity"));
+                        }
+                    }
+                    return quantities;
+                }
+            }));
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error adjusting equipment quantities");
+            return null;
+        }
+    }
+
     public boolean deleteEquipment(int id) {
-        String query = "DELETE FROM equipments WHERE id = ?";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
+        OperationTimer timed = METRICS.start("deleteEquipment");
+        try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(DELETE);
             pstmt.setInt(1, id);
             int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            return timed.changed(rowsAffected > 0);
         } catch (SQLException e) {
-            System.err.println("Error deleting equipment: " + e.getMessage());
-            e.printStackTrace();
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error deleting equipment");
             return false;
         }
     }
 
     public List<Equipment> searchEquipment(String searchTerm) {
+        OperationTimer timed = METRICS.start("searchEquipment");
         List<Equipment> equipmentList = new ArrayList<>();
-        String query = "SELECT * FROM equipments WHERE name LIKE ? OR category LIKE ? ORDER BY name";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(SEARCH);
             String searchPattern = "%" + searchTerm + "%";
             pstmt.setString(1, searchPattern);
             pstmt.setString(2, searchPattern);
-            ResultSet rs = pstmt.executeQuery();
-            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    equipmentList.add(extractEquipmentFromResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error searching equipment");
+        }
+        return timed.rows(equipmentList);
+    }
+
+    public List<EquipmentSearchHit> searchEquipmentRanked(String searchTerm, int limit) {
+        List<EquipmentSearchHit> hits = new ArrayList<>();
+        String matchQuery = toMatchQuery(searchTerm);
+        if (matchQuery.isEmpty()) {
+            return hits;
+        }
+        OperationTimer timed = METRICS.start("searchEquipmentRanked");
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(SEARCH_RANKED);
+            pstmt.setString(1, matchQuery);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    hits.add(new EquipmentSearchHit(extractEquipmentFromResultSet(rs),
+                            rs.getDouble("score"), rs.getString("snippet")));
+                }
+            }
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error searching equipment");
+        }
+        return timed.rows(hits);
+    }
+
+    public boolean rebuildSearchIndex() {
+        OperationTimer timed = METRICS.start("rebuildSearchIndex");
+        try (PooledConnection conn = DatabaseManager.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(REBUILD_SEARCH_INDEX);
+            LOG.atInfo().field("millis", timed.elapsedMillis()).log("Equipment search index rebuilt");
+            timed.done();
+            return true;
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error rebuilding equipment search index");
+            return false;
+        }
+    }
+
+    static String toMatchQuery(String searchTerm) {
+        if (searchTerm == null) {
+            return "";
+        }
+        StringBuilder query = new StringBuilder();
+        for (String token : searchTerm.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                if (query.length() > 0) {
+                    query.append(' ');
+                }
+                query.append('"').append(token).append("\"*");
+            }
+        }
+        return query.toString();
+    }
+
+    public EquipmentTotals getEquipmentTotals(LocalDate expiryCutoff) {
+        OperationTimer timed = METRICS.start("getEquipmentTotals");
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(SELECT_TOTALS);
+            pstmt.setString(1, expiryCutoff.toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return timed.row(new EquipmentTotals(rs.getInt("types"), rs.getInt("low_stock"), rs.getInt("near_expiry"),
+                            rs.getLong("total_quantity"), rs.getDouble("total_value")));
+                }
+            }
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error fetching equipment totals");
+        }
+        timed.done();
+        return null;
+    }
+
+    public int countEquipment() {
+        OperationTimer timed = METRICS.start("countEquipment");
+        try (PooledConnection conn = DatabaseManager.getReadConnection();
+             ResultSet rs = conn.prepareCached(COUNT).executeQuery()) {
+            if (rs.next()) {
+                return timed.row(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error counting equipment");
+        }
+        timed.done();
+        return -1;
+    }
+
+    public List<Equipment> getEquipmentPage(int afterId, int limit) {
+        OperationTimer timed = METRICS.start("getEquipmentPage(afterId)");
+        List<Equipment> equipmentList = new ArrayList<>(limit);
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(SELECT_PAGE);
+            pstmt.setInt(1, afterId);
+            pstmt.setInt(2, limit);
+            readPage(pstmt, equipmentList);
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error fetching equipment page");
+        }
+        return timed.rows(equipmentList);
+    }
+
+    public List<Equipment> getEquipmentPage(EquipmentSort sort, EquipmentPageKey after, int limit) {
+        if (after == null) {
+            return getEquipmentPageAt(sort, 0, limit);
+        }
+        OperationTimer timed = METRICS.start("getEquipmentPage(sort)");
+        List<Equipment> equipmentList = new ArrayList<>(limit);
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(SELECT_PAGE_AFTER.get(sort));
+            int index = 1;
+            if (sortKey(sort) != null) {
+                pstmt.setObject(index++, after.sortValue());
+                pstmt.setObject(index++, after.sortValue());
+            }
+            pstmt.setInt(index++, after.id());
+            pstmt.setInt(index, limit);
+            readPage(pstmt, equipmentList);
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error fetching equipment page");
+        }
+        return timed.rows(equipmentList);
+    }
+
+    public List<Equipment> getEquipmentPageAt(EquipmentSort sort, int offset, int limit) {
+        OperationTimer timed = METRICS.start("getEquipmentPageAt");
+        List<Equipment> equipmentList = new ArrayList<>(limit);
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(SELECT_PAGE_AT.get(sort));
+            pstmt.setInt(1, limit);
+            pstmt.setInt(2, offset);
+            readPage(pstmt, equipmentList);
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error fetching equipment page");
+        }
+        return timed.rows(equipmentList);
+    }
+
+    private void readPage(PreparedStatement pstmt, List<Equipment> equipmentList) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
                 equipmentList.add(extractEquipmentFromResultSet(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error searching equipment: " + e.getMessage());
-            e.printStackTrace();
         }
-        return equipmentList;
+    }
+
+    static String insertRows(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT);
+        for (int i = 1; i < rows; i++) {
+            sql.append(", (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
+
+    private void bindInsert(PreparedStatement pstmt, int first, Equipment equipment) throws SQLException {
+        pstmt.setString(first, equipment.getName());
+        pstmt.setString(first + 1, equipment.getCategory());
+        pstmt.setInt(first + 2, equipment.getQuantity());
+        pstmt.setInt(first + 3, equipment.getLowerLimit());
+        pstmt.setDouble(first + 4, equipment.getUnitPrice());
+        pstmt.setString(first + 5, equipment.getExpiryDate() != null ? equipment.getExpiryDate().toString() : null);
+        pstmt.setString(first + 6, equipment.getLocation());
+        pstmt.setString(first + 7, equipment.getSupplier());
+        pstmt.setString(first + 8, equipment.getDateAdded() != null ? equipment.getDateAdded().toString() : LocalDate.now().toString());
+    }
+
+    private void bindUpdate(PreparedStatement pstmt, Equipment equipment) throws SQLException {
+        pstmt.setString(1, equipment.getName());
+        pstmt.setString(2, equipment.getCategory());
+        pstmt.setInt(3, equipment.getQuantity());
+        pstmt.setInt(4, equipment.getLowerLimit());
+        pstmt.setDouble(5, equipment.getUnitPrice());
+        pstmt.setString(6, equipment.getExpiryDate() != null ? equipment.getExpiryDate().toString() : null);
+        pstmt.setString(7, equipment.getLocation());
+        pstmt.setString(8, equipment.getSupplier());
+        pstmt.setInt(9, equipment.getId());
     }
 
     private Equipment extractEquipmentFromResultSet(ResultSet rs) throws SQLException {
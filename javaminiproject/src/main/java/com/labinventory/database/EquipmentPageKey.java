@@ -0,0 +1,20 @@
+package com.labinventory.database;
+
+import com.labinventory.model.Equipment;
+import com.labinventory.model.EquipmentSort;
+
+public record EquipmentPageKey(Object sortValue, int id) {
+    static final String NO_EXPIRY = "9999-12-31";
+
+    public static EquipmentPageKey after(EquipmentSort sort, Equipment last) {
+        Object sortValue = switch (sort) {
+            case ID -> null;
+            case NAME_ASC, NAME_DESC -> last.getName();
+            case CATEGORY -> last.getCategory();
+            case QUANTITY_ASC, QUANTITY_DESC -> last.getQuantity();
+            case PRICE_ASC, PRICE_DESC -> last.getUnitPrice();
+            case EXPIRY_DATE -> last.getExpiryDate() != null ? last.getExpiryDate().toString() : NO_EXPIRY;
+        };
+        return new EquipmentPageKey(sortValue, last.getId());
+    }
+}
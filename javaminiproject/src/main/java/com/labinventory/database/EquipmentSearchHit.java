@@ -0,0 +1,8 @@
+package com.labinventory.database;
+
+import com.labinventory.model.Equipment;
+
+public record EquipmentSearchHit(Equipment equipment, double score, String snippet) {
+    public static final String HIGHLIGHT_START = "[";
+    public static final String HIGHLIGHT_END = "]";
+}
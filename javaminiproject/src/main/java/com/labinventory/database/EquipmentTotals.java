@@ -0,0 +1,5 @@
+package com.labinventory.database;
+
+public record EquipmentTotals(int equipmentTypes, int lowStockCount, int nearExpiryCount,
+                              long totalQuantity, double totalValue) {
+}
@@ -1,105 +1,277 @@
 package com.labinventory.database;
 
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.metrics.MetricsRegistry;
+import com.labinventory.metrics.OperationMetrics;
+import com.labinventory.metrics.OperationTimer;
 import com.labinventory.model.Order;
 import com.labinventory.model.Order.OrderStatus;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class OrderDAO {
-    
+    private static final Logger LOG = Log.getLogger(OrderDAO.class);
+    private static final OperationMetrics METRICS = MetricsRegistry.getDefault().operations("OrderDAO");
+
+    static final String SELECT_ALL = "SELECT * FROM orders ORDER BY order_date DESC";
+    static final String SELECT_ACTIVE = "SELECT * FROM orders WHERE status IN ('PENDING', 'IN_TRANSIT') ORDER BY expected_delivery_date";
+    static final String SELECT_BY_ID = "SELECT * FROM orders WHERE id = ?";
+    static final String COUNT_ACTIVE = "SELECT COUNT(*) FROM orders WHERE status IN ('PENDING', 'IN_TRANSIT')";
+    static final String INSERT = "INSERT INTO orders (equipment_id, equipment_name, quantity, order_date, " +
+            "expected_delivery_date, actual_delivery_date, status, supplier, total_cost) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int INSERT_COLUMNS = 9;
+    static final int ROWS_PER_INSERT = 100;
+    static final String UPDATE = "UPDATE orders SET equipment_id = ?, equipment_name = ?, quantity = ?, " +
+            "order_date = ?, expected_delivery_date = ?, actual_delivery_date = ?, " +
+            "status = ?, supplier = ?, total_cost = ? WHERE id = ?";
+    static final String DELETE = "DELETE FROM orders WHERE id = ?";
+    static final String UPDATE_STATUS = "UPDATE orders SET status = ? WHERE id = ?";
+    static final String MARK_DELIVERED = "UPDATE orders SET status = 'DELIVERED', actual_delivery_date = ? " +
+            "WHERE id = ? AND status IN ('PENDING', 'IN_TRANSIT')";
+    // Order ids are bound as one JSON array so any number of orders is a single statement.
+    static final String SELECT_BY_IDS = "SELECT * FROM orders WHERE id IN (SELECT value FROM json_each(?))";
+    static final String MARK_DELIVERED_ALL = "UPDATE orders SET status = 'DELIVERED', actual_delivery_date = ? " +
+            "WHERE id IN (SELECT value FROM json_each(?)) AND status IN ('PENDING', 'IN_TRANSIT') " +
+            "AND EXISTS (SELECT 1 FROM equipments e WHERE e.id = orders.equipment_id) RETURNING *";
+    static final String SUM_ACTIVE_BY_EQUIPMENT = "SELECT equipment_id, SUM(quantity) FROM orders " +
+            "WHERE status IN ('PENDING', 'IN_TRANSIT') GROUP BY equipment_id";
+
     public List<Order> getAllOrders() {
+        OperationTimer timed = METRICS.start("getAllOrders");
         List<Order> orderList = new ArrayList<>();
-        String query = "SELECT * FROM orders ORDER BY order_date DESC";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PooledConnection conn = DatabaseManager.getReadConnection();
+             ResultSet rs = conn.prepareCached(SELECT_ALL).executeQuery()) {
             
             while (rs.next()) {
                 orderList.add(extractOrderFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Error fetching orders: " + e.getMessage());
-            e.printStackTrace();
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error fetching orders");
         }
-        return orderList;
+        return timed.rows(orderList);
     }
 
     public List<Order> getActiveOrders() {
+        OperationTimer timed = METRICS.start("getActiveOrders");
         List<Order> orderList = new ArrayList<>();
-        String query = "SELECT * FROM orders WHERE status IN ('PENDING', 'IN_TRANSIT') ORDER BY expected_delivery_date";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        try (PooledConnection conn = DatabaseManager.getReadConnection();
+             ResultSet rs = conn.prepareCached(SELECT_ACTIVE).executeQuery()) {
             
             while (rs.next()) {
                 orderList.add(extractOrderFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Error fetching active orders: " + e.getMessage());
-            e.printStackTrace();
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error fetching active orders");
         }
-        return orderList;
+        return timed.rows(orderList);
     }
 
-    public Order getOrderById(int id) {
-        String query = "SELECT * FROM orders WHERE id = ?";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
-            pstmt.setInt(1, id);
-            ResultSet rs = pstmt.executeQuery();
+    public int countActiveOrders() {
+        OperationTimer timed = METRICS.start("countActiveOrders");
+        try (PooledConnection conn = DatabaseManager.getReadConnection();
+             ResultSet rs = conn.prepareCached(COUNT_ACTIVE).executeQuery()) {
             
             if (rs.next()) {
-                return extractOrderFromResultSet(rs);
+                return timed.row(rs.getInt(1));
             }
         } catch (SQLException e) {
-            System.err.println("Error fetching order by ID: " + e.getMessage());
-            e.printStackTrace();
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error counting active orders");
         }
+        timed.done();
+        return -1;
+    }
+
+    public Order getOrderById(int id) {
+        OperationTimer timed = METRICS.start("getOrderById");
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(SELECT_BY_ID);
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return timed.row(extractOrderFromResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error fetching order by ID");
+        }
+        timed.done();
         return null;
     }
 
+    public List<Order> getOrdersByIds(Collection<Integer> ids) {
+        List<Order> orderList = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return orderList;
+        }
+        OperationTimer timed = METRICS.start("getOrdersByIds");
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(SELECT_BY_IDS);
+            pstmt.setString(1, jsonArray(ids));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    orderList.add(extractOrderFromResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error fetching orders by ID");
+        }
+        return timed.rows(orderList);
+    }
+
+    // Units on PENDING or IN_TRANSIT orders per equipment id; equipment without an active order is absent.
+    public Map<Integer, Integer> getActiveQuantitiesByEquipment() {
+        OperationTimer timed = METRICS.start("getActiveQuantitiesByEquipment");
+        Map<Integer, Integer> quantities = new HashMap<>();
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            readActiveQuantities(conn, quantities);
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error summing active order quantities");
+        }
+        return timed.rows(quantities);
+    }
+
+    // The same sums read on the writer, so inside a transaction no order can be placed between this read and the
+    // transaction's own writes. Returns null if the query failed.
+    public Map<Integer, Integer> getActiveQuantitiesForUpdate() {
+        OperationTimer timed = METRICS.start("getActiveQuantitiesForUpdate");
+        Map<Integer, Integer> quantities = new HashMap<>();
+        try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+            readActiveQuantities(conn, quantities);
+            return timed.rows(quantities);
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error summing active order quantities");
+            return null;
+        }
+    }
+
+    private void readActiveQuantities(PooledConnection conn, Map<Integer, Integer> quantities) throws SQLException {
+        try (ResultSet rs = conn.prepareCached(SUM_ACTIVE_BY_EQUIPMENT).executeQuery()) {
+            while (rs.next()) {
+                quantities.put(rs.getInt(1), rs.getInt(2));
+            }
+        }
+    }
+
     public boolean addOrder(Order order) {
-        String query = "INSERT INTO orders (equipment_id, equipment_name, quantity, order_date, " +
-                      "expected_delivery_date, actual_delivery_date, status, supplier, total_cost) " +
-                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
-            pstmt.setInt(1, order.getEquipmentId());
-            pstmt.setString(2, order.getEquipmentName());
-            pstmt.setInt(3, order.getQuantity());
-            pstmt.setString(4, order.getOrderDate() != null ? order.getOrderDate().toString() : LocalDate.now().toString());
-            pstmt.setString(5, order.getExpectedDeliveryDate() != null ? order.getExpectedDeliveryDate().toString() : null);
-            pstmt.setString(6, order.getActualDeliveryDate() != null ? order.getActualDeliveryDate().toString() : null);
-            pstmt.setString(7, order.getStatus().name());
-            pstmt.setString(8, order.getSupplier());
-            pstmt.setDouble(9, order.getTotalCost());
+        OperationTimer timed = METRICS.start("addOrder");
+        try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(INSERT);
+            bindInsert(pstmt, 1, order);
             
             int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            if (rowsAffected > 0) {
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        order.setId(keys.getInt(1));
+                    }
+                }
+            }
+            return timed.changed(rowsAffected > 0);
         } catch (SQLException e) {
-            System.err.println("Error adding order: " + e.getMessage());
-            e.printStackTrace();
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error adding order");
             return false;
         }
     }
 
+    // Inserts the orders in one transaction, ROWS_PER_INSERT rows per statement, and sets their generated ids.
+    // Returns the number inserted, or 0 if the batch failed and was rolled back; the orders' ids are then reset to 0.
+    public int addOrderBatch(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return 0;
+        }
+        OperationTimer timed = METRICS.start("addOrderBatch");
+        try {
+            return timed.rowCount(DatabaseManager.inTransaction(() -> {
+                try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+                    for (int start = 0; start < orders.size(); start += ROWS_PER_INSERT) {
+                        insertChunk(conn, orders.subList(start, Math.min(start + ROWS_PER_INSERT, orders.size())));
+                    }
+                    return orders.size();
+                }
+            }));
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error adding order batch");
+            // Chunks inserted before the failure were given ids that the rollback took back.
+            for (Order order : orders) {
+                order.setId(0);
+            }
+            return 0;
+        }
+    }
+
+    private void insertChunk(PooledConnection conn, List<Order> rows) throws SQLException {
+        if (rows.size() == ROWS_PER_INSERT) {
+            executeInsert(conn.prepareCached(insertRows(ROWS_PER_INSERT)), rows);
+        } else {
+            // The last chunk can have any length, so caching it would evict the statements the cache is for.
+            try (PreparedStatement pstmt = conn.prepareStatement(insertRows(rows.size()))) {
+                executeInsert(pstmt, rows);
+            }
+        }
+        // The writer is the only connection inserting, so these rows were given consecutive ids.
+        int lastId = conn.lastInsertId();
+        for (int i = 0; i < rows.size(); i++) {
+            rows.get(i).setId(lastId - rows.size() + 1 + i);
+        }
+    }
+
+    private void executeInsert(PreparedStatement pstmt, List<Order> rows) throws SQLException {
+        for (int i = 0; i < rows.size(); i++) {
+            bindInsert(pstmt, i * INSERT_COLUMNS + 1, rows.get(i));
+        }
+        pstmt.executeUpdate();
+    }
+
+    static String insertRows(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT);
+        for (int i = 1; i < rows; i++) {
+            sql.append(", (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
+
+    private void bindInsert(PreparedStatement pstmt, int first, Order order) throws SQLException {
+        pstmt.setInt(first, order.getEquipmentId());
+        pstmt.setString(first + 1, order.getEquipmentName());
+        pstmt.setInt(first + 2, order.getQuantity());
+        pstmt.setString(first + 3, order.getOrderDate() != null ? order.getOrderDate().toString() : LocalDate.now().toString());
+        pstmt.setString(first + 4, order.getExpectedDeliveryDate() != null ? order.getExpectedDeliveryDate().toString() : null);
+        pstmt.setString(first + 5, order.getActualDeliveryDate() != null ? order.getActualDeliveryDate().toString() : null);
+        pstmt.setString(first + 6, order.getStatus().name());
+        pstmt.setString(first + 7, order.getSupplier());
+        pstmt.setDouble(first + 8, order.getTotalCost());
+    }
+
     public boolean updateOrder(Order order) {
-        String query = "UPDATE orders SET equipment_id = ?, equipment_name = ?, quantity = ?, " +
-                      "order_date = ?, expected_delivery_date = ?, actual_delivery_date = ?, " +
-                      "status = ?, supplier = ?, total_cost = ? WHERE id = ?";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
+        OperationTimer timed = METRICS.start("updateOrder");
+        try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(UPDATE);
             pstmt.setInt(1, order.getEquipmentId());
             pstmt.setString(2, order.getEquipmentName());
             pstmt.setInt(3, order.getQuantity());
@@ -112,66 +284,102 @@ public class OrderDAO {
             pstmt.setInt(10, order.getId());
             
             int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            return timed.changed(rowsAffected > 0);
         } catch (SQLException e) {
-            System.err.println("Error updating order: " + e.getMessage());
-            e.printStackTrace();
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error updating order");
             return false;
         }
     }
 
     public boolean deleteOrder(int id) {
-        String query = "DELETE FROM orders WHERE id = ?";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
+        OperationTimer timed = METRICS.start("deleteOrder");
+        try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(DELETE);
             pstmt.setInt(1, id);
             int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            return timed.changed(rowsAffected > 0);
         } catch (SQLException e) {
-            System.err.println("Error deleting order: " + e.getMessage());
-            e.printStackTrace();
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error deleting order");
             return false;
         }
     }
 
     public boolean updateOrderStatus(int orderId, OrderStatus newStatus) {
-        String query = "UPDATE orders SET status = ? WHERE id = ?";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
+        OperationTimer timed = METRICS.start("updateOrderStatus");
+        try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(UPDATE_STATUS);
             pstmt.setString(1, newStatus.name());
             pstmt.setInt(2, orderId);
             
             int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            return timed.changed(rowsAffected > 0);
         } catch (SQLException e) {
-            System.err.println("Error updating order status: " + e.getMessage());
-            e.printStackTrace();
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error updating order status");
             return false;
         }
     }
 
+    // Only a PENDING or IN_TRANSIT order is marked; returns false if it was already delivered or cancelled.
     public boolean markAsDelivered(int orderId) {
-        String query = "UPDATE orders SET status = 'DELIVERED', actual_delivery_date = ? WHERE id = ?";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
+        OperationTimer timed = METRICS.start("markAsDelivered");
+        try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(MARK_DELIVERED);
             pstmt.setString(1, LocalDate.now().toString());
             pstmt.setInt(2, orderId);
             
             int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            return timed.changed(rowsAffected > 0);
         } catch (SQLException e) {
-            System.err.println("Error marking order as delivered: " + e.getMessage());
-            e.printStackTrace();
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error marking order as delivered");
             return false;
         }
     }
 
+    // Marks every PENDING or IN_TRANSIT order among orderIds as delivered in one statement and returns the orders
+    // it changed. Orders whose equipment no longer exists are left alone. Returns null if the update failed.
+    public List<Order> markAsDelivered(Collection<Integer> orderIds) {
+        List<Order> delivered = new ArrayList<>();
+        if (orderIds.isEmpty()) {
+            return delivered;
+        }
+        OperationTimer timed = METRICS.start("markAsDelivered(batch)");
+        try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(MARK_DELIVERED_ALL);
+            pstmt.setString(1, LocalDate.now().toString());
+            pstmt.setString(2, jsonArray(orderIds));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    delivered.add(extractOrderFromResultSet(rs));
+                }
+            }
+            return timed.rows(delivered);
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error marking orders as delivered");
+            return null;
+        }
+    }
+
+    static String jsonArray(Collection<Integer> ids) {
+        StringBuilder json = new StringBuilder(ids.size() * 6 + 2).append('[');
+        for (int id : ids) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(id);
+        }
+        return json.append(']').toString();
+    }
+
     private Order extractOrderFromResultSet(ResultSet rs) throws SQLException {
         Order order = new Order();
         order.setId(rs.getInt("id"));
@@ -0,0 +1,25 @@
+package com.labinventory.database;
+
+public record PoolMetrics(long leases, long timeouts, long totalWaitNanos, long maxWaitNanos,
+                          int openReaders, int openWriters, int inUse) {
+
+    public int openConnections() {
+        return openReaders + openWriters;
+    }
+
+    public double averageWaitMicros() {
+        return leases == 0 ? 0.0 : totalWaitNanos / 1_000.0 / leases;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolMetrics{" +
+                "leases=" + leases +
+                ", timeouts=" + timeouts +
+                ", avgWaitMicros=" + String.format("%.1f", averageWaitMicros()) +
+                ", maxWaitMicros=" + maxWaitNanos / 1_000 +
+                ", open=" + openConnections() + " (" + openWriters + "w/" + openReaders + "r)" +
+                ", inUse=" + inUse +
+                '}';
+    }
+}
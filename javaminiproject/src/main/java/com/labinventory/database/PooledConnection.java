@@ -0,0 +1,83 @@
+package com.labinventory.database;
+
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+
+import java.sql.*;
+
+public class PooledConnection implements AutoCloseable {
+    private static final Logger LOG = Log.getLogger(PooledConnection.class);
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final boolean writer;
+    private final StatementCache statementCache;
+    private boolean leased;
+    private int joined;
+
+    PooledConnection(ConnectionPool pool, Connection connection, boolean writer, StatementCache statementCache) {
+        this.pool = pool;
+        this.connection = connection;
+        this.writer = writer;
+        this.statementCache = statementCache;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public boolean isWriter() {
+        return writer;
+    }
+
+    public Statement createStatement() throws SQLException {
+        return connection.createStatement();
+    }
+
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return connection.prepareStatement(sql);
+    }
+
+    public PreparedStatement prepareCached(String sql) throws SQLException {
+        return statementCache.prepare(sql);
+    }
+
+    // Rowid of the last row inserted on this connection; a multi-row insert gets consecutive ids ending here.
+    public int lastInsertId() throws SQLException {
+        try (ResultSet rs = prepareCached("SELECT last_insert_rowid()").executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // Hands the connection out again to code running inside the same transaction; close() then only undoes the join.
+    PooledConnection join() {
+        joined++;
+        return this;
+    }
+
+    boolean isLeased() {
+        return leased;
+    }
+
+    void setLeased(boolean leased) {
+        this.leased = leased;
+    }
+
+    void closeQuietly() {
+        statementCache.clear();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOG.warn("Error closing pooled connection", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (joined > 0) {
+            joined--;
+            return;
+        }
+        pool.release(this);
+    }
+}
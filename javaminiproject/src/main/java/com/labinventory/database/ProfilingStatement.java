@@ -0,0 +1,490 @@
+package com.labinventory.database;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// Times each statement it runs. Updates and batches are recorded when they return; a query is recorded when its
+// result set is exhausted or closed, or when this statement runs something else or is closed first.
+class ProfilingStatement implements Statement {
+    final Statement delegate;
+    final ProfilingConnection connection;
+    final StatementProfiler profiler;
+    private final List<String> batch = new ArrayList<>();
+    private ProfilingResultSet current;
+    // An execute that returned a result set the caller has not asked for yet.
+    private StatementProfiler.Entry pendingEntry;
+    private String pendingSql;
+    private long pendingStart;
+
+    ProfilingStatement(Statement delegate, ProfilingConnection connection, StatementProfiler profiler) {
+        this.delegate = delegate;
+        this.connection = connection;
+        this.profiler = profiler;
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        finishCurrent();
+        StatementProfiler.Entry entry = profiler.entry(sql);
+        long start = System.nanoTime();
+        try {
+            return track(delegate.executeQuery(sql), entry, sql, start);
+        } catch (SQLException e) {
+            throw failed(entry, sql, start, e);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        finishCurrent();
+        StatementProfiler.Entry entry = profiler.entry(sql);
+        long start = System.nanoTime();
+        try {
+            return (int) updated(entry, sql, start, delegate.executeUpdate(sql));
+        } catch (SQLException e) {
+            throw failed(entry, sql, start, e);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        finishCurrent();
+        StatementProfiler.Entry entry = profiler.entry(sql);
+        long start = System.nanoTime();
+        try {
+            return (int) updated(entry, sql, start, delegate.executeUpdate(sql, autoGeneratedKeys));
+        } catch (SQLException e) {
+            throw failed(entry, sql, start, e);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        finishCurrent();
+        StatementProfiler.Entry entry = profiler.entry(sql);
+        long start = System.nanoTime();
+        try {
+            return (int) updated(entry, sql, start, delegate.executeUpdate(sql, columnIndexes));
+        } catch (SQLException e) {
+            throw failed(entry, sql, start, e);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        finishCurrent();
+        StatementProfiler.Entry entry = profiler.entry(sql);
+        long start = System.nanoTime();
+        try {
+            return (int) updated(entry, sql, start, delegate.executeUpdate(sql, columnNames));
+        } catch (SQLException e) {
+            throw failed(entry, sql, start, e);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        finishCurrent();
+        StatementProfiler.Entry entry = profiler.entry(sql);
+        long start = System.nanoTime();
+        try {
+            return updated(entry, sql, start, delegate.executeLargeUpdate(sql));
+        } catch (SQLException e) {
+            throw failed(entry, sql, start, e);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        finishCurrent();
+        StatementProfiler.Entry entry = profiler.entry(sql);
+        long start = System.nanoTime();
+        try {
+            return updated(entry, sql, start, delegate.executeLargeUpdate(sql, autoGeneratedKeys));
+        } catch (SQLException e) {
+            throw failed(entry, sql, start, e);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        finishCurrent();
+        StatementProfiler.Entry entry = profiler.entry(sql);
+        long start = System.nanoTime();
+        try {
+            return updated(entry, sql, start, delegate.executeLargeUpdate(sql, columnIndexes));
+        } catch (SQLException e) {
+            throw failed(entry, sql, start, e);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        finishCurrent();
+        StatementProfiler.Entry entry = profiler.entry(sql);
+        long start = System.nanoTime();
+        try {
+            return updated(entry, sql, start, delegate.executeLargeUpdate(sql, columnNames));
+        } catch (SQLException e) {
+            throw failed(entry, sql, start, e);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        finishCurrent();
+        StatementProfiler.Entry entry = profiler.entry(sql);
+        long start = System.nanoTime();
+        try {
+            return executed(entry, sql, start, delegate.execute(sql));
+        } catch (SQLException e) {
+            throw failed(entry, sql, start, e);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        finishCurrent();
+        StatementProfiler.Entry entry = profiler.entry(sql);
+        long start = System.nanoTime();
+        try {
+            return executed(entry, sql, start, delegate.execute(sql, autoGeneratedKeys));
+        } catch (SQLException e) {
+            throw failed(entry, sql, start, e);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        finishCurrent();
+        StatementProfiler.Entry entry = profiler.entry(sql);
+        long start = System.nanoTime();
+        try {
+            return executed(entry, sql, start, delegate.execute(sql, columnIndexes));
+        } catch (SQLException e) {
+            throw failed(entry, sql, start, e);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        finishCurrent();
+        StatementProfiler.Entry entry = profiler.entry(sql);
+        long start = System.nanoTime();
+        try {
+            return executed(entry, sql, start, delegate.execute(sql, columnNames));
+        } catch (SQLException e) {
+            throw failed(entry, sql, start, e);
+        }
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        delegate.addBatch(sql);
+        batch.add(sql);
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        delegate.clearBatch();
+        batch.clear();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        long[] counts = runBatch(false);
+        int[] result = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            result[i] = (int) counts[i];
+        }
+        return result;
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        return runBatch(true);
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        ResultSet rs = delegate.getResultSet();
+        if (rs == null || pendingEntry == null) {
+            return rs == null || current == null ? rs : current;
+        }
+        StatementProfiler.Entry entry = pendingEntry;
+        pendingEntry = null;
+        return track(rs, entry, pendingSql, pendingStart);
+    }
+
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            delegate.close();
+        } finally {
+            finishCurrent();
+        }
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || delegate.isWrapperFor(iface);
+    }
+
+    // Statement batches are only the addBatch(String) kind; ProfilingPreparedStatement times its own batches.
+    long[] runBatch(boolean large) throws SQLException {
+        finishCurrent();
+        if (batch.isEmpty()) {
+            return large ? delegate.executeLargeBatch() : toLong(delegate.executeBatch());
+        }
+        StatementProfiler.Entry entry = profiler.batchEntry(batch);
+        String sql = batch.get(0);
+        batch.clear();
+        long start = System.nanoTime();
+        try {
+            long[] counts = large ? delegate.executeLargeBatch() : toLong(delegate.executeBatch());
+            profiler.record(entry, start, changedRows(counts), false, sql, connection.delegate);
+            return counts;
+        } catch (SQLException e) {
+            throw failed(entry, sql, start, e);
+        }
+    }
+
+    ResultSet track(ResultSet rs, StatementProfiler.Entry entry, String sql, long start) {
+        current = new ProfilingResultSet(rs, this, entry, sql, start);
+        return current;
+    }
+
+    long updated(StatementProfiler.Entry entry, String sql, long start, long rows) {
+        profiler.record(entry, start, rows, false, sql, connection.delegate);
+        return rows;
+    }
+
+    // A result set is timed once the caller reads it; an update is recorded straight away.
+    boolean executed(StatementProfiler.Entry entry, String sql, long start, boolean hasResultSet)
+            throws SQLException {
+        if (hasResultSet) {
+            pendingEntry = entry;
+            pendingSql = sql;
+            pendingStart = start;
+        } else {
+            updated(entry, sql, start, Math.max(delegate.getLargeUpdateCount(), 0));
+        }
+        return hasResultSet;
+    }
+
+    SQLException failed(StatementProfiler.Entry entry, String sql, long start, SQLException e) {
+        profiler.record(entry, start, 0, true, sql, connection.delegate);
+        return e;
+    }
+
+    // Records the query still open on this statement, since running another or closing the statement ends it.
+    void finishCurrent() {
+        if (current != null) {
+            current.finish(false);
+            current = null;
+        }
+        if (pendingEntry != null) {
+            profiler.record(pendingEntry, pendingStart, 0, false, pendingSql, connection.delegate);
+            pendingEntry = null;
+        }
+    }
+
+    static long changedRows(long[] counts) {
+        long rows = 0;
+        for (long count : counts) {
+            if (count > 0) {
+                rows += count;
+            }
+        }
+        return rows;
+    }
+
+    static long[] toLong(int[] counts) {
+        long[] result = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            result[i] = counts[i];
+        }
+        return result;
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return delegate.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        delegate.setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return delegate.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        delegate.setMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        delegate.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return delegate.getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        delegate.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        delegate.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return delegate.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        delegate.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        delegate.setCursorName(name);
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return delegate.getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        return delegate.getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        delegate.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return delegate.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        delegate.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return delegate.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return delegate.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return delegate.getResultSetType();
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        return delegate.getMoreResults(current);
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return delegate.getGeneratedKeys();
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return delegate.getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        delegate.setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return delegate.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        delegate.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return delegate.isCloseOnCompletion();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        return delegate.getLargeUpdateCount();
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        delegate.setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return delegate.getLargeMaxRows();
+    }
+
+    @Override
+    public String enquoteLiteral(String val) throws SQLException {
+        return delegate.enquoteLiteral(val);
+    }
+
+    @Override
+    public String enquoteIdentifier(String identifier, boolean alwaysQuote) throws SQLException {
+        return delegate.enquoteIdentifier(identifier, alwaysQuote);
+    }
+
+    @Override
+    public boolean isSimpleIdentifier(String identifier) throws SQLException {
+        return delegate.isSimpleIdentifier(identifier);
+    }
+
+    @Override
+    public String enquoteNCharLiteral(String val) throws SQLException {
+        return delegate.enquoteNCharLiteral(val);
+    }
+}
@@ -0,0 +1,7 @@
+package com.labinventory.database;
+
+import java.util.List;
+
+public record QueryPlanReport(String name, String sql, List<String> plan,
+                              boolean fullScan, boolean tempSort, boolean scanExpected, boolean sortExpected) {
+}
@@ -0,0 +1,137 @@
+package com.labinventory.database;
+
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.model.EquipmentSort;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class QueryPlanVerifier {
+    private static final Logger LOG = Log.getLogger(QueryPlanVerifier.class);
+
+    private static final List<Probe> PROBES = probes();
+
+    private static List<Probe> probes() {
+        List<Probe> probes = new ArrayList<>(List.of(
+            new Probe("EquipmentDAO.getAllEquipment", EquipmentDAO.SELECT_ALL, true),
+            new Probe("EquipmentDAO.getEquipmentById", EquipmentDAO.SELECT_BY_ID, false),
+            new Probe("EquipmentDAO.getLowStockEquipment", EquipmentDAO.SELECT_LOW_STOCK, false),
+            new Probe("EquipmentDAO.getEquipmentNearExpiry", EquipmentDAO.SELECT_NEAR_EXPIRY, false),
+            new Probe("EquipmentDAO.updateEquipment", EquipmentDAO.UPDATE, false),
+            new Probe("EquipmentDAO.deleteEquipment", EquipmentDAO.DELETE, false),
+            new Probe("EquipmentDAO.adjustQuantity", EquipmentDAO.ADJUST_QUANTITY, false),
+            new Probe("EquipmentDAO.adjustQuantities", EquipmentDAO.ADD_QUANTITY, false),
+            new Probe("EquipmentDAO.adjustQuantities(select)", EquipmentDAO.SELECT_QUANTITIES, false),
+            new Probe("EquipmentDAO.searchEquipment", EquipmentDAO.SEARCH, true),
+            new Probe("EquipmentDAO.searchEquipmentRanked", EquipmentDAO.SEARCH_RANKED, false, false),
+            new Probe("EquipmentDAO.getEquipmentTotals", EquipmentDAO.SELECT_TOTALS, true),
+            new Probe("EquipmentDAO.countEquipment", EquipmentDAO.COUNT, true),
+            new Probe("EquipmentDAO.getEquipmentPage", EquipmentDAO.SELECT_PAGE, false),
+            new Probe("OrderDAO.getAllOrders", OrderDAO.SELECT_ALL, false),
+            new Probe("OrderDAO.getActiveOrders", OrderDAO.SELECT_ACTIVE, false),
+            new Probe("OrderDAO.getOrderById", OrderDAO.SELECT_BY_ID, false),
+            new Probe("OrderDAO.countActiveOrders", OrderDAO.COUNT_ACTIVE, false),
+            new Probe("OrderDAO.updateOrder", OrderDAO.UPDATE, false),
+            new Probe("OrderDAO.deleteOrder", OrderDAO.DELETE, false),
+            new Probe("OrderDAO.updateOrderStatus", OrderDAO.UPDATE_STATUS, false),
+            new Probe("OrderDAO.markAsDelivered", OrderDAO.MARK_DELIVERED, false),
+            new Probe("OrderDAO.getOrdersByIds", OrderDAO.SELECT_BY_IDS, false),
+            new Probe("OrderDAO.markAsDelivered(batch)", OrderDAO.MARK_DELIVERED_ALL, false),
+            new Probe("OrderDAO.getActiveQuantitiesByEquipment", OrderDAO.SUM_ACTIVE_BY_EQUIPMENT, false),
+            new Probe("StockLedgerDAO.recordChanges", StockLedgerDAO.INSERT_CHANGES, false),
+            new Probe("StockLedgerDAO.recordOpeningBalances", StockLedgerDAO.INSERT_OPENING_BALANCES, true),
+            new Probe("StockLedgerDAO.getDailyUsageSince", StockLedgerDAO.SELECT_DAILY_USAGE, false),
+            new Probe("StockLedgerDAO.getMovementsBetween", StockLedgerDAO.SELECT_MOVEMENTS_BETWEEN, false),
+            new Probe("StockLedgerDAO.getQuantityAt", StockLedgerDAO.SELECT_LEVEL_AT, false),
+            new Probe("StockLedgerDAO.getQuantitiesAt", StockLedgerDAO.SELECT_LEVELS_AT, true),
+            new Probe("StockLedgerDAO.takeSnapshots", StockLedgerDAO.INSERT_SNAPSHOTS, false),
+            new Probe("StockLedgerDAO.takeSnapshots(watermark)", StockLedgerDAO.SELECT_LAST_WATERMARK, false, false)
+        ));
+        for (EquipmentSort sort : EquipmentSort.values()) {
+            probes.add(new Probe("EquipmentDAO.getEquipmentPage(" + sort.name() + ")",
+                    EquipmentDAO.SELECT_PAGE_AFTER.get(sort), false, false));
+            probes.add(new Probe("EquipmentDAO.getEquipmentPageAt(" + sort.name() + ")",
+                    EquipmentDAO.SELECT_PAGE_AT.get(sort), true, false));
+        }
+        return List.copyOf(probes);
+    }
+
+    public static List<QueryPlanReport> verify(PooledConnection conn) throws SQLException {
+        List<QueryPlanReport> reports = new ArrayList<>();
+        for (Probe probe : PROBES) {
+            reports.add(explain(conn, probe));
+        }
+        return reports;
+    }
+
+    public static List<QueryPlanReport> verifyAndReport() {
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            List<QueryPlanReport> reports = verify(conn);
+            int unexpected = 0;
+            for (QueryPlanReport report : reports) {
+                if (report.fullScan() && !report.scanExpected()) {
+                    unexpected++;
+                    LOG.atWarn().field("query", report.name()).field("plan", report.plan())
+                            .log("Query plan check: unexpected full table scan");
+                } else if (report.tempSort() && !report.sortExpected()) {
+                    unexpected++;
+                    LOG.atWarn().field("query", report.name()).field("plan", report.plan())
+                            .log("Query plan check: unexpected sort in a temp B-tree");
+                } else if (report.fullScan()) {
+                    LOG.atInfo().field("query", report.name()).log("Query plan check: full table scan (expected)");
+                }
+            }
+            LOG.atInfo().field("queries", reports.size()).field("unexpected", unexpected)
+                    .log("Query plan check: queries verified");
+            return reports;
+        } catch (SQLException e) {
+            LOG.warn("Error verifying query plans", e);
+            return List.of();
+        }
+    }
+
+    // The detail column of EXPLAIN QUERY PLAN, one entry per plan step. Parameters may be left unbound.
+    static List<String> queryPlan(Connection connection, String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement pstmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                plan.add(rs.getString("detail"));
+            }
+        }
+        return plan;
+    }
+
+    private static QueryPlanReport explain(PooledConnection conn, Probe probe) throws SQLException {
+        List<String> plan = queryPlan(conn.getConnection(), probe.sql());
+        boolean fullScan = false;
+        boolean tempSort = false;
+        // Scanning the rows of a subquery SQLite has already evaluated is not a table scan.
+        Set<String> subqueries = new HashSet<>(List.of("CONSTANT ROW"));
+
+        for (String detail : plan) {
+            if (detail.startsWith("CO-ROUTINE ") || detail.startsWith("MATERIALIZE ")) {
+                subqueries.add(detail.substring(detail.indexOf(' ') + 1));
+            }
+            if (detail.startsWith("SCAN ") && !detail.contains(" USING ") && !detail.contains(" VIRTUAL TABLE ")
+                    && !subqueries.contains(detail.substring(5).replace(" LEFT-JOIN", ""))) {
+                fullScan = true;
+            }
+            if (detail.startsWith("USE TEMP B-TREE")) {
+                tempSort = true;
+            }
+        }
+        return new QueryPlanReport(probe.name(), probe.sql(), plan, fullScan, tempSort,
+                probe.scanExpected(), probe.sortExpected());
+    }
+
+    private record Probe(String name, String sql, boolean scanExpected, boolean sortExpected) {
+        Probe(String name, String sql, boolean scanExpected) {
+            this(name, sql, scanExpected, true);
+        }
+    }
+}
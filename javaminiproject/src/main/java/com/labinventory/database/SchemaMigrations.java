@@ -0,0 +1,202 @@
+package com.labinventory.database;
+
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.model.EquipmentSort;
+
+import java.sql.*;
+import java.util.List;
+
+public class SchemaMigrations {
+    private static final Logger LOG = Log.getLogger(SchemaMigrations.class);
+
+    private static final String SEARCH_INSERT_TRIGGER = """
+            CREATE TRIGGER IF NOT EXISTS equipments_fts_insert AFTER INSERT ON equipments BEGIN
+                INSERT INTO equipments_fts(rowid, name, category, location, supplier)
+                VALUES (new.id, new.name, new.category, new.location, new.supplier);
+            END
+            """;
+
+    private static final List<Migration> MIGRATIONS = List.of(
+        new Migration(1, "Secondary indexes for alert, order and listing queries", List.of(
+            "CREATE INDEX IF NOT EXISTS idx_equipments_low_stock ON equipments(quantity) " +
+                "WHERE quantity <= lower_limit",
+            "CREATE INDEX IF NOT EXISTS idx_equipments_expiry ON equipments(expiry_date) " +
+                "WHERE expiry_date IS NOT NULL",
+            "CREATE INDEX IF NOT EXISTS idx_orders_status_expected ON orders(status, expected_delivery_date)",
+            "CREATE INDEX IF NOT EXISTS idx_orders_active_expected ON orders(expected_delivery_date) " +
+                "WHERE status IN ('PENDING', 'IN_TRANSIT')",
+            "CREATE INDEX IF NOT EXISTS idx_orders_order_date ON orders(order_date DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_orders_equipment ON orders(equipment_id)"
+        )),
+        new Migration(2, "Sort indexes for the equipment list", List.of(
+            "CREATE INDEX IF NOT EXISTS idx_equipments_name_nocase ON equipments(name COLLATE NOCASE)",
+            "CREATE INDEX IF NOT EXISTS idx_equipments_category_nocase ON equipments(category COLLATE NOCASE)",
+            "CREATE INDEX IF NOT EXISTS idx_equipments_quantity ON equipments(quantity)",
+            "CREATE INDEX IF NOT EXISTS idx_equipments_unit_price ON equipments(unit_price)",
+            "CREATE INDEX IF NOT EXISTS idx_equipments_expiry_last ON equipments(" +
+                EquipmentDAO.sortKey(EquipmentSort.EXPIRY_DATE) + ")"
+        )),
+        new Migration(3, "Full-text search index for equipment", List.of(
+            "CREATE VIRTUAL TABLE IF NOT EXISTS equipments_fts USING fts5(name, category, location, supplier, " +
+                "content='equipments', content_rowid='id', tokenize='unicode61 remove_diacritics 2', prefix='2 3')",
+            "INSERT INTO equipments_fts(equipments_fts, rank) VALUES ('rank', 'bm25(10.0, 5.0, 1.0, 1.0)')",
+            SEARCH_INSERT_TRIGGER,
+            """
+            CREATE TRIGGER IF NOT EXISTS equipments_fts_delete AFTER DELETE ON equipments BEGIN
+                INSERT INTO equipments_fts(equipments_fts, rowid, name, category, location, supplier)
+                VALUES ('delete', old.id, old.name, old.category, old.location, old.supplier);
+            END
+            """,
+            """
+            CREATE TRIGGER IF NOT EXISTS equipments_fts_update
+            AFTER UPDATE OF name, category, location, supplier ON equipments BEGIN
+                INSERT INTO equipments_fts(equipments_fts, rowid, name, category, location, supplier)
+                VALUES ('delete', old.id, old.name, old.category, old.location, old.supplier);
+                INSERT INTO equipments_fts(rowid, name, category, location, supplier)
+                VALUES (new.id, new.name, new.category, new.location, new.supplier);
+            END
+            """,
+            EquipmentDAO.REBUILD_SEARCH_INDEX
+        )),
+        new Migration(4, "Stock movement ledger", List.of(
+            """
+            CREATE TABLE IF NOT EXISTS stock_movements (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                equipment_id INTEGER NOT NULL,
+                delta INTEGER NOT NULL,
+                reason TEXT NOT NULL CHECK(reason IN ('OPENING', 'RECEIVED', 'ADJUSTMENT', 'DELIVERY', 'REMOVED')),
+                order_id INTEGER,
+                moved_at INTEGER NOT NULL
+            )
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_stock_movements_equipment ON stock_movements(equipment_id, moved_at)",
+            "CREATE INDEX IF NOT EXISTS idx_stock_movements_usage ON stock_movements(moved_at) " +
+                "WHERE reason = 'ADJUSTMENT' AND delta < 0",
+            StockLedgerDAO.INSERT_OPENING_BALANCES
+        )),
+        new Migration(5, "Append-only ledger and stock snapshots", List.of(
+            """
+            CREATE TRIGGER IF NOT EXISTS stock_movements_no_update BEFORE UPDATE ON stock_movements BEGIN
+                SELECT RAISE(ABORT, 'stock_movements is append-only');
+            END
+            """,
+            """
+            CREATE TRIGGER IF NOT EXISTS stock_movements_no_delete BEFORE DELETE ON stock_movements BEGIN
+                SELECT RAISE(ABORT, 'stock_movements is append-only');
+            END
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS stock_snapshots (
+                equipment_id INTEGER NOT NULL,
+                taken_at INTEGER NOT NULL,
+                movement_id INTEGER NOT NULL,
+                quantity INTEGER NOT NULL,
+                PRIMARY KEY (equipment_id, taken_at, movement_id)
+            ) WITHOUT ROWID
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS stock_snapshot_runs (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                watermark INTEGER NOT NULL,
+                ran_at INTEGER NOT NULL,
+                snapshots INTEGER NOT NULL
+            )
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_stock_movements_removed ON stock_movements(moved_at) " +
+                "WHERE reason = 'REMOVED'",
+            // Covers the sums over an item's movements, so adding up a tail never reads the table.
+            "DROP INDEX IF EXISTS idx_stock_movements_equipment",
+            "CREATE INDEX IF NOT EXISTS idx_stock_movements_history ON stock_movements(equipment_id, moved_at, delta)"
+        ))
+    );
+
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+    }
+
+    public static int currentVersion(PooledConnection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    public static int migrate(PooledConnection conn) throws SQLException {
+        int version = currentVersion(conn);
+        int applied = 0;
+        Connection connection = conn.getConnection();
+
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version() <= version) {
+                continue;
+            }
+            long start = System.nanoTime();
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                for (String sql : migration.statements()) {
+                    stmt.execute(sql);
+                }
+                stmt.execute("PRAGMA user_version = " + migration.version());
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw new SQLException("Schema migration " + migration.version() + " failed: " + e.getMessage(), e);
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            applied++;
+            LOG.atInfo().field("version", migration.version()).field("description", migration.description())
+                    .field("millis", (System.nanoTime() - start) / 1_000_000).log("Applied schema migration");
+        }
+        restoreSearchInsertSync(connection);
+        return applied;
+    }
+
+    // A bulk load killed before it resumed the insert trigger leaves it dropped and the index missing the rows
+    // loaded so far, so the next start puts the trigger back and rebuilds the index.
+    private static void restoreSearchInsertSync(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            if (hasSearchInsertTrigger(stmt)) {
+                connection.rollback();
+                return;
+            }
+            long start = System.nanoTime();
+            resumeSearchInsertSync(stmt);
+            connection.commit();
+            LOG.atWarn().field("millis", (System.nanoTime() - start) / 1_000_000)
+                    .log("Restored the full-text insert trigger left dropped by an interrupted bulk load");
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Restoring the full-text insert trigger failed: " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // FTS5 flushes its pending terms at every statement boundary, so a script of many small INSERTs spends most
+    // of its time in the index. Bulk loads drop the insert trigger and rebuild the index once at the end instead.
+    static boolean suspendSearchInsertSync(Statement stmt) throws SQLException {
+        if (!hasSearchInsertTrigger(stmt)) {
+            return false;
+        }
+        stmt.execute("DROP TRIGGER equipments_fts_insert");
+        return true;
+    }
+
+    static void resumeSearchInsertSync(Statement stmt) throws SQLException {
+        stmt.execute(SEARCH_INSERT_TRIGGER);
+        stmt.execute(EquipmentDAO.REBUILD_SEARCH_INDEX);
+    }
+
+    private static boolean hasSearchInsertTrigger(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT 1 FROM sqlite_master WHERE type = 'trigger' AND name = 'equipments_fts_insert'")) {
+            return rs.next();
+        }
+    }
+
+    private record Migration(int version, String description, List<String> statements) {
+    }
+}
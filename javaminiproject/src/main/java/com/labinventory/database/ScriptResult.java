@@ -0,0 +1,14 @@
+package com.labinventory.database;
+
+public record ScriptResult(String source, int statements, long rowsAffected, long elapsedMillis) {
+
+    @Override
+    public String toString() {
+        return "ScriptResult{" +
+                "source=" + source +
+                ", statements=" + statements +
+                ", rowsAffected=" + rowsAffected +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
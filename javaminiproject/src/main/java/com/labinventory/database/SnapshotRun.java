@@ -0,0 +1,16 @@
+package com.labinventory.database;
+
+// One pass of StockLedgerDAO.takeSnapshots: the ledger up to watermark (a movement id) is covered, and
+// movementsCovered movements were new since the previous pass.
+public record SnapshotRun(long watermark, long movementsCovered, int snapshots, long elapsedMillis) {
+
+    @Override
+    public String toString() {
+        return "SnapshotRun{" +
+                "watermark=" + watermark +
+                ", movementsCovered=" + movementsCovered +
+                ", snapshots=" + snapshots +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
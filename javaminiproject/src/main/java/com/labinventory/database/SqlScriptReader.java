@@ -0,0 +1,182 @@
+package com.labinventory.database;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Splits a SQL script into statements one at a time without reading the whole script into memory.
+// Semicolons inside quoted strings, quoted identifiers and comments do not end a statement, and neither do the
+// semicolons between BEGIN and END in a CREATE TRIGGER body. BEGIN and CASE are each matched with their own END,
+// so a CASE expression inside the body does not close it. Comments are dropped from the returned text.
+public class SqlScriptReader implements AutoCloseable {
+    private static final Pattern CREATE_TRIGGER =
+            Pattern.compile("^CREATE\\s+(TEMP\\s+|TEMPORARY\\s+)?TRIGGER\\b", Pattern.CASE_INSENSITIVE);
+
+    public record Statement(String sql, long line) {
+    }
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder text = new StringBuilder();
+    private final StringBuilder word = new StringBuilder();
+    private int openBlocks = 0;
+    private int position = 0;
+    private int limit = 0;
+    private long line = 1;
+
+    public SqlScriptReader(Reader source) {
+        this.reader = source;
+    }
+
+    public Statement next() throws IOException {
+        text.setLength(0);
+        word.setLength(0);
+        openBlocks = 0;
+        long startLine = 0;
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '-' && peek() == '-') {
+                endWord();
+                skipLineComment();
+                text.append(' ');
+                continue;
+            }
+            if (c == '/' && peek() == '*') {
+                endWord();
+                read();
+                skipBlockComment();
+                text.append(' ');
+                continue;
+            }
+            if (c == ';') {
+                endWord();
+                if (isTriggerBodyOpen(startLine)) {
+                    text.append(';');
+                    continue;
+                }
+                String sql = text.toString().trim();
+                if (!sql.isEmpty()) {
+                    return new Statement(sql, startLine);
+                }
+                text.setLength(0);
+                openBlocks = 0;
+                startLine = 0;
+                continue;
+            }
+            if (startLine == 0 && !Character.isWhitespace(c)) {
+                startLine = line;
+            }
+            text.append((char) c);
+            if (isIdentifierChar((char) c)) {
+                word.append((char) c);
+                continue;
+            }
+            endWord();
+            if (c == '\'' || c == '"' || c == '`') {
+                copyQuoted(c, c);
+            } else if (c == '[') {
+                copyQuoted('[', ']');
+            }
+        }
+
+        String sql = text.toString().trim();
+        return sql.isEmpty() ? null : new Statement(sql, startLine);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void copyQuoted(int open, int close) throws IOException {
+        long quoteLine = line;
+        int c;
+        while ((c = read()) != -1) {
+            text.append((char) c);
+            if (c == close) {
+                // A doubled quote character is an escaped quote, not the end of the literal.
+                if (open == close && peek() == close) {
+                    text.append((char) read());
+                    continue;
+                }
+                return;
+            }
+        }
+        throw new IOException("Unterminated quoted text starting on line " + quoteLine);
+    }
+
+    private void skipLineComment() throws IOException {
+        int c;
+        while ((c = read()) != -1 && c != '\n') {
+            // skip
+        }
+    }
+
+    private void skipBlockComment() throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '*' && peek() == '/') {
+                read();
+                return;
+            }
+        }
+    }
+
+    // Counts the BEGIN and CASE blocks still waiting for their END. Words inside quotes and comments never get here.
+    private void endWord() {
+        if (word.length() == 0) {
+            return;
+        }
+        String keyword = word.toString().toUpperCase(Locale.ROOT);
+        if (keyword.equals("BEGIN") || keyword.equals("CASE")) {
+            openBlocks++;
+        } else if (keyword.equals("END") && openBlocks > 0) {
+            openBlocks--;
+        }
+        word.setLength(0);
+    }
+
+    private boolean isTriggerBodyOpen(long startLine) {
+        if (startLine == 0 || openBlocks == 0) {
+            return false;
+        }
+        int start = 0;
+        while (Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        return CREATE_TRIGGER.matcher(text).region(start, text.length()).lookingAt();
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        char c = buffer[position++];
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
@@ -0,0 +1,134 @@
+package com.labinventory.database;
+
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+// Runs a SQL script on the writer connection as one transaction: either every statement is applied or none is.
+// Statements are sent in JDBC batches; scripts are meant for DDL and data, so statements must not return rows.
+public class SqlScriptRunner {
+    private static final Logger LOG = Log.getLogger(SqlScriptRunner.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 200;
+
+    private static final Pattern DML = Pattern.compile("^(INSERT|UPDATE|DELETE|REPLACE)\\b", Pattern.CASE_INSENSITIVE);
+
+    private final int batchSize;
+    private final boolean deferSearchIndex;
+
+    public SqlScriptRunner() {
+        this(DEFAULT_BATCH_SIZE, false);
+    }
+
+    // With deferSearchIndex the full-text index is rebuilt once after the script instead of row by row.
+    // That is much faster for seeding, but rebuilding costs time proportional to the whole table.
+    public SqlScriptRunner(int batchSize, boolean deferSearchIndex) {
+        this.batchSize = batchSize;
+        this.deferSearchIndex = deferSearchIndex;
+    }
+
+    public ScriptResult runResource(String resource) throws IOException, SQLException {
+        InputStream in = SqlScriptRunner.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new FileNotFoundException("SQL script not found on classpath: " + resource);
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return run(resource, reader);
+        }
+    }
+
+    public ScriptResult runFile(Path file) throws IOException, SQLException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return run(file.toString(), reader);
+        }
+    }
+
+    public ScriptResult run(String source, Reader script) throws IOException, SQLException {
+        long start = System.nanoTime();
+        SqlScriptReader statements = new SqlScriptReader(script);
+
+        TransactionWork<long[]> work = () -> {
+            try (PooledConnection conn = DatabaseManager.getWriteConnection();
+                 Statement stmt = conn.createStatement()) {
+                long[] lines = new long[batchSize];
+                boolean[] counted = new boolean[batchSize];
+                int executed = 0;
+                long rowsAffected = 0;
+                int pending = 0;
+                SqlScriptReader.Statement statement;
+                while ((statement = nextStatement(statements)) != null) {
+                    stmt.addBatch(statement.sql());
+                    lines[pending] = statement.line();
+                    counted[pending] = DML.matcher(statement.sql()).lookingAt();
+                    pending++;
+                    if (pending == batchSize) {
+                        rowsAffected += executeBatch(stmt, source, pending, lines, counted);
+                        executed += pending;
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    rowsAffected += executeBatch(stmt, source, pending, lines, counted);
+                    executed += pending;
+                }
+                // Equipment the script inserted without ledger entries starts the ledger with its current stock.
+                stmt.executeUpdate(StockLedgerDAO.INSERT_OPENING_BALANCES);
+                return new long[] {executed, rowsAffected};
+            }
+        };
+        long[] totals = deferSearchIndex ? DatabaseManager.inBulkLoad(work) : DatabaseManager.inTransaction(work);
+
+        ScriptResult result = new ScriptResult(source, (int) totals[0], totals[1], (System.nanoTime() - start) / 1_000_000);
+        LOG.atInfo().field("source", result.source()).field("statements", result.statements())
+                .field("rows", result.rowsAffected()).field("millis", result.elapsedMillis()).log("Ran SQL script");
+        return result;
+    }
+
+    private static SqlScriptReader.Statement nextStatement(SqlScriptReader statements) throws SQLException {
+        try {
+            return statements.next();
+        } catch (IOException e) {
+            throw new SQLException("Error reading SQL script: " + e.getMessage(), e);
+        }
+    }
+
+    private static long executeBatch(Statement stmt, String source, int pending, long[] lines, boolean[] counted)
+            throws SQLException {
+        try {
+            int[] counts = stmt.executeBatch();
+            long rows = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counted[i] && counts[i] > 0) {
+                    rows += counts[i];
+                }
+            }
+            return rows;
+        } catch (BatchUpdateException e) {
+            // Drivers either stop the update counts at the failed statement or mark it EXECUTE_FAILED; sqlite-jdbc
+            // does neither, so fall back to the lines the batch covers.
+            int[] counts = e.getUpdateCounts() != null ? e.getUpdateCounts() : new int[0];
+            int failed = counts.length < pending ? counts.length : -1;
+            for (int i = 0; i < counts.length && failed < 0; i++) {
+                if (counts[i] == Statement.EXECUTE_FAILED) {
+                    failed = i;
+                }
+            }
+            String where = failed >= 0 ? "line " + lines[failed] : "lines " + lines[0] + "-" + lines[pending - 1];
+            throw new SQLException("Error in " + source + " at " + where + ": " + e.getMessage(), e);
+        } finally {
+            stmt.clearBatch();
+        }
+    }
+}
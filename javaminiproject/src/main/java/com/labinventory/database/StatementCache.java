@@ -0,0 +1,84 @@
+package com.labinventory.database;
+
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class StatementCache {
+    private static final Logger LOG = Log.getLogger(StatementCache.class);
+
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final Connection connection;
+    private final int capacity;
+    private final Counters counters;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    StatementCache(Connection connection, int capacity, Counters counters) {
+        this.connection = connection;
+        this.capacity = capacity;
+        this.counters = counters;
+        this.statements = new LinkedHashMap<>(capacity * 2, 0.75f, true);
+    }
+
+    PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement cached = statements.get(sql);
+        if (cached != null && !cached.isClosed()) {
+            counters.hits.increment();
+            cached.clearParameters();
+            return cached;
+        }
+
+        counters.misses.increment();
+        PreparedStatement pstmt = connection.prepareStatement(sql);
+        statements.put(sql, pstmt);
+        if (statements.size() > capacity) {
+            evictEldest();
+        }
+        return pstmt;
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    void clear() {
+        for (PreparedStatement pstmt : statements.values()) {
+            closeQuietly(pstmt);
+        }
+        statements.clear();
+    }
+
+    private void evictEldest() {
+        Iterator<Map.Entry<String, PreparedStatement>> it = statements.entrySet().iterator();
+        Map.Entry<String, PreparedStatement> eldest = it.next();
+        it.remove();
+        closeQuietly(eldest.getValue());
+        counters.evictions.increment();
+    }
+
+    private static void closeQuietly(PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException e) {
+            LOG.warn("Error closing cached statement", e);
+        }
+    }
+
+    static class Counters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        StatementCacheMetrics snapshot() {
+            return new StatementCacheMetrics(hits.sum(), misses.sum(), evictions.sum());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.labinventory.database;
+
+public record StatementCacheMetrics(long hits, long misses, long evictions) {
+
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCacheMetrics{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                ", hitRate=" + String.format("%.1f%%", hitRate() * 100) +
+                '}';
+    }
+}
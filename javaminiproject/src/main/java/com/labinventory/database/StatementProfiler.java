@@ -0,0 +1,283 @@
+package com.labinventory.database;
+
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.metrics.Counter;
+import com.labinventory.metrics.LatencyHistogram;
+import com.labinventory.metrics.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+// Per-statement timings for every connection the pool opens. Statements are grouped by their normalized SQL:
+// literals become ?, whitespace and comments collapse, and IN lists and repeated VALUES rows shrink to one entry.
+// A query is timed from execute until its result set is exhausted or closed, since SQLite produces rows as they
+// are read; rows are the rows read, or the rows changed by a write. A statement slower than the threshold is
+// logged with its EXPLAIN QUERY PLAN, worked out once per statement.
+public class StatementProfiler {
+    public static final String ENABLED_PROPERTY = "labinventory.sql.profile";
+    public static final String SLOW_MILLIS_PROPERTY = "labinventory.sql.slowMillis";
+    public static final long DEFAULT_SLOW_MILLIS = 100;
+    // Bounds the number of time series when SQL is built with literals that normalization cannot fold.
+    public static final int MAX_STATEMENTS = 500;
+    static final String OTHER = "(other statements)";
+    static final String MIXED_BATCH = "(batch of different statements)";
+
+    private static final Logger LOG = Log.getLogger(StatementProfiler.class);
+    private static final Pattern IN_LIST = Pattern.compile("\\bIN \\(\\?(?:, ?\\?)*\\)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern REPEATED_ROWS = Pattern.compile("\\((\\?(?:, ?\\?)*)\\)(?:, ?\\(\\1\\))+");
+    private static final Pattern EXPLAINABLE = Pattern.compile("^(SELECT|WITH|INSERT|UPDATE|DELETE|REPLACE)\\b",
+            Pattern.CASE_INSENSITIVE);
+    private static final StatementProfiler DEFAULT = new StatementProfiler(MetricsRegistry.getDefault(),
+            slowMillisFromSystemProperty());
+
+    private final MetricsRegistry registry;
+    private final ConcurrentMap<String, Entry> statements = new ConcurrentHashMap<>();
+    private volatile long slowNanos;
+
+    public StatementProfiler(MetricsRegistry registry, long slowMillis) {
+        this.registry = registry;
+        setSlowThresholdMillis(slowMillis);
+    }
+
+    public static StatementProfiler getDefault() {
+        return DEFAULT;
+    }
+
+    // The default profiler, or null if -Dlabinventory.sql.profile=false turns profiling off.
+    public static StatementProfiler fromSystemProperty() {
+        String value = System.getProperty(ENABLED_PROPERTY);
+        return value != null && value.trim().equalsIgnoreCase("false") ? null : DEFAULT;
+    }
+
+    // A negative threshold turns the slow statement log off.
+    public void setSlowThresholdMillis(long millis) {
+        slowNanos = millis < 0 ? -1 : millis * 1_000_000;
+    }
+
+    public long getSlowThresholdMillis() {
+        return slowNanos < 0 ? -1 : slowNanos / 1_000_000;
+    }
+
+    public Connection wrap(Connection connection) {
+        return new ProfilingConnection(connection, this);
+    }
+
+    // Every statement run so far, the most total time first.
+    public List<StatementStats> getStatementStats() {
+        List<StatementStats> stats = new ArrayList<>(statements.size());
+        for (Entry entry : statements.values()) {
+            stats.add(new StatementStats(entry.sql, entry.latency.snapshot(), entry.rows.get(), entry.errors.get(),
+                    entry.slow.get(), entry.plan));
+        }
+        stats.sort(Comparator.comparingLong((StatementStats s) -> s.latency().sumNanos()).reversed());
+        return stats;
+    }
+
+    public static String normalize(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        boolean space = false;
+        int i = 0;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            char next = i + 1 < length ? sql.charAt(i + 1) : 0;
+            if (Character.isWhitespace(c)) {
+                space = true;
+                i++;
+                continue;
+            }
+            if (c == '-' && next == '-') {
+                while (i < length && sql.charAt(i) != '\n') {
+                    i++;
+                }
+                space = true;
+                continue;
+            }
+            if (c == '/' && next == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                space = true;
+                continue;
+            }
+            if (space && out.length() > 0) {
+                out.append(' ');
+            }
+            space = false;
+            if (c == '\'' || ((c == 'x' || c == 'X') && next == '\'' && !identifierBefore(out))) {
+                i = skipQuoted(sql, c == '\'' ? i : i + 1, '\'');
+                out.append('?');
+            } else if (c == '"' || c == '`' || c == '[') {
+                int end = skipQuoted(sql, i, c == '[' ? ']' : c);
+                out.append(sql, i, end);
+                i = end;
+            } else if (Character.isDigit(c) && !identifierBefore(out)) {
+                i = skipNumber(sql, i);
+                out.append('?');
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        while (out.length() > 0 && out.charAt(out.length() - 1) == ';') {
+            out.setLength(out.length() - 1);
+        }
+        String normalized = out.toString().trim();
+        if (normalized.indexOf('(') < 0) {
+            return normalized;
+        }
+        normalized = IN_LIST.matcher(normalized).replaceAll("IN (...)");
+        return REPEATED_ROWS.matcher(normalized).replaceAll("($1), ...");
+    }
+
+    Entry entry(String sql) {
+        return entryForNormalized(normalize(sql));
+    }
+
+    // A JDBC batch of plain statements is timed as a whole, so it is one entry if all its statements normalize the
+    // same and a shared entry otherwise.
+    Entry batchEntry(List<String> sqls) {
+        String first = normalize(sqls.get(0));
+        for (int i = 1; i < sqls.size(); i++) {
+            if (!normalize(sqls.get(i)).equals(first)) {
+                return entryForNormalized(MIXED_BATCH);
+            }
+        }
+        return entryForNormalized(first);
+    }
+
+    Entry entryForNormalized(String normalized) {
+        Entry entry = statements.get(normalized);
+        if (entry != null) {
+            return entry;
+        }
+        if (statements.size() >= MAX_STATEMENTS) {
+            normalized = OTHER;
+        }
+        return statements.computeIfAbsent(normalized, this::register);
+    }
+
+    // Records one execution started at start. sql is the text as run, explained on connection if it was slow.
+    void record(Entry entry, long start, long rows, boolean failed, String sql, Connection connection) {
+        long elapsed = System.nanoTime() - start;
+        entry.latency.record(elapsed);
+        if (rows > 0) {
+            entry.rows.add(rows);
+        }
+        if (failed) {
+            entry.errors.increment();
+            return;
+        }
+        long threshold = slowNanos;
+        if (threshold >= 0 && elapsed >= threshold) {
+            entry.slow.increment();
+            logSlow(entry, elapsed, rows, sql, connection);
+        }
+    }
+
+    private void logSlow(Entry entry, long elapsed, long rows, String sql, Connection connection) {
+        List<String> plan = entry.plan;
+        if (plan == null && sql != null && entry.sql != OTHER && EXPLAINABLE.matcher(entry.sql).lookingAt()) {
+            try {
+                plan = QueryPlanVerifier.queryPlan(connection, sql);
+            } catch (SQLException e) {
+                plan = List.of("EXPLAIN QUERY PLAN failed: " + e.getMessage());
+            }
+            entry.plan = plan;
+        }
+        LOG.atWarn().field("sql", entry.sql).field("millis", elapsed / 1_000_000).field("rows", rows)
+                .field("plan", plan == null ? "" : String.join("; ", plan)).log("Slow SQL statement");
+    }
+
+    private Entry register(String normalized) {
+        String[] labels = {"statement", normalized};
+        return new Entry(normalized,
+                registry.histogram("labinventory_sql_duration_seconds", "Time spent running SQL statements", labels),
+                registry.counter("labinventory_sql_rows_total", "Rows read or changed by SQL statements", labels),
+                registry.counter("labinventory_sql_errors_total", "SQL statements that failed", labels),
+                registry.counter("labinventory_sql_slow_total", "SQL statements over the slow threshold", labels));
+    }
+
+    private static boolean identifierBefore(StringBuilder out) {
+        if (out.length() == 0) {
+            return false;
+        }
+        char last = out.charAt(out.length() - 1);
+        // Digits after ? belong to a numbered parameter such as ?1, which is kept as written.
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$' || last == '?';
+    }
+
+    // Index just past the closing quote; a doubled quote inside the literal is an escaped one.
+    private static int skipQuoted(String sql, int open, char close) {
+        int i = open + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == close) {
+                if (close != ']' && i + 1 < sql.length() && sql.charAt(i + 1) == close) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return sql.length();
+    }
+
+    private static int skipNumber(String sql, int start) {
+        int i = start;
+        if (sql.startsWith("0x", i) || sql.startsWith("0X", i)) {
+            i += 2;
+            while (i < sql.length() && Character.digit(sql.charAt(i), 16) >= 0) {
+                i++;
+            }
+            return i;
+        }
+        while (i < sql.length() && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+            i++;
+        }
+        if (i < sql.length() && (sql.charAt(i) == 'e' || sql.charAt(i) == 'E')) {
+            int exponent = i + 1;
+            if (exponent < sql.length() && (sql.charAt(exponent) == '+' || sql.charAt(exponent) == '-')) {
+                exponent++;
+            }
+            if (exponent < sql.length() && Character.isDigit(sql.charAt(exponent))) {
+                i = exponent;
+                while (i < sql.length() && Character.isDigit(sql.charAt(i))) {
+                    i++;
+                }
+            }
+        }
+        return i;
+    }
+
+    private static long slowMillisFromSystemProperty() {
+        String value = System.getProperty(SLOW_MILLIS_PROPERTY);
+        if (value == null || value.isBlank()) {
+            return DEFAULT_SLOW_MILLIS;
+        }
+        return Long.parseLong(value.trim());
+    }
+
+    static final class Entry {
+        private final String sql;
+        private final LatencyHistogram latency;
+        private final Counter rows;
+        private final Counter errors;
+        private final Counter slow;
+        private volatile List<String> plan;
+
+        private Entry(String sql, LatencyHistogram latency, Counter rows, Counter errors, Counter slow) {
+            this.sql = sql;
+            this.latency = latency;
+            this.rows = rows;
+            this.errors = errors;
+            this.slow = slow;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.labinventory.database;
+
+import com.labinventory.metrics.HistogramSnapshot;
+
+import java.util.List;
+
+public record StatementStats(String sql, HistogramSnapshot latency, long rows, long errors, long slow,
+                             List<String> plan) {
+
+    public double totalMillis() {
+        return latency.sumNanos() / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementStats{" +
+                "sql='" + sql + '\'' +
+                ", calls=" + latency.count() +
+                ", totalMillis=" + String.format("%.1f", totalMillis()) +
+                ", p50Micros=" + String.format("%.1f", latency.percentileNanos(50) / 1_000.0) +
+                ", p99Micros=" + String.format("%.1f", latency.percentileNanos(99) / 1_000.0) +
+                ", rows=" + rows +
+                ", errors=" + errors +
+                ", slow=" + slow +
+                '}';
+    }
+}
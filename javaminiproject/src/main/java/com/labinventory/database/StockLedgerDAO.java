@@ -0,0 +1,269 @@
+package com.labinventory.database;
+
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.model.Equipment;
+import com.labinventory.model.StockMovement;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The stock_movements ledger. Writes join the caller's transaction, so a movement commits or rolls back together
+// with the quantity change it records. Movements are passed as one JSON array, so a batch is a single statement.
+// The ledger is append-only, and moved_at never goes backwards along id: a movement is stamped no earlier than the
+// one before it. Stock at a point in time is the latest snapshot taken by then plus the movements after it.
+public class StockLedgerDAO {
+    private static final Logger LOG = Log.getLogger(StockLedgerDAO.class);
+
+    private static final String LAST_MOVED_AT =
+            "IFNULL((SELECT moved_at FROM stock_movements WHERE id = (SELECT MAX(id) FROM stock_movements)), 0)";
+
+    static final String INSERT_ALL = "INSERT INTO stock_movements (equipment_id, delta, reason, order_id, moved_at) " +
+            "SELECT json_extract(value, '$[0]'), json_extract(value, '$[1]'), json_extract(value, '$[2]'), " +
+            "json_extract(value, '$[3]'), MAX(?, " + LAST_MOVED_AT + ") FROM json_each(?) RETURNING *";
+    // Records the move of each [id, quantity] pair from the stored quantity to the new one; run before the update.
+    static final String INSERT_CHANGES = "INSERT INTO stock_movements (equipment_id, delta, reason, order_id, moved_at) " +
+            "SELECT e.id, json_extract(t.value, '$[1]') - e.quantity, ?, NULL, MAX(?, " + LAST_MOVED_AT + ") " +
+            "FROM json_each(?) t JOIN equipments e ON e.id = json_extract(t.value, '$[0]') " +
+            "WHERE e.quantity <> json_extract(t.value, '$[1]') RETURNING *";
+    // Gives every item without any ledger entry its current stock as an opening balance, so the ledger always
+    // sums to the stored quantity.
+    static final String INSERT_OPENING_BALANCES = "INSERT INTO stock_movements (equipment_id, delta, reason, order_id, moved_at) " +
+            "SELECT e.id, e.quantity, 'OPENING', NULL, " +
+            "MAX(CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER), " + LAST_MOVED_AT + ") " +
+            "FROM equipments e WHERE e.quantity <> 0 " +
+            "AND NOT EXISTS (SELECT 1 FROM stock_movements m WHERE m.equipment_id = e.id)";
+    // The first parameter is the local time zone offset in milliseconds, so days start at local midnight.
+    static final String SELECT_DAILY_USAGE = "SELECT equipment_id, (moved_at + ?) / 86400000 AS day, -SUM(delta) " +
+            "FROM stock_movements WHERE reason = 'ADJUSTMENT' AND delta < 0 AND moved_at >= ? " +
+            "GROUP BY equipment_id, day ORDER BY equipment_id, day";
+    static final String SELECT_MOVEMENTS_BETWEEN = "SELECT * FROM stock_movements " +
+            "WHERE equipment_id = ? AND moved_at BETWEEN ? AND ? ORDER BY moved_at, id";
+
+    static final String SELECT_LAST_WATERMARK = "SELECT watermark FROM stock_snapshot_runs " +
+            "WHERE id = (SELECT MAX(id) FROM stock_snapshot_runs)";
+    static final String SELECT_LAST_MOVEMENT_ID = "SELECT IFNULL(MAX(id), 0) FROM stock_movements";
+    // ?1 is the previous run's watermark, ?2 this run's and ?3 the fewest movements worth a snapshot. Only items
+    // that moved since the previous run are looked at; each is summed from its own latest snapshot.
+    static final String INSERT_SNAPSHOTS = "INSERT INTO stock_snapshots (equipment_id, taken_at, movement_id, quantity) " +
+            "WITH heads AS (" + heads("SELECT DISTINCT equipment_id FROM stock_movements WHERE id > ?1 AND id <= ?2", "") + ") " +
+            "SELECT h.equipment_id, MAX(m.moved_at), MAX(m.id), IFNULL(h.quantity, 0) + SUM(m.delta) " +
+            "FROM heads h JOIN stock_movements m ON m.equipment_id = h.equipment_id " +
+            "AND m.moved_at >= IFNULL(h.taken_at, 0) AND m.id > IFNULL(h.movement_id, 0) AND m.id <= ?2 " +
+            "GROUP BY h.equipment_id HAVING COUNT(*) >= ?3";
+    static final String INSERT_SNAPSHOT_RUN = "INSERT INTO stock_snapshot_runs (watermark, ran_at, snapshots) VALUES (?, ?, ?)";
+    // ?1 is the point in time, ?2 the item.
+    static final String SELECT_LEVEL_AT = "SELECT ?2, IFNULL(s.quantity, 0) + IFNULL((SELECT SUM(m.delta) " +
+            "FROM stock_movements m WHERE m.equipment_id = ?2 AND m.moved_at BETWEEN IFNULL(s.taken_at, 0) AND ?1 " +
+            "AND m.id > IFNULL(s.movement_id, 0)), 0) " +
+            "FROM (SELECT 1) LEFT JOIN (SELECT taken_at, movement_id, quantity FROM stock_snapshots " +
+            "WHERE equipment_id = ?2 AND taken_at <= ?1 ORDER BY taken_at DESC, movement_id DESC LIMIT 1) s";
+    // Every item that existed at ?1: those still in the catalog and those removed since.
+    static final String SELECT_LEVELS_AT = levelsAt("SELECT id AS equipment_id FROM equipments " +
+            "UNION SELECT equipment_id FROM stock_movements WHERE reason = 'REMOVED' AND moved_at > ?1");
+
+    // Appends the movements, all stamped movedAt, and returns them as stored. Returns null if the insert failed.
+    public List<StockMovement> record(Collection<StockMovement> movements, Instant movedAt) {
+        List<StockMovement> recorded = new ArrayList<>();
+        if (movements.isEmpty()) {
+            return recorded;
+        }
+        StringBuilder json = new StringBuilder(movements.size() * 32).append('[');
+        for (StockMovement movement : movements) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('[').append(movement.equipmentId()).append(',').append(movement.delta())
+                    .append(",\"").append(movement.reason().name()).append("\",").append(movement.orderId()).append(']');
+        }
+        json.append(']');
+        try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(INSERT_ALL);
+            pstmt.setLong(1, movedAt.toEpochMilli());
+            pstmt.setString(2, json.toString());
+            return readMovements(pstmt, recorded);
+        } catch (SQLException e) {
+            LOG.error("Error recording stock movements", e);
+            return null;
+        }
+    }
+
+    // Appends a movement for every item whose stored quantity differs from its quantity in targets, and returns
+    // them. Must run before the items are written. Returns null if the insert failed.
+    public List<StockMovement> recordChanges(Collection<Equipment> targets, StockMovement.Reason reason, Instant movedAt) {
+        List<StockMovement> recorded = new ArrayList<>();
+        if (targets.isEmpty()) {
+            return recorded;
+        }
+        StringBuilder json = new StringBuilder(targets.size() * 16).append('[');
+        for (Equipment equipment : targets) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('[').append(equipment.getId()).append(',').append(equipment.getQuantity()).append(']');
+        }
+        json.append(']');
+        try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(INSERT_CHANGES);
+            pstmt.setString(1, reason.name());
+            pstmt.setLong(2, movedAt.toEpochMilli());
+            pstmt.setString(3, json.toString());
+            return readMovements(pstmt, recorded);
+        } catch (SQLException e) {
+            LOG.error("Error recording stock changes", e);
+            return null;
+        }
+    }
+
+    public int recordOpeningBalances() {
+        try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+            return conn.prepareCached(INSERT_OPENING_BALANCES).executeUpdate();
+        } catch (SQLException e) {
+            LOG.error("Error recording opening balances", e);
+            return -1;
+        }
+    }
+
+    // Stock of the item at the given time, or -1 if the query failed.
+    public int getQuantityAt(int equipmentId, Instant at) {
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(SELECT_LEVEL_AT);
+            pstmt.setLong(1, at.toEpochMilli());
+            pstmt.setInt(2, equipmentId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(2) : 0;
+            }
+        } catch (SQLException e) {
+            LOG.error("Error fetching stock level", e);
+            return -1;
+        }
+    }
+
+    // Stock of every item held at the given time, keyed by equipment id. Items with no stock are left out.
+    public Map<Integer, Integer> getQuantitiesAt(Instant at) {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(SELECT_LEVELS_AT);
+            pstmt.setLong(1, at.toEpochMilli());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getInt(2) != 0) {
+                        quantities.put(rs.getInt(1), rs.getInt(2));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error fetching stock levels", e);
+        }
+        return quantities;
+    }
+
+    // Movements of the item from from to to, both inclusive, oldest first.
+    public List<StockMovement> getMovementsBetween(int equipmentId, Instant from, Instant to) {
+        List<StockMovement> movements = new ArrayList<>();
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(SELECT_MOVEMENTS_BETWEEN);
+            pstmt.setInt(1, equipmentId);
+            pstmt.setLong(2, from.toEpochMilli());
+            pstmt.setLong(3, to.toEpochMilli());
+            return readMovements(pstmt, movements);
+        } catch (SQLException e) {
+            LOG.error("Error fetching stock movements", e);
+            return movements;
+        }
+    }
+
+    // Snapshots every item with at least minMovements movements since its last snapshot, looking only at items
+    // that moved since the previous run. Returns null if the run failed.
+    public SnapshotRun takeSnapshots(int minMovements) {
+        long start = System.nanoTime();
+        try {
+            return DatabaseManager.inTransaction(() -> {
+                try (PooledConnection conn = DatabaseManager.getWriteConnection()) {
+                    long previous = queryLong(conn, SELECT_LAST_WATERMARK);
+                    long watermark = queryLong(conn, SELECT_LAST_MOVEMENT_ID);
+                    if (watermark <= previous) {
+                        return new SnapshotRun(previous, 0, 0, (System.nanoTime() - start) / 1_000_000);
+                    }
+                    PreparedStatement pstmt = conn.prepareCached(INSERT_SNAPSHOTS);
+                    pstmt.setLong(1, previous);
+                    pstmt.setLong(2, watermark);
+                    pstmt.setInt(3, minMovements);
+                    int snapshots = pstmt.executeUpdate();
+
+                    PreparedStatement run = conn.prepareCached(INSERT_SNAPSHOT_RUN);
+                    run.setLong(1, watermark);
+                    run.setLong(2, System.currentTimeMillis());
+                    run.setInt(3, snapshots);
+                    run.executeUpdate();
+                    return new SnapshotRun(watermark, watermark - previous, snapshots,
+                            (System.nanoTime() - start) / 1_000_000);
+                }
+            });
+        } catch (SQLException e) {
+            LOG.error("Error taking stock snapshots", e);
+            return null;
+        }
+    }
+
+    // Usage per item and local day from since onwards, ordered by item and day.
+    public List<DailyUsage> getDailyUsageSince(Instant since, int zoneOffsetSeconds) {
+        List<DailyUsage> usage = new ArrayList<>();
+        try (PooledConnection conn = DatabaseManager.getReadConnection()) {
+            PreparedStatement pstmt = conn.prepareCached(SELECT_DAILY_USAGE);
+            pstmt.setLong(1, zoneOffsetSeconds * 1000L);
+            pstmt.setLong(2, since.toEpochMilli());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    usage.add(new DailyUsage(rs.getInt(1), rs.getLong(2), rs.getInt(3)));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error fetching daily usage", e);
+        }
+        return usage;
+    }
+
+    private long queryLong(PooledConnection conn, String sql) throws SQLException {
+        try (ResultSet rs = conn.prepareCached(sql).executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    // Each item with its latest snapshot (taken_at, movement_id, quantity), all null when it has none.
+    private static String heads(String items, String before) {
+        return "SELECT i.equipment_id, s.taken_at, s.movement_id, s.quantity FROM (" + items + ") i " +
+                "LEFT JOIN stock_snapshots s ON s.equipment_id = i.equipment_id AND (s.taken_at, s.movement_id) = " +
+                "(SELECT x.taken_at, x.movement_id FROM stock_snapshots x WHERE x.equipment_id = i.equipment_id" +
+                before + " ORDER BY x.taken_at DESC, x.movement_id DESC LIMIT 1)";
+    }
+
+    private static String levelsAt(String items) {
+        return "WITH heads AS (" + heads(items, " AND x.taken_at <= ?1") + ") " +
+                "SELECT h.equipment_id, IFNULL(h.quantity, 0) + IFNULL((SELECT SUM(m.delta) FROM stock_movements m " +
+                "WHERE m.equipment_id = h.equipment_id AND m.moved_at BETWEEN IFNULL(h.taken_at, 0) AND ?1 " +
+                "AND m.id > IFNULL(h.movement_id, 0)), 0) FROM heads h";
+    }
+
+    private List<StockMovement> readMovements(PreparedStatement pstmt, List<StockMovement> movements) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                movements.add(extractMovementFromResultSet(rs));
+            }
+        }
+        return movements;
+    }
+
+    private StockMovement extractMovementFromResultSet(ResultSet rs) throws SQLException {
+        int orderId = rs.getInt("order_id");
+        Integer order = rs.wasNull() ? null : orderId;
+        return new StockMovement(rs.getLong("id"), rs.getInt("equipment_id"), rs.getInt("delta"),
+                StockMovement.Reason.valueOf(rs.getString("reason")), order,
+                Instant.ofEpochMilli(rs.getLong("moved_at")));
+    }
+}
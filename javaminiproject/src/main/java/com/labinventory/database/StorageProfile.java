@@ -0,0 +1,77 @@
+package com.labinventory.database;
+
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.SynchronousMode;
+import org.sqlite.SQLiteConfig.TempStore;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public record StorageProfile(String name,
+                             JournalMode journalMode,
+                             SynchronousMode synchronous,
+                             int cacheSizeKib,
+                             long mmapSizeBytes,
+                             TempStore tempStore,
+                             int busyTimeoutMillis,
+                             int walAutoCheckpointPages,
+                             int journalSizeLimitBytes) {
+
+    public static final String PROFILE_PROPERTY = "labinventory.storage.profile";
+
+    public static final StorageProfile THROUGHPUT = new StorageProfile(
+            "throughput", JournalMode.WAL, SynchronousMode.NORMAL,
+            64 * 1024, 256L * 1024 * 1024, TempStore.MEMORY, 5_000, 1_000, 64 * 1024 * 1024);
+
+    public static final StorageProfile DURABLE = new StorageProfile(
+            "durable", JournalMode.WAL, SynchronousMode.FULL,
+            16 * 1024, 0L, TempStore.DEFAULT, 10_000, 500, 16 * 1024 * 1024);
+
+    public static StorageProfile fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return THROUGHPUT;
+        }
+        return switch (name.trim().toLowerCase()) {
+            case "throughput" -> THROUGHPUT;
+            case "durable" -> DURABLE;
+            default -> throw new IllegalArgumentException("Unknown storage profile: " + name);
+        };
+    }
+
+    public static StorageProfile fromSystemProperty() {
+        return fromName(System.getProperty(PROFILE_PROPERTY));
+    }
+
+    public SQLiteConfig toConfig(boolean writer) {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setBusyTimeout(busyTimeoutMillis);
+        config.setSynchronous(synchronous);
+        config.setCacheSize(-cacheSizeKib);
+        config.setTempStore(tempStore);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapSizeBytes));
+        if (writer) {
+            config.setJournalMode(journalMode);
+            config.setJounalSizeLimit(journalSizeLimitBytes);
+        } else {
+            config.setReadOnly(true);
+        }
+        return config;
+    }
+
+    public void applyAfterOpen(Connection conn, boolean writer) throws SQLException {
+        if (writer && journalMode == JournalMode.WAL) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA wal_autocheckpoint = " + walAutoCheckpointPages);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + " (journal_mode=" + journalMode + ", synchronous=" + synchronous +
+                ", cache=" + cacheSizeKib + "KiB, mmap=" + mmapSizeBytes / (1024 * 1024) + "MiB" +
+                ", temp_store=" + tempStore + ", busy_timeout=" + busyTimeoutMillis + "ms)";
+    }
+}
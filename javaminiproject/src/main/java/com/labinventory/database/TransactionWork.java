@@ -0,0 +1,8 @@
+package com.labinventory.database;
+
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface TransactionWork<T> {
+    T execute() throws SQLException;
+}
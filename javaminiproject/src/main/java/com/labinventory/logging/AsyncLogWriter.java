@@ -0,0 +1,227 @@
+package com.labinventory.logging;
+
+import com.labinventory.metrics.Counter;
+
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Bounded ring of preallocated records between the logging threads and one writer thread. A logging thread claims
+// a slot with a CAS, copies its event in and publishes it by setting the slot's sequence; it never waits for the
+// console. When the ring is full the record is dropped and counted, and the writer reports the drops. DEBUG and
+// INFO go to standard output, WARN and ERROR to standard error, each flushed once the ring is drained.
+final class AsyncLogWriter implements Runnable {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+
+    private final LogEvent[] ring;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private final Counter dropped;
+    private final ThreadLocal<LogEvent> events = ThreadLocal.withInitial(() -> new LogEvent(this));
+    private final PrintWriter out;
+    private final PrintWriter err;
+    private final StringBuilder line = new StringBuilder(256);
+    private final LogEvent notice = new LogEvent(this);
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean sleeping;
+    private boolean dirty;
+    private long reportedDrops;
+
+    AsyncLogWriter(int capacity, Counter dropped, PrintStream out, PrintStream err) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.ring = new LogEvent[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new LogEvent(this);
+        }
+        this.mask = size - 1;
+        this.dropped = dropped;
+        this.out = new PrintWriter(new OutputStreamWriter(out, Charset.defaultCharset()), false);
+        this.err = new PrintWriter(new OutputStreamWriter(err, Charset.defaultCharset()), false);
+        this.thread = new Thread(this, "log-writer");
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "log-shutdown"));
+    }
+
+    // The calling thread's event, or a fresh one if that event is still being built further up the stack.
+    LogEvent event(LogLevel level, String logger) {
+        LogEvent event = events.get();
+        if (event.inUse) {
+            event = new LogEvent(this);
+        }
+        return event.start(level, logger);
+    }
+
+    void publish(LogEvent event) {
+        if (!running) {
+            writeNow(event);
+            return;
+        }
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= ring.length) {
+                dropped.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        LogEvent slot = ring[(int) sequence & mask];
+        slot.copyFrom(event);
+        slot.sequence = sequence;
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    // Waits until everything logged before the call has been written and flushed, or the timeout passes.
+    void flush(long timeoutMillis) {
+        long target = claimed.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (flushed.get() < target && thread.isAlive() && System.nanoTime() < deadline) {
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            long next = consumed.get();
+            LogEvent slot = ring[(int) next & mask];
+            if (slot.sequence == next) {
+                write(slot);
+                slot.clear();
+                consumed.set(next + 1);
+                continue;
+            }
+
+            finishBatch(next);
+            if (!running && claimed.get() == next) {
+                return;
+            }
+            sleeping = true;
+            if (slot.sequence != next) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            sleeping = false;
+        }
+    }
+
+    void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void finishBatch(long written) {
+        long drops = dropped.get();
+        if (drops > reportedDrops) {
+            notice.start(LogLevel.WARN, "Log");
+            notice.field("dropped", drops - reportedDrops);
+            notice.message = "Log buffer full, records dropped";
+            notice.thread = thread.getName();
+            notice.timeMillis = System.currentTimeMillis();
+            write(notice);
+            notice.clear();
+            reportedDrops = drops;
+        }
+        if (dirty) {
+            synchronized (this) {
+                out.flush();
+                err.flush();
+            }
+            dirty = false;
+        }
+        flushed.set(written);
+    }
+
+    // Used once the writer thread has stopped, so records logged during shutdown are not lost.
+    private synchronized void writeNow(LogEvent event) {
+        write(event);
+        out.flush();
+        err.flush();
+    }
+
+    private synchronized void write(LogEvent event) {
+        PrintWriter target = event.level.compareTo(LogLevel.WARN) >= 0 ? err : out;
+        try {
+            line.setLength(0);
+            TIME.formatTo(Instant.ofEpochMilli(event.timeMillis), line);
+            line.append(' ').append(event.level.name());
+            for (int pad = event.level.name().length(); pad < 5; pad++) {
+                line.append(' ');
+            }
+            line.append(" [").append(event.thread).append("] ").append(event.logger).append(" - ")
+                    .append(event.message);
+            for (int i = 0; i < event.fieldCount; i++) {
+                line.append(' ').append(event.keys[i]).append('=');
+                if (event.numeric[i]) {
+                    line.append(event.numbers[i]);
+                } else {
+                    appendValue(String.valueOf(event.values[i]));
+                }
+            }
+            if (event.cause != null) {
+                String message = event.cause.getMessage();
+                line.append(" error=");
+                appendValue(message != null ? message : event.cause.getClass().getName());
+            }
+        } catch (RuntimeException e) {
+            line.append(" (log record could not be formatted: ").append(e).append(')');
+        }
+        target.append(line).println();
+        if (event.cause != null && event.level == LogLevel.ERROR) {
+            event.cause.printStackTrace(target);
+        }
+        dirty = true;
+    }
+
+    // Values with spaces, quotes or equals signs are quoted so each line still splits into key=value pairs.
+    private void appendValue(String value) {
+        boolean quote = value.isEmpty();
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c <= ' ' || c == '"' || c == '=' || c == '\\';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"', '\\' -> line.append('\\').append(c);
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> line.append(c);
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,68 @@
+package com.labinventory.logging;
+
+import com.labinventory.metrics.MetricsRegistry;
+
+// Entry point of the logging facade. Records are written asynchronously by one background thread; set the level
+// with -Dlabinventory.log.level (debug, info, warn or error, default info) and the ring size with
+// -Dlabinventory.log.bufferSize (default 8192 records).
+public final class Log {
+    public static final String LEVEL_PROPERTY = "labinventory.log.level";
+    public static final String BUFFER_SIZE_PROPERTY = "labinventory.log.bufferSize";
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    public static final long FLUSH_TIMEOUT_MILLIS = 2_000;
+
+    private static volatile LogLevel level = LogLevel.INFO;
+    private static final AsyncLogWriter WRITER = new AsyncLogWriter(bufferSizeFromSystemProperty(),
+            MetricsRegistry.getDefault().counter("labinventory_log_records_dropped_total",
+                    "Log records dropped because the log buffer was full"),
+            System.out, System.err);
+
+    static {
+        WRITER.start();
+        try {
+            level = LogLevel.fromName(System.getProperty(LEVEL_PROPERTY));
+        } catch (IllegalArgumentException e) {
+            getLogger(Log.class).warn("Ignoring -D" + LEVEL_PROPERTY + ", logging at INFO", e);
+        }
+    }
+
+    private Log() {
+    }
+
+    public static Logger getLogger(Class<?> type) {
+        return getLogger(type.getSimpleName());
+    }
+
+    public static Logger getLogger(String name) {
+        return new Logger(name, WRITER);
+    }
+
+    public static LogLevel getLevel() {
+        return level;
+    }
+
+    public static void setLevel(LogLevel newLevel) {
+        level = newLevel;
+    }
+
+    public static boolean isEnabled(LogLevel candidate) {
+        return candidate.compareTo(level) >= 0;
+    }
+
+    // Blocks until everything logged so far is on the console, for a command-line tool about to exit.
+    public static void flush() {
+        WRITER.flush(FLUSH_TIMEOUT_MILLIS);
+    }
+
+    public static long getDroppedCount() {
+        return WRITER.getDropped();
+    }
+
+    private static int bufferSizeFromSystemProperty() {
+        String value = System.getProperty(BUFFER_SIZE_PROPERTY);
+        if (value == null || value.isBlank()) {
+            return DEFAULT_BUFFER_SIZE;
+        }
+        return Integer.parseInt(value.trim());
+    }
+}
@@ -0,0 +1,102 @@
+package com.labinventory.logging;
+
+// One log record, built with field and cause and handed to the writer by log. Each thread reuses its own event, and
+// the writer copies it into a preallocated ring slot, so logging a message with numeric fields allocates nothing.
+// Objects passed to field are turned into text later on the writer thread, so they should not change afterwards.
+public final class LogEvent {
+    public static final int MAX_FIELDS = 8;
+
+    static final LogEvent DISABLED = new LogEvent(null);
+
+    private final AsyncLogWriter writer;
+    final String[] keys = new String[MAX_FIELDS];
+    final Object[] values = new Object[MAX_FIELDS];
+    final long[] numbers = new long[MAX_FIELDS];
+    final boolean[] numeric = new boolean[MAX_FIELDS];
+    int fieldCount;
+    LogLevel level;
+    String logger;
+    String thread;
+    String message;
+    Throwable cause;
+    long timeMillis;
+    boolean inUse;
+    // Sequence of the record held by a ring slot, written last so the writer only reads a complete record.
+    volatile long sequence = -1;
+
+    LogEvent(AsyncLogWriter writer) {
+        this.writer = writer;
+    }
+
+    LogEvent start(LogLevel level, String logger) {
+        this.level = level;
+        this.logger = logger;
+        this.fieldCount = 0;
+        this.cause = null;
+        this.inUse = true;
+        return this;
+    }
+
+    public LogEvent field(String key, long value) {
+        if (writer != null && fieldCount < MAX_FIELDS) {
+            keys[fieldCount] = key;
+            numbers[fieldCount] = value;
+            numeric[fieldCount++] = true;
+        }
+        return this;
+    }
+
+    public LogEvent field(String key, Object value) {
+        if (writer != null && fieldCount < MAX_FIELDS) {
+            keys[fieldCount] = key;
+            values[fieldCount] = value;
+            numeric[fieldCount++] = false;
+        }
+        return this;
+    }
+
+    // The exception's message is logged as the error field, and at ERROR level its stack trace follows the line.
+    public LogEvent cause(Throwable cause) {
+        if (writer != null) {
+            this.cause = cause;
+        }
+        return this;
+    }
+
+    public void log(String message) {
+        if (writer == null) {
+            return;
+        }
+        this.message = message;
+        this.thread = Thread.currentThread().getName();
+        this.timeMillis = System.currentTimeMillis();
+        writer.publish(this);
+        clear();
+    }
+
+    void copyFrom(LogEvent event) {
+        level = event.level;
+        logger = event.logger;
+        thread = event.thread;
+        message = event.message;
+        cause = event.cause;
+        timeMillis = event.timeMillis;
+        fieldCount = event.fieldCount;
+        System.arraycopy(event.keys, 0, keys, 0, fieldCount);
+        System.arraycopy(event.values, 0, values, 0, fieldCount);
+        System.arraycopy(event.numbers, 0, numbers, 0, fieldCount);
+        System.arraycopy(event.numeric, 0, numeric, 0, fieldCount);
+    }
+
+    // Drops references so a reused event or slot does not keep messages and exceptions alive.
+    void clear() {
+        for (int i = 0; i < fieldCount; i++) {
+            keys[i] = null;
+            values[i] = null;
+        }
+        fieldCount = 0;
+        message = null;
+        cause = null;
+        inUse = false;
+    }
+}
@@ -0,0 +1,21 @@
+package com.labinventory.logging;
+
+public enum LogLevel {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR;
+
+    public static LogLevel fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return INFO;
+        }
+        return switch (name.trim().toLowerCase()) {
+            case "debug" -> DEBUG;
+            case "info" -> INFO;
+            case "warn", "warning" -> WARN;
+            case "error" -> ERROR;
+            default -> throw new IllegalArgumentException("Unknown log level: " + name);
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package com.labinventory.metrics;
+
+public record HistogramSnapshot(long count, long sumNanos, long maxNanos, long[] buckets) {
+
+    public double meanNanos() {
+        return count == 0 ? 0.0 : (double) sumNanos / count;
+    }
+
+    // The smallest bucket bound with at least the given percentage of recordings at or below it.
+    public long percentileNanos(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.upperBound(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramSnapshot{" +
+                "count=" + count +
+                ", meanMicros=" + String.format("%.1f", meanNanos() / 1_000) +
+                ", p50Micros=" + String.format("%.1f", percentileNanos(50) / 1_000.0) +
+                ", p99Micros=" + String.format("%.1f", percentileNanos(99) / 1_000.0) +
+                ", maxMicros=" + String.format("%.1f", maxNanos / 1_000.0) +
+                '}';
+    }
+}
@@ -0,0 +1,185 @@
+package com.labinventory.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+
+// Counters, latency histograms and gauges for the whole process, exported in the Prometheus text format. A metric
+// is identified by its name and labels and created on first use; asking again returns the same instance, so
+// callers keep it in a field and recording never touches the registry.
+public class MetricsRegistry {
+    public static final String FILE_PROPERTY = "labinventory.metrics.file";
+    public static final String PORT_PROPERTY = "labinventory.metrics.port";
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    // Keyed by name{labels}, so each name's metrics sort next to each other for export.
+    private final ConcurrentSkipListMap<String, Registered> metrics = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    // Labels are given as name, value pairs.
+    public Counter counter(String name, String help, String... labels) {
+        return register(name, help, labels, new Counter(), Counter.class);
+    }
+
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return register(name, help, labels, new LatencyHistogram(), LatencyHistogram.class);
+    }
+
+    // The value is read at export time. A gauge that throws is exported as NaN.
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        register(name, help, labels, value, DoubleSupplier.class);
+    }
+
+    public OperationMetrics operations(String component) {
+        return operations.computeIfAbsent(component, c -> new OperationMetrics(this, c));
+    }
+
+    // Every operation recorded so far, the most total time first.
+    public List<OperationSnapshot> getOperationSnapshots() {
+        List<OperationSnapshot> snapshots = new ArrayList<>();
+        for (OperationMetrics component : operations.values()) {
+            snapshots.addAll(component.snapshot());
+        }
+        snapshots.sort(Comparator.comparingLong((OperationSnapshot s) -> s.latency().sumNanos()).reversed());
+        return snapshots;
+    }
+
+    public String toPrometheusText() {
+        StringBuilder out = new StringBuilder(16_384);
+        String family = null;
+        for (Map.Entry<String, Registered> entry : metrics.entrySet()) {
+            Registered metric = entry.getValue();
+            if (!metric.name().equals(family)) {
+                family = metric.name();
+                out.append("# HELP ").append(family).append(' ').append(metric.help()).append('\n');
+                out.append("# TYPE ").append(family).append(' ').append(type(metric.metric())).append('\n');
+            }
+            appendSamples(out, metric);
+        }
+        return out.toString();
+    }
+
+    public void writePrometheus(Writer writer) throws IOException {
+        writer.write(toPrometheusText());
+    }
+
+    // Writes the current values to the file, replacing it in one step so a reader never sees half an export.
+    public void exportTo(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(temp, toPrometheusText(), StandardCharsets.UTF_8);
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Exports to the file given by -Dlabinventory.metrics.file and returns it, or returns null if it is not set.
+    public Path exportToConfiguredFile() throws IOException {
+        String file = System.getProperty(FILE_PROPERTY);
+        if (file == null || file.isBlank()) {
+            return null;
+        }
+        Path path = Path.of(file.trim());
+        exportTo(path);
+        return path;
+    }
+
+    private <T> T register(String name, String help, String[] labels, T metric, Class<T> type) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name, value pairs: " + String.join(", ", labels));
+        }
+        String formatted = formatLabels(labels);
+        Registered registered = metrics.computeIfAbsent(name + "{" + formatted + "}",
+                key -> new Registered(name, formatted, help, metric));
+        if (!type.isInstance(registered.metric())) {
+            throw new IllegalArgumentException("Metric " + name + "{" + formatted + "} is already registered as a " +
+                    type(registered.metric()));
+        }
+        return type.cast(registered.metric());
+    }
+
+    private static void appendSamples(StringBuilder out, Registered metric) {
+        if (metric.metric() instanceof Counter counter) {
+            sample(out, metric.name(), metric.labels(), null, counter.get());
+        } else if (metric.metric() instanceof DoubleSupplier gauge) {
+            double value;
+            try {
+                value = gauge.getAsDouble();
+            } catch (RuntimeException e) {
+                value = Double.NaN;
+            }
+            sample(out, metric.name(), metric.labels(), null, value);
+        } else if (metric.metric() instanceof LatencyHistogram histogram) {
+            HistogramSnapshot snapshot = histogram.snapshot();
+            for (double quantile : QUANTILES) {
+                sample(out, metric.name(), metric.labels(), "quantile=\"" + quantile + "\"",
+                        snapshot.percentileNanos(quantile * 100) / 1e9);
+            }
+            sample(out, metric.name() + "_sum", metric.labels(), null, snapshot.sumNanos() / 1e9);
+            sample(out, metric.name() + "_count", metric.labels(), null, snapshot.count());
+        }
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, String extra, double value) {
+        out.append(name);
+        if (!labels.isEmpty() || extra != null) {
+            out.append('{').append(labels);
+            if (extra != null) {
+                out.append(labels.isEmpty() ? "" : ",").append(extra);
+            }
+            out.append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else if (Double.isNaN(value)) {
+            out.append("NaN");
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String formatLabels(String[] labels) {
+        StringBuilder formatted = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                formatted.append(',');
+            }
+            formatted.append(labels[i]).append("=\"")
+                    .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return formatted.toString();
+    }
+
+    private static String type(Object metric) {
+        if (metric instanceof Counter) {
+            return "counter";
+        }
+        return metric instanceof LatencyHistogram ? "summary" : "gauge";
+    }
+
+    private record Registered(String name, String labels, String help, Object metric) {
+    }
+}
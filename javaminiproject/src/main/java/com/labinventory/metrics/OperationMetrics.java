@@ -0,0 +1,48 @@
+package com.labinventory.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Latency, rows and errors for each operation of one component, such as a DAO or the inventory service.
+public class OperationMetrics {
+    static final String DURATION = "labinventory_operation_duration_seconds";
+    static final String ROWS = "labinventory_operation_rows_total";
+    static final String ERRORS = "labinventory_operation_errors_total";
+
+    private final MetricsRegistry registry;
+    private final String component;
+    private final ConcurrentMap<String, Operation> operations = new ConcurrentHashMap<>();
+
+    OperationMetrics(MetricsRegistry registry, String component) {
+        this.registry = registry;
+        this.component = component;
+    }
+
+    public OperationTimer start(String operation) {
+        return new OperationTimer(operations.computeIfAbsent(operation, this::register), System.nanoTime());
+    }
+
+    public String getComponent() {
+        return component;
+    }
+
+    public List<OperationSnapshot> snapshot() {
+        List<OperationSnapshot> snapshots = new ArrayList<>(operations.size());
+        operations.forEach((name, operation) -> snapshots.add(new OperationSnapshot(component, name,
+                operation.latency().snapshot(), operation.rows().get(), operation.errors().get())));
+        return snapshots;
+    }
+
+    private Operation register(String operation) {
+        String[] labels = {"component", component, "operation", operation};
+        return new Operation(operation,
+                registry.histogram(DURATION, "Time spent in DAO and service operations", labels),
+                registry.counter(ROWS, "Rows returned or written by DAO and service operations", labels),
+                registry.counter(ERRORS, "DAO and service operations that failed", labels));
+    }
+
+    record Operation(String name, LatencyHistogram latency, Counter rows, Counter errors) {
+    }
+}
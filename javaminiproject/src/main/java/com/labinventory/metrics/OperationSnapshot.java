@@ -0,0 +1,21 @@
+package com.labinventory.metrics;
+
+public record OperationSnapshot(String component, String operation, HistogramSnapshot latency, long rows,
+                                long errors) {
+
+    public double totalMillis() {
+        return latency.sumNanos() / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return component + "." + operation + "{" +
+                "calls=" + latency.count() +
+                ", totalMillis=" + String.format("%.1f", totalMillis()) +
+                ", p50Micros=" + String.format("%.1f", latency.percentileNanos(50) / 1_000.0) +
+                ", p99Micros=" + String.format("%.1f", latency.percentileNanos(99) / 1_000.0) +
+                ", rows=" + rows +
+                ", errors=" + errors +
+                '}';
+    }
+}
@@ -0,0 +1,73 @@
+package com.labinventory.metrics;
+
+import java.util.Collection;
+import java.util.Map;
+
+// Times one call of an operation. The call is recorded by whichever of rows, rowCount, row, changed, done or failed
+// is called first; each returns its argument so it can wrap a return value.
+public class OperationTimer {
+    private final OperationMetrics.Operation operation;
+    private final long start;
+    private boolean finished;
+
+    OperationTimer(OperationMetrics.Operation operation, long start) {
+        this.operation = operation;
+        this.start = start;
+    }
+
+    public <T extends Collection<?>> T rows(T rows) {
+        finish(rows == null ? 0 : rows.size(), false);
+        return rows;
+    }
+
+    public <K, V> Map<K, V> rows(Map<K, V> rows) {
+        finish(rows == null ? 0 : rows.size(), false);
+        return rows;
+    }
+
+    public int rowCount(int count) {
+        finish(Math.max(count, 0), false);
+        return count;
+    }
+
+    // A single result, counted as one row unless it is null.
+    public <T> T row(T row) {
+        finish(row == null ? 0 : 1, false);
+        return row;
+    }
+
+    public boolean changed(boolean changed) {
+        finish(changed ? 1 : 0, false);
+        return changed;
+    }
+
+    public void done() {
+        finish(0, false);
+    }
+
+    public void failed() {
+        finish(0, true);
+    }
+
+    public String getOperation() {
+        return operation.name();
+    }
+
+    public long elapsedMillis() {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private void finish(long rows, boolean failed) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        operation.latency().recordSince(start);
+        if (rows > 0) {
+            operation.rows().add(rows);
+        }
+        if (failed) {
+            operation.errors().increment();
+        }
+    }
+}
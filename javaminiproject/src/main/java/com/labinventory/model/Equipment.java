@@ -30,6 +30,11 @@ public class Equipment {
         this.dateAdded = dateAdded;
     }
 
+    public Equipment(Equipment other) {
+        this(other.id, other.name, other.category, other.quantity, other.lowerLimit,
+                other.unitPrice, other.expiryDate, other.location, other.supplier, other.dateAdded);
+    }
+
     public int getId() {
         return id;
     }
@@ -114,12 +119,12 @@ public class Equipment {
         return quantity <= lowerLimit;
     }
 
-    public boolean isNearExpiry() {
+    // True if the item expires on or before cutoff, the last day covered by the expiry alert horizon.
+    public boolean isNearExpiry(LocalDate cutoff) {
         if (expiryDate == null) {
             return false;
         }
-        LocalDate fifteenDaysFromNow = LocalDate.now().plusDays(15);
-        return expiryDate.isBefore(fifteenDaysFromNow) || expiryDate.isEqual(fifteenDaysFromNow);
+        return !expiryDate.isAfter(cutoff);
     }
 
     public int getDaysUntilExpiry() {
@@ -0,0 +1,41 @@
+package com.labinventory.model;
+
+public enum EquipmentSort {
+    ID("Default"),
+    NAME_ASC("Name (A-Z)"),
+    NAME_DESC("Name (Z-A)"),
+    CATEGORY("Category"),
+    QUANTITY_ASC("Quantity (Low-High)"),
+    QUANTITY_DESC("Quantity (High-Low)"),
+    PRICE_ASC("Price (Low-High)"),
+    PRICE_DESC("Price (High-Low)"),
+    EXPIRY_DATE("Expiry Date");
+
+    private final String label;
+
+    EquipmentSort(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isDescending() {
+        return this == NAME_DESC || this == QUANTITY_DESC || this == PRICE_DESC;
+    }
+
+    public static EquipmentSort fromLabel(String label) {
+        for (EquipmentSort sort : values()) {
+            if (sort.label.equals(label)) {
+                return sort;
+            }
+        }
+        return ID;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,24 @@
+package com.labinventory.model;
+
+import java.time.Instant;
+
+// One entry of the stock ledger: quantity of an equipment item changed by delta at movedAt. orderId is set for
+// deliveries and null otherwise.
+public record StockMovement(long id, int equipmentId, int delta, Reason reason, Integer orderId, Instant movedAt) {
+
+    public enum Reason {
+        OPENING,     // Stock already on hand when the item entered the ledger
+        RECEIVED,    // Opening stock of an item added through the application
+        ADJUSTMENT,  // Quantity edited by hand; a negative delta is usage
+        DELIVERY,    // Order delivered
+        REMOVED      // Item deleted
+    }
+
+    public static StockMovement of(int equipmentId, int delta, Reason reason, Integer orderId) {
+        return new StockMovement(0, equipmentId, delta, reason, orderId, null);
+    }
+
+    public boolean isUsage() {
+        return reason == Reason.ADJUSTMENT && delta < 0;
+    }
+}
@@ -0,0 +1,354 @@
+package com.labinventory.service;
+
+import com.labinventory.model.Equipment;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Keeps the low-stock and near-expiry alert sets in memory, so the current alerts never need a query.
+// Items expiring beyond the horizon wait in a min-heap ordered by expiry date. A scheduler wakes up on the day the
+// earliest of them comes within the horizon and moves every item now due into the alert set, raising an alert
+// for each. The engine is seeded from the equipment catalog and kept current from committed changes.
+public class AlertEngine {
+    public static final String EXPIRY_HORIZON_PROPERTY = "labinventory.alerts.expiryHorizonDays";
+    public static final int DEFAULT_EXPIRY_HORIZON_DAYS = 15;
+
+    private static final Comparator<Equipment> EXPIRY_ORDER =
+            Comparator.comparing(Equipment::getExpiryDate).thenComparingInt(Equipment::getId);
+    private static final Comparator<Equipment> LOW_STOCK_ORDER =
+            Comparator.comparingInt(Equipment::getQuantity).thenComparingInt(Equipment::getId);
+
+    private final Supplier<List<Equipment>> source;
+    private final Consumer<InventoryAlert> listener;
+    private final Clock clock;
+    private int horizonDays;
+
+    private boolean seeded = false;
+    private LocalDate today;
+    // tracked holds the current copy of every item. Heap entries that are no longer that copy are stale and
+    // skipped when they reach the top, which keeps updates O(log n) without searching the heap.
+    private final Map<Integer, Equipment> tracked = new HashMap<>();
+    private final PriorityQueue<Equipment> upcoming = new PriorityQueue<>(EXPIRY_ORDER);
+    private final TreeSet<Equipment> expiring = new TreeSet<>(EXPIRY_ORDER);
+    private final TreeSet<Equipment> lowStock = new TreeSet<>(LOW_STOCK_ORDER);
+    private int staleEntries;
+
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> wakeUp;
+    private LocalDate wakeUpDate;
+    private long alertsRaised;
+
+    public AlertEngine(Supplier<List<Equipment>> source, Consumer<InventoryAlert> listener) {
+        this(source, listener, horizonFromSystemProperty(), Clock.systemDefaultZone());
+    }
+
+    public AlertEngine(Supplier<List<Equipment>> source, Consumer<InventoryAlert> listener, int horizonDays,
+                       Clock clock) {
+        this.source = source;
+        this.listener = listener;
+        this.horizonDays = horizonDays;
+        this.clock = clock;
+    }
+
+    public synchronized List<Equipment> getLowStockAlerts() {
+        ensureCurrent();
+        return copies(lowStock);
+    }
+
+    public synchronized List<Equipment> getExpiryAlerts() {
+        ensureCurrent();
+        return copies(expiring);
+    }
+
+    public synchronized int getLowStockCount() {
+        ensureCurrent();
+        return lowStock.size();
+    }
+
+    public synchronized int getExpiryAlertCount() {
+        ensureCurrent();
+        return expiring.size();
+    }
+
+    public synchronized LocalDate getToday() {
+        ensureCurrent();
+        return today;
+    }
+
+    // The last expiry date that is inside the horizon today.
+    public synchronized LocalDate getExpiryCutoff() {
+        ensureCurrent();
+        return today.plusDays(horizonDays);
+    }
+
+    public synchronized int getExpiryHorizonDays() {
+        return horizonDays;
+    }
+
+    public synchronized long getAlertsRaised() {
+        return alertsRaised;
+    }
+
+    public void setExpiryHorizonDays(int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Expiry horizon must not be negative: " + days);
+        }
+        List<InventoryAlert> raised = new ArrayList<>();
+        synchronized (this) {
+            horizonDays = days;
+            if (seeded) {
+                Set<Integer> wasExpiring = new HashSet<>();
+                for (Equipment equipment : expiring) {
+                    wasExpiring.add(equipment.getId());
+                }
+                rebuild(new ArrayList<>(tracked.values()), null);
+                for (Equipment equipment : expiring) {
+                    if (!wasExpiring.contains(equipment.getId())) {
+                        raised.add(new InventoryAlert(InventoryAlert.Type.NEAR_EXPIRY, new Equipment(equipment), today));
+                    }
+                }
+            }
+        }
+        raise(raised);
+    }
+
+    public void apply(InventoryEvent event) {
+        List<InventoryAlert> raised = new ArrayList<>();
+        synchronized (this) {
+            if (!seeded) {
+                return;
+            }
+            if (event instanceof InventoryEvent.EquipmentAdded added) {
+                put(new Equipment(added.equipment()), raised);
+            } else if (event instanceof InventoryEvent.EquipmentUpdated updated) {
+                put(new Equipment(updated.after()), raised);
+            } else if (event instanceof InventoryEvent.EquipmentDeleted deleted) {
+                remove(deleted.id());
+            } else {
+                return;
+            }
+            scheduleWakeUp();
+        }
+        raise(raised);
+    }
+
+    public synchronized void invalidate() {
+        seeded = false;
+        tracked.clear();
+        upcoming.clear();
+        expiring.clear();
+        lowStock.clear();
+        staleEntries = 0;
+        cancelWakeUp();
+    }
+
+    public synchronized void shutdown() {
+        invalidate();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void ensureCurrent() {
+        if (!seeded) {
+            today = LocalDate.now(clock);
+            // Alerts for items already inside the horizon when the engine starts are not raised again.
+            rebuild(source.get(), null);
+            seeded = true;
+            return;
+        }
+        LocalDate now = LocalDate.now(clock);
+        if (now.isAfter(today)) {
+            // The wake-up normally does this; catching up here keeps answers right if it is late.
+            today = now;
+            List<InventoryAlert> raised = new ArrayList<>();
+            advance(raised);
+            scheduleWakeUp();
+            if (!raised.isEmpty()) {
+                scheduler().execute(() -> raise(raised));
+            }
+        }
+    }
+
+    private void rebuild(List<Equipment> items, List<InventoryAlert> raised) {
+        tracked.clear();
+        upcoming.clear();
+        expiring.clear();
+        lowStock.clear();
+        staleEntries = 0;
+        for (Equipment equipment : items) {
+            put(equipment, raised);
+        }
+        scheduleWakeUp();
+    }
+
+    private void put(Equipment equipment, List<InventoryAlert> raised) {
+        Equipment previous = remove(equipment.getId());
+        tracked.put(equipment.getId(), equipment);
+        if (equipment.isLowStock()) {
+            lowStock.add(equipment);
+            if (raised != null && (previous == null || !previous.isLowStock())) {
+                raised.add(new InventoryAlert(InventoryAlert.Type.LOW_STOCK, new Equipment(equipment), today));
+            }
+        }
+        if (equipment.getExpiryDate() == null) {
+            return;
+        }
+        LocalDate cutoff = today.plusDays(horizonDays);
+        if (equipment.isNearExpiry(cutoff)) {
+            expiring.add(equipment);
+            if (raised != null && (previous == null || !previous.isNearExpiry(cutoff))) {
+                raised.add(new InventoryAlert(InventoryAlert.Type.NEAR_EXPIRY, new Equipment(equipment), today));
+            }
+        } else {
+            upcoming.add(equipment);
+        }
+    }
+
+    private Equipment remove(int id) {
+        Equipment previous = tracked.remove(id);
+        if (previous == null) {
+            return null;
+        }
+        lowStock.remove(previous);
+        if (previous.getExpiryDate() != null && !expiring.remove(previous)) {
+            staleEntries++;
+            if (staleEntries > upcoming.size() / 2) {
+                compactUpcoming();
+            }
+        }
+        return previous;
+    }
+
+    // Moves every waiting item whose expiry date is now inside the horizon into the alert set.
+    private void advance(List<InventoryAlert> raised) {
+        LocalDate cutoff = today.plusDays(horizonDays);
+        Equipment next;
+        while ((next = peekUpcoming()) != null && next.isNearExpiry(cutoff)) {
+            upcoming.poll();
+            expiring.add(next);
+            raised.add(new InventoryAlert(InventoryAlert.Type.NEAR_EXPIRY, new Equipment(next), today));
+        }
+    }
+
+    private Equipment peekUpcoming() {
+        Equipment next;
+        while ((next = upcoming.peek()) != null && tracked.get(next.getId()) != next) {
+            upcoming.poll();
+            staleEntries--;
+        }
+        return next;
+    }
+
+    private void compactUpcoming() {
+        List<Equipment> live = new ArrayList<>(upcoming.size());
+        for (Equipment equipment : upcoming) {
+            if (tracked.get(equipment.getId()) == equipment) {
+                live.add(equipment);
+            }
+        }
+        upcoming.clear();
+        upcoming.addAll(live);
+        staleEntries = 0;
+    }
+
+    // Sleeps until the start of the day the earliest waiting item comes within the horizon.
+    private void scheduleWakeUp() {
+        Equipment next = peekUpcoming();
+        LocalDate due = next == null ? null : next.getExpiryDate().minusDays(horizonDays);
+        if (due != null && due.equals(wakeUpDate)) {
+            return;
+        }
+        cancelWakeUp();
+        if (due == null) {
+            return;
+        }
+        ZonedDateTime wakeAt = due.atStartOfDay(clock.getZone());
+        long delay = Math.max(0, Duration.between(ZonedDateTime.now(clock), wakeAt).toMillis());
+        wakeUpDate = due;
+        wakeUp = scheduler().schedule(this::wakeUp, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void wakeUp() {
+        List<InventoryAlert> raised = new ArrayList<>();
+        synchronized (this) {
+            wakeUp = null;
+            wakeUpDate = null;
+            if (!seeded) {
+                return;
+            }
+            LocalDate now = LocalDate.now(clock);
+            if (now.isAfter(today)) {
+                today = now;
+            }
+            advance(raised);
+            scheduleWakeUp();
+        }
+        raise(raised);
+    }
+
+    private void cancelWakeUp() {
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+            wakeUp = null;
+        }
+        wakeUpDate = null;
+    }
+
+    private void raise(List<InventoryAlert> raised) {
+        if (raised.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            alertsRaised += raised.size();
+        }
+        for (InventoryAlert alert : raised) {
+            listener.accept(alert);
+        }
+    }
+
+    private ScheduledExecutorService scheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "inventory-alerts");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    private static List<Equipment> copies(TreeSet<Equipment> items) {
+        List<Equipment> copies = new ArrayList<>(items.size());
+        for (Equipment equipment : items) {
+            copies.add(new Equipment(equipment));
+        }
+        return copies;
+    }
+
+    private static int horizonFromSystemProperty() {
+        String value = System.getProperty(EXPIRY_HORIZON_PROPERTY);
+        if (value == null || value.isBlank()) {
+            return DEFAULT_EXPIRY_HORIZON_DAYS;
+        }
+        return Integer.parseInt(value.trim());
+    }
+}
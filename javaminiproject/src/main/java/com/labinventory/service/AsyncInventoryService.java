@@ -0,0 +1,214 @@
+package com.labinventory.service;
+
+import com.labinventory.database.EquipmentPageKey;
+import com.labinventory.model.Equipment;
+import com.labinventory.model.EquipmentSort;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+public class AsyncInventoryService {
+    public static final String EQUIPMENT_CHANNEL = "equipment";
+    public static final String DASHBOARD_CHANNEL = "dashboard";
+    public static final String FORECAST_CHANNEL = "forecast";
+
+    private static final int PLATFORM_THREADS = 4;
+    private static AsyncInventoryService instance;
+
+    private final InventoryService service;
+    private final ExecutorService executor;
+    private final Executor uiExecutor;
+
+    private final Map<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ReadOnlyBooleanWrapper loading = new ReadOnlyBooleanWrapper(false);
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+
+    public AsyncInventoryService(InventoryService service) {
+        this(service, createExecutor(), Platform::runLater);
+    }
+
+    public AsyncInventoryService(InventoryService service, ExecutorService executor, Executor uiExecutor) {
+        this.service = service;
+        this.executor = executor;
+        this.uiExecutor = uiExecutor;
+    }
+
+    public static synchronized AsyncInventoryService getInstance() {
+        if (instance == null) {
+            instance = new AsyncInventoryService(InventoryService.getInstance());
+        }
+        return instance;
+    }
+
+    public static synchronized void shutdownInstance() {
+        if (instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    public <T> CompletableFuture<T> submit(String channel, Function<InventoryService, T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        submitted.increment();
+        if (channel != null) {
+            CompletableFuture<?> previous = inFlight.put(channel, result);
+            if (previous != null && previous.cancel(false)) {
+                superseded.increment();
+            }
+        }
+
+        pending.incrementAndGet();
+        updateLoading();
+        result.whenComplete((value, error) -> {
+            if (channel != null) {
+                inFlight.remove(channel, result);
+            }
+            pending.decrementAndGet();
+            updateLoading();
+        });
+
+        executor.execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                T value = call.apply(service);
+                uiExecutor.execute(() -> result.complete(value));
+            } catch (Throwable t) {
+                uiExecutor.execute(() -> result.completeExceptionally(t));
+            }
+        });
+        return result;
+    }
+
+    public CompletableFuture<List<Equipment>> loadAllEquipment() {
+        return submit(EQUIPMENT_CHANNEL, InventoryService::getAllEquipment);
+    }
+
+    public CompletableFuture<ObservableList<Equipment>> loadEquipmentList(EquipmentSort sort, int pagedThreshold) {
+        return submit(EQUIPMENT_CHANNEL, s -> {
+            int count = s.getEquipmentCount();
+            if (count > pagedThreshold) {
+                return new PagedEquipmentList(sort, count, this::loadEquipmentPage);
+            }
+            List<Equipment> items = s.getAllEquipment();
+            if (sort != EquipmentSort.ID) {
+                EquipmentSorter.sort(items, sort);
+            }
+            return FXCollections.observableArrayList(items);
+        });
+    }
+
+    public CompletableFuture<List<Equipment>> loadEquipmentPage(EquipmentSort sort, EquipmentPageKey after,
+                                                                int offset, int limit) {
+        return submit(null, s -> s.getEquipmentPage(sort, after, offset, limit));
+    }
+
+    public CompletableFuture<List<Equipment>> searchEquipment(String searchTerm) {
+        return submit(EQUIPMENT_CHANNEL, s -> s.searchEquipment(searchTerm));
+    }
+
+    public CompletableFuture<List<Equipment>> typeaheadSearch(String query, int limit) {
+        return submit(EQUIPMENT_CHANNEL, s -> s.typeaheadSearch(query, limit));
+    }
+
+    public CompletableFuture<ImportReport> importEquipment(Path file) {
+        return submit(null, s -> {
+            try {
+                return new EquipmentCsvImporter(s).importFile(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public CompletableFuture<ReceiveReport> receiveOrders(Collection<Integer> orderIds) {
+        return submit(null, s -> s.receiveOrders(orderIds));
+    }
+
+    public CompletableFuture<ReorderPlan> planReorders() {
+        return submit(null, InventoryService::planReorders);
+    }
+
+    public CompletableFuture<Integer> placeReorders(ReorderPlan plan) {
+        return submit(null, s -> s.placeReorders(plan));
+    }
+
+    public CompletableFuture<DashboardData> loadDashboard() {
+        return submit(DASHBOARD_CHANNEL, s -> {
+            List<Equipment> lowStock = s.getLowStockAlerts();
+            return new DashboardData(s.getDashboardSnapshot(), lowStock, s.getExpiryAlerts(), s.getActiveOrders(),
+                    s.getStockForecasts(lowStock));
+        });
+    }
+
+    // The forecaster may reseed from the stock ledger, so forecasts are never worked out on the FX thread.
+    public CompletableFuture<Map<Integer, StockForecast>> loadStockForecasts(Collection<Equipment> items) {
+        return submit(FORECAST_CHANNEL, s -> s.getStockForecasts(items));
+    }
+
+    public InventoryEventBus getEventBus() {
+        return service.getEventBus();
+    }
+
+    public AlertEngine getAlertEngine() {
+        return service.getAlertEngine();
+    }
+
+    public ReadOnlyBooleanProperty loadingProperty() {
+        return loading.getReadOnlyProperty();
+    }
+
+    public boolean isLoading() {
+        return pending.get() > 0;
+    }
+
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    public long getSupersededCount() {
+        return superseded.sum();
+    }
+
+    public void shutdown() {
+        inFlight.values().forEach(future -> future.cancel(false));
+        executor.shutdown();
+    }
+
+    private void updateLoading() {
+        uiExecutor.execute(() -> loading.set(pending.get() > 0));
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newFixedThreadPool(PLATFORM_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "inventory-data-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.labinventory.service;
+
+public record CatalogCacheStats(long hits, long misses, long loads, long invalidations, int size, long ageMillis) {
+
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogCacheStats{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", loads=" + loads +
+                ", invalidations=" + invalidations +
+                ", size=" + size +
+                ", ageMillis=" + ageMillis +
+                ", hitRate=" + String.format("%.1f%%", hitRate() * 100) +
+                '}';
+    }
+}
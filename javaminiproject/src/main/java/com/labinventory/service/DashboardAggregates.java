@@ -0,0 +1,186 @@
+package com.labinventory.service;
+
+import com.labinventory.database.EquipmentDAO;
+import com.labinventory.database.EquipmentTotals;
+import com.labinventory.database.OrderDAO;
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.model.Equipment;
+import com.labinventory.model.Order;
+import com.labinventory.model.Order.OrderStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DashboardAggregates {
+    private static final Logger LOG = Log.getLogger(DashboardAggregates.class);
+
+    private static final double VALUE_TOLERANCE = 0.005;
+
+    private final EquipmentDAO equipmentDAO;
+    private final OrderDAO orderDAO;
+    // Near-expiry items depend on the date, so that count comes from the alert engine rather than being kept here.
+    private final AlertEngine alerts;
+
+    private boolean seeded = false;
+    private int equipmentTypes;
+    private int lowStockCount;
+    private int storedNearExpiryCount;
+    private int activeOrderCount;
+    private long totalQuantity;
+    private double totalValue;
+
+    public DashboardAggregates(EquipmentDAO equipmentDAO, OrderDAO orderDAO, AlertEngine alerts) {
+        this.equipmentDAO = equipmentDAO;
+        this.orderDAO = orderDAO;
+        this.alerts = alerts;
+    }
+
+    public synchronized DashboardSnapshot snapshot() {
+        if (!seeded) {
+            seed();
+        }
+        return snapshot(alerts.getExpiryAlertCount());
+    }
+
+    public synchronized void equipmentAdded(Equipment equipment) {
+        if (seeded) {
+            applyEquipment(equipment, 1);
+        }
+    }
+
+    public synchronized void equipmentUpdated(Equipment before, Equipment after) {
+        if (!seeded) {
+            return;
+        }
+        if (before == null) {
+            seeded = false;
+            return;
+        }
+        applyEquipment(before, -1);
+        applyEquipment(after, 1);
+    }
+
+    public synchronized void equipmentRemoved(Equipment before) {
+        if (!seeded) {
+            return;
+        }
+        if (before == null) {
+            seeded = false;
+            return;
+        }
+        applyEquipment(before, -1);
+    }
+
+    public synchronized void orderAdded(Order order) {
+        if (seeded && order.isActiveOrder()) {
+            activeOrderCount++;
+        }
+    }
+
+    public synchronized void orderRemoved(Order before) {
+        if (!seeded) {
+            return;
+        }
+        if (before == null) {
+            seeded = false;
+            return;
+        }
+        if (before.isActiveOrder()) {
+            activeOrderCount--;
+        }
+    }
+
+    public synchronized void orderStatusChanged(OrderStatus before, OrderStatus after) {
+        if (!seeded) {
+            return;
+        }
+        if (before == null) {
+            seeded = false;
+            return;
+        }
+        activeOrderCount += (isActive(after) ? 1 : 0) - (isActive(before) ? 1 : 0);
+    }
+
+    public synchronized void activeOrderClosed() {
+        if (seeded) {
+            activeOrderCount--;
+        }
+    }
+
+    public synchronized void invalidate() {
+        seeded = false;
+    }
+
+    public synchronized void seed() {
+        EquipmentTotals totals = equipmentDAO.getEquipmentTotals(alerts.getExpiryCutoff());
+        int activeOrders = orderDAO.countActiveOrders();
+        if (totals == null || activeOrders < 0) {
+            seeded = false;
+            return;
+        }
+        equipmentTypes = totals.equipmentTypes();
+        lowStockCount = totals.lowStockCount();
+        storedNearExpiryCount = totals.nearExpiryCount();
+        totalQuantity = totals.totalQuantity();
+        totalValue = totals.totalValue();
+        activeOrderCount = activeOrders;
+        seeded = true;
+    }
+
+    public synchronized List<String> reconcile() {
+        List<String> mismatches = new ArrayList<>();
+        if (!seeded) {
+            seed();
+            return mismatches;
+        }
+
+        DashboardSnapshot maintained = snapshot();
+        seed();
+        DashboardSnapshot actual = snapshot(storedNearExpiryCount);
+
+        compare(mismatches, "equipmentTypes", maintained.equipmentTypes(), actual.equipmentTypes());
+        compare(mismatches, "lowStockCount", maintained.lowStockCount(), actual.lowStockCount());
+        compare(mismatches, "nearExpiryCount", maintained.nearExpiryCount(), actual.nearExpiryCount());
+        compare(mismatches, "activeOrderCount", maintained.activeOrderCount(), actual.activeOrderCount());
+        compare(mismatches, "totalQuantity", maintained.totalQuantity(), actual.totalQuantity());
+        if (Math.abs(maintained.totalValue() - actual.totalValue()) > VALUE_TOLERANCE) {
+            mismatches.add("totalValue: maintained=" + maintained.totalValue() + ", database=" + actual.totalValue());
+        }
+
+        if (maintained.nearExpiryCount() != actual.nearExpiryCount()) {
+            alerts.invalidate();
+        }
+
+        if (mismatches.isEmpty()) {
+            LOG.info("Dashboard aggregates reconciled: no drift.");
+        } else {
+            LOG.atWarn().field("mismatches", mismatches).log("Dashboard aggregates drifted from the database, reseeded");
+        }
+        return mismatches;
+    }
+
+    private DashboardSnapshot snapshot(int nearExpiryCount) {
+        return new DashboardSnapshot(equipmentTypes, lowStockCount, nearExpiryCount, activeOrderCount,
+                totalQuantity, totalValue, alerts.getToday());
+    }
+
+    private void applyEquipment(Equipment equipment, int sign) {
+        equipmentTypes += sign;
+        totalQuantity += (long) sign * equipment.getQuantity();
+        totalValue += sign * equipment.getQuantity() * equipment.getUnitPrice();
+        if (equipment.isLowStock()) {
+            lowStockCount += sign;
+        }
+    }
+
+    private static boolean isActive(OrderStatus status) {
+        return status == OrderStatus.PENDING || status == OrderStatus.IN_TRANSIT;
+    }
+
+    private static void compare(List<String> mismatches, String name, long maintained, long actual) {
+        if (maintained != actual) {
+            mismatches.add(name + ": maintained=" + maintained + ", database=" + actual);
+        }
+    }
+}
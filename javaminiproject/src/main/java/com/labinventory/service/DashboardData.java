@@ -0,0 +1,12 @@
+package com.labinventory.service;
+
+import com.labinventory.model.Equipment;
+import com.labinventory.model.Order;
+
+import java.util.List;
+import java.util.Map;
+
+public record DashboardData(DashboardSnapshot snapshot, List<Equipment> lowStockItems,
+                            List<Equipment> expiryItems, List<Order> activeOrders,
+                            Map<Integer, StockForecast> stockForecasts) {
+}
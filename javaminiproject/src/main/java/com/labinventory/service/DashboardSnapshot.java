@@ -0,0 +1,7 @@
+package com.labinventory.service;
+
+import java.time.LocalDate;
+
+public record DashboardSnapshot(int equipmentTypes, int lowStockCount, int nearExpiryCount, int activeOrderCount,
+                                long totalQuantity, double totalValue, LocalDate asOf) {
+}
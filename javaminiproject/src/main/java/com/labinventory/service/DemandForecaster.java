@@ -0,0 +1,192 @@
+package com.labinventory.service;
+
+import com.labinventory.database.DailyUsage;
+import com.labinventory.database.StockLedgerDAO;
+import com.labinventory.model.Equipment;
+import com.labinventory.model.StockMovement;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Streaming usage statistics per equipment item, kept in memory and updated from each committed stock movement.
+// Usage is stock taken out by a hand adjustment. Every item keeps its daily usage for the last WINDOW_DAYS days in
+// a ring buffer, and an exponential moving average of daily usage that is folded forward one completed day at a
+// time, so no statistic ever re-reads the ledger. The engine is seeded with one grouped query over the last
+// WINDOW_DAYS days of the ledger.
+public class DemandForecaster {
+    public static final int WINDOW_DAYS = 28;
+    public static final String SMOOTHING_DAYS_PROPERTY = "labinventory.forecast.smoothingDays";
+    public static final int DEFAULT_SMOOTHING_DAYS = 7;
+
+    private final StockLedgerDAO ledger;
+    private final Clock clock;
+    private final double alpha;
+
+    private boolean seeded = false;
+    private final Map<Integer, UsageWindow> windows = new HashMap<>();
+
+    public DemandForecaster(StockLedgerDAO ledger) {
+        this(ledger, smoothingFromSystemProperty(), Clock.systemDefaultZone());
+    }
+
+    // The average gives a day's usage the weight 2 / (smoothingDays + 1), so roughly the last smoothingDays days
+    // dominate it.
+    public DemandForecaster(StockLedgerDAO ledger, int smoothingDays, Clock clock) {
+        if (smoothingDays < 1) {
+            throw new IllegalArgumentException("Smoothing must cover at least one day: " + smoothingDays);
+        }
+        this.ledger = ledger;
+        this.clock = clock;
+        this.alpha = 2.0 / (smoothingDays + 1);
+    }
+
+    public synchronized StockForecast forecast(Equipment equipment) {
+        ensureSeeded();
+        return forecast(equipment, today());
+    }
+
+    public synchronized Map<Integer, StockForecast> forecast(Collection<Equipment> items) {
+        ensureSeeded();
+        long today = today();
+        Map<Integer, StockForecast> forecasts = new HashMap<>();
+        for (Equipment equipment : items) {
+            forecasts.put(equipment.getId(), forecast(equipment, today));
+        }
+        return forecasts;
+    }
+
+    public synchronized void record(List<StockMovement> movements) {
+        if (!seeded) {
+            return;
+        }
+        for (StockMovement movement : movements) {
+            if (movement.reason() == StockMovement.Reason.REMOVED) {
+                windows.remove(movement.equipmentId());
+            } else if (movement.isUsage()) {
+                long day = day(movement.movedAt());
+                windows.computeIfAbsent(movement.equipmentId(), id -> new UsageWindow(day))
+                        .add(day, -movement.delta(), alpha);
+            }
+        }
+    }
+
+    public synchronized void invalidate() {
+        seeded = false;
+        windows.clear();
+    }
+
+    public synchronized int getTrackedItems() {
+        ensureSeeded();
+        return windows.size();
+    }
+
+    private StockForecast forecast(Equipment equipment, long today) {
+        UsageWindow window = windows.get(equipment.getId());
+        if (window == null) {
+            return new StockForecast(equipment.getId(), 0, 0, 0, 0, Double.POSITIVE_INFINITY);
+        }
+        window.advanceTo(today, alpha);
+        double dailyUsage = window.dailyUsage(alpha);
+        double daysLeft = dailyUsage > 0 ? Math.max(0, equipment.getQuantity()) / dailyUsage : Double.POSITIVE_INFINITY;
+        return new StockForecast(equipment.getId(), window.usedLast(1), window.usedLast(7), window.usedLast(WINDOW_DAYS),
+                dailyUsage, daysLeft);
+    }
+
+    private void ensureSeeded() {
+        if (seeded) {
+            return;
+        }
+        long first = today() - WINDOW_DAYS + 1;
+        Instant since = LocalDate.ofEpochDay(first).atStartOfDay(clock.getZone()).toInstant();
+        int offsetSeconds = clock.getZone().getRules().getOffset(clock.instant()).getTotalSeconds();
+        windows.clear();
+        // Rows come ordered by day, so each window starts on its item's first day of usage, as it does live.
+        for (DailyUsage usage : ledger.getDailyUsageSince(since, offsetSeconds)) {
+            windows.computeIfAbsent(usage.equipmentId(), id -> new UsageWindow(usage.epochDay()))
+                    .add(usage.epochDay(), usage.units(), alpha);
+        }
+        seeded = true;
+    }
+
+    private long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+
+    private long day(Instant instant) {
+        return instant == null ? today() : LocalDate.ofInstant(instant, clock.getZone()).toEpochDay();
+    }
+
+    private static int smoothingFromSystemProperty() {
+        String value = System.getProperty(SMOOTHING_DAYS_PROPERTY);
+        if (value == null || value.isBlank()) {
+            return DEFAULT_SMOOTHING_DAYS;
+        }
+        return Integer.parseInt(value.trim());
+    }
+
+    // daily[day % WINDOW_DAYS] holds the usage of day and the WINDOW_DAYS - 1 days before it; average covers the
+    // completed days before day.
+    private static final class UsageWindow {
+        private final int[] daily = new int[WINDOW_DAYS];
+        private long day;
+        private double average;
+        private long completedDays;
+
+        UsageWindow(long day) {
+            this.day = day;
+        }
+
+        void add(long usedOn, int units, double alpha) {
+            if (usedOn > day) {
+                advanceTo(usedOn, alpha);
+            } else if (usedOn <= day - WINDOW_DAYS) {
+                return;
+            }
+            daily[slot(usedOn)] += units;
+        }
+
+        // Folds the current day into the average, then the empty days up to today in one step, and clears the
+        // slots today's window reuses.
+        void advanceTo(long today, double alpha) {
+            if (today <= day) {
+                return;
+            }
+            long gap = today - day;
+            average = alpha * daily[slot(day)] + (1 - alpha) * average;
+            if (gap > 1) {
+                average *= Math.pow(1 - alpha, gap - 1);
+            }
+            completedDays += gap;
+            for (long d = day + 1; d <= today && d <= day + WINDOW_DAYS; d++) {
+                daily[slot(d)] = 0;
+            }
+            day = today;
+        }
+
+        int usedLast(int days) {
+            int used = 0;
+            for (int i = 0; i < days; i++) {
+                used += daily[slot(day - i)];
+            }
+            return used;
+        }
+
+        // The average starts from zero, so it is divided by the total weight its completed days carry. Before any
+        // day has completed, today's usage is the best estimate there is.
+        double dailyUsage(double alpha) {
+            if (completedDays == 0) {
+                return daily[slot(day)];
+            }
+            return average / (1 - Math.pow(1 - alpha, completedDays));
+        }
+
+        private static int slot(long day) {
+            return (int) Math.floorMod(day, (long) WINDOW_DAYS);
+        }
+    }
+}
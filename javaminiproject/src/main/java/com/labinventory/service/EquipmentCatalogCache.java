@@ -0,0 +1,152 @@
+package com.labinventory.service;
+
+import com.labinventory.database.EquipmentDAO;
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.model.Equipment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class EquipmentCatalogCache {
+    private static final Logger LOG = Log.getLogger(EquipmentCatalogCache.class);
+
+    public static final String MAX_STALENESS_PROPERTY = "labinventory.catalog.maxStalenessSeconds";
+    public static final Duration DEFAULT_MAX_STALENESS = Duration.ofMinutes(5);
+
+    private final EquipmentDAO equipmentDAO;
+    private final long maxStalenessNanos;
+
+    private volatile ConcurrentSkipListMap<Integer, Equipment> entries = new ConcurrentSkipListMap<>();
+    private volatile boolean loaded = false;
+    private volatile long loadedAtNanos;
+    // Bumped by every write, so a miss only caches its row if nothing changed the catalog while it was being read.
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public EquipmentCatalogCache(EquipmentDAO equipmentDAO) {
+        this(equipmentDAO, maxStalenessFromSystemProperty());
+    }
+
+    public EquipmentCatalogCache(EquipmentDAO equipmentDAO, Duration maxStaleness) {
+        this.equipmentDAO = equipmentDAO;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+    }
+
+    public List<Equipment> getAll() {
+        ConcurrentSkipListMap<Integer, Equipment> current = fresh();
+        List<Equipment> copies = new ArrayList<>(current.size());
+        for (Equipment equipment : current.values()) {
+            copies.add(new Equipment(equipment));
+        }
+        return copies;
+    }
+
+    public Equipment get(int id) {
+        // Point lookups never force a full load, so a paged UI can edit rows without pulling in the whole table.
+        boolean fresh = isFresh();
+        Equipment cached = fresh ? entries.get(id) : null;
+        if (cached != null) {
+            hits.increment();
+            return new Equipment(cached);
+        }
+
+        misses.increment();
+        long readVersion = version.get();
+        Equipment loadedEquipment = equipmentDAO.getEquipmentById(id);
+        if (loadedEquipment != null && fresh) {
+            putIfUnchanged(loadedEquipment, readVersion);
+        }
+        return loadedEquipment;
+    }
+
+    public int size() {
+        return fresh().size();
+    }
+
+    public long getTotalQuantity() {
+        long total = 0;
+        for (Equipment equipment : fresh().values()) {
+            total += equipment.getQuantity();
+        }
+        return total;
+    }
+
+    public synchronized void put(Equipment equipment) {
+        version.incrementAndGet();
+        entries.put(equipment.getId(), new Equipment(equipment));
+    }
+
+    public synchronized void remove(int id) {
+        version.incrementAndGet();
+        entries.remove(id);
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        loaded = false;
+        invalidations.increment();
+    }
+
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        ConcurrentSkipListMap<Integer, Equipment> reloaded = new ConcurrentSkipListMap<>();
+        for (Equipment equipment : equipmentDAO.getAllEquipment()) {
+            reloaded.put(equipment.getId(), equipment);
+        }
+        version.incrementAndGet();
+        entries = reloaded;
+        loadedAtNanos = System.nanoTime();
+        loaded = true;
+        loads.increment();
+        LOG.atInfo().field("rows", reloaded.size()).field("millis", (loadedAtNanos - start) / 1_000_000)
+                .log("Equipment catalog loaded");
+    }
+
+    public CatalogCacheStats getStats() {
+        long ageMillis = loaded ? (System.nanoTime() - loadedAtNanos) / 1_000_000 : -1;
+        return new CatalogCacheStats(hits.sum(), misses.sum(), loads.sum(), invalidations.sum(),
+                entries.size(), ageMillis);
+    }
+
+    // A row read before a concurrent update or delete committed must not overwrite what that write put in the cache.
+    private synchronized void putIfUnchanged(Equipment equipment, long readVersion) {
+        if (version.get() == readVersion) {
+            entries.put(equipment.getId(), new Equipment(equipment));
+        }
+    }
+
+    private ConcurrentSkipListMap<Integer, Equipment> fresh() {
+        if (!isFresh()) {
+            synchronized (this) {
+                if (!isFresh()) {
+                    misses.increment();
+                    reload();
+                    return entries;
+                }
+            }
+        }
+        hits.increment();
+        return entries;
+    }
+
+    private boolean isFresh() {
+        return loaded && System.nanoTime() - loadedAtNanos <= maxStalenessNanos;
+    }
+
+    private static Duration maxStalenessFromSystemProperty() {
+        String value = System.getProperty(MAX_STALENESS_PROPERTY);
+        if (value == null || value.isBlank()) {
+            return DEFAULT_MAX_STALENESS;
+        }
+        return Duration.ofSeconds(Long.parseLong(value.trim()));
+    }
+}
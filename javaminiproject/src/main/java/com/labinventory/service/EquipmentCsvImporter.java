@@ -0,0 +1,313 @@
+package com.labinventory.service;
+
+import com.labinventory.database.EquipmentDAO;
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.model.Equipment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Streams a CSV or TSV file into the equipment table. Rows are parsed and validated one at a time and written
+// in chunks through InventoryService.addEquipmentBatch, so only one chunk is ever held in memory. If a chunk
+// fails, its rows are retried one at a time so only the rows the database refuses are rejected.
+public class EquipmentCsvImporter {
+    private static final Logger LOG = Log.getLogger(EquipmentCsvImporter.class);
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String[] REQUIRED_COLUMNS = {"name", "category", "quantity", "lowerlimit", "unitprice"};
+
+    private final InventoryService service;
+    private final int chunkSize;
+
+    public EquipmentCsvImporter(InventoryService service) {
+        this(service, EquipmentDAO.DEFAULT_BATCH_SIZE);
+    }
+
+    public EquipmentCsvImporter(InventoryService service, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.service = service;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportReport importFile(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(reader);
+        }
+    }
+
+    public ImportReport importFrom(Reader source) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+        RecordReader records = new RecordReader(reader, detectDelimiter(reader));
+        Progress progress = new Progress();
+
+        List<String> header = records.next();
+        if (header == null) {
+            return progress.report(start);
+        }
+        Map<String, Integer> columns = columnIndex(header);
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                progress.reject(records.getRecordLine(), "Missing required column '" + required + "'");
+                return progress.report(start);
+            }
+        }
+
+        List<Equipment> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        List<String> fields;
+        while ((fields = nextRecord(records, progress)) != null) {
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            progress.rowsRead++;
+            try {
+                chunk.add(toEquipment(fields, columns));
+                chunkLines.add(records.getRecordLine());
+            } catch (IllegalArgumentException e) {
+                progress.reject(records.getRecordLine(), e.getMessage());
+                continue;
+            }
+            if (chunk.size() >= chunkSize) {
+                write(chunk, chunkLines, progress);
+            }
+        }
+        write(chunk, chunkLines, progress);
+
+        ImportReport report = progress.report(start);
+        LOG.atInfo().field("rows", report.rowsImported()).field("rejected", report.rowsRejected())
+                .field("millis", report.elapsedMillis()).log("Equipment import finished");
+        return report;
+    }
+
+    private static List<String> nextRecord(RecordReader records, Progress progress) throws IOException {
+        try {
+            return records.next();
+        } catch (MalformedRecordException e) {
+            progress.rowsRead++;
+            progress.reject(records.getRecordLine(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(List<Equipment> chunk, List<Long> chunkLines, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            progress.rowsImported += service.addEquipmentBatchOrThrow(chunk);
+        } catch (SQLException e) {
+            // The chunk was rolled back as a whole; write its rows one by one so only the bad ones are rejected.
+            LOG.atWarn().field("firstLine", chunkLines.get(0)).field("rows", chunk.size()).cause(e)
+                    .log("Equipment import chunk failed, retrying row by row");
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    progress.rowsImported += service.addEquipmentBatchOrThrow(List.of(chunk.get(i)));
+                } catch (SQLException rowError) {
+                    progress.reject(chunkLines.get(i), "Database write failed: " + rowError.getMessage());
+                }
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private static char detectDelimiter(BufferedReader reader) throws IOException {
+        reader.mark(8192);
+        String firstLine = reader.readLine();
+        reader.reset();
+        if (firstLine == null) {
+            return ',';
+        }
+        return firstLine.chars().filter(c -> c == '\t').count() > firstLine.chars().filter(c -> c == ',').count()
+                ? '\t' : ',';
+    }
+
+    private static Map<String, Integer> columnIndex(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+            columns.putIfAbsent(column, i);
+        }
+        return columns;
+    }
+
+    private static Equipment toEquipment(List<String> fields, Map<String, Integer> columns) {
+        Equipment equipment = new Equipment();
+        equipment.setName(required(fields, columns, "name"));
+        equipment.setCategory(required(fields, columns, "category"));
+        equipment.setQuantity(nonNegativeInt(required(fields, columns, "quantity"), "quantity"));
+        equipment.setLowerLimit(nonNegativeInt(required(fields, columns, "lowerlimit"), "lower limit"));
+        equipment.setUnitPrice(nonNegativeDouble(required(fields, columns, "unitprice"), "unit price"));
+        equipment.setExpiryDate(date(optional(fields, columns, "expirydate"), "expiry date"));
+        equipment.setLocation(optional(fields, columns, "location"));
+        equipment.setSupplier(optional(fields, columns, "supplier"));
+        LocalDate dateAdded = date(optional(fields, columns, "dateadded"), "date added");
+        equipment.setDateAdded(dateAdded != null ? dateAdded : LocalDate.now());
+        return equipment;
+    }
+
+    private static String required(List<String> fields, Map<String, Integer> columns, String column) {
+        String value = optional(fields, columns, column);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing value for '" + column + "'");
+        }
+        return value;
+    }
+
+    private static String optional(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static int nonNegativeInt(String value, String label) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) {
+                throw new IllegalArgumentException("Negative " + label + ": " + value);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + label + ": " + value);
+        }
+    }
+
+    private static double nonNegativeDouble(String value, String label) {
+        try {
+            double parsed = Double.parseDouble(value);
+            if (parsed < 0 || Double.isNaN(parsed) || Double.isInfinite(parsed)) {
+                throw new IllegalArgumentException("Invalid " + label + ": " + value);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + label + ": " + value);
+        }
+    }
+
+    private static LocalDate date(String value, String label) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + label + " (expected YYYY-MM-DD): " + value);
+        }
+    }
+
+    private static class Progress {
+        private final List<ImportError> errors = new ArrayList<>();
+        private long rowsRead = 0;
+        private long rowsImported = 0;
+        private long rowsRejected = 0;
+
+        void reject(long line, String message) {
+            rowsRejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportError(line, message));
+            }
+        }
+
+        ImportReport report(long startNanos) {
+            return new ImportReport(rowsRead, rowsImported, rowsRejected, List.copyOf(errors),
+                    (System.nanoTime() - startNanos) / 1_000_000);
+        }
+    }
+
+    private static class MalformedRecordException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        MalformedRecordException(String message) {
+            super(message);
+        }
+    }
+
+    // RFC 4180 style reader: quoted fields may contain the delimiter, doubled quotes and line breaks.
+    private static class RecordReader {
+        private final BufferedReader reader;
+        private final char delimiter;
+        private final StringBuilder field = new StringBuilder();
+        private long line = 1;
+        private long recordLine = 0;
+
+        RecordReader(BufferedReader reader, char delimiter) {
+            this.reader = reader;
+            this.delimiter = delimiter;
+        }
+
+        long getRecordLine() {
+            return recordLine;
+        }
+
+        List<String> next() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            recordLine = line;
+            List<String> fields = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == delimiter) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        }
+                    }
+                    line++;
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            if (quoted) {
+                throw new MalformedRecordException("Unterminated quoted field, rest of file skipped");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
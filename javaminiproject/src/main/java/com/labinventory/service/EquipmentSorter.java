@@ -0,0 +1,75 @@
+package com.labinventory.service;
+
+import com.labinventory.model.Equipment;
+import com.labinventory.model.EquipmentSort;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Sorts in memory in the same order the DAO's ORDER BY produces: NOCASE text, expiry NULLS LAST, ties by id.
+// Each row's key is computed once up front so comparisons never fold strings.
+public class EquipmentSorter {
+
+    public static void sort(List<Equipment> items, EquipmentSort sort) {
+        SortEntry[] entries = new SortEntry[items.size()];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = entryFor(items.get(i), sort);
+        }
+
+        Arrays.sort(entries, entryOrder(sort));
+
+        for (int i = 0; i < entries.length; i++) {
+            items.set(i, entries[i].equipment());
+        }
+    }
+
+    // Same order as sort(), for placing a single item into an already sorted list.
+    public static Comparator<Equipment> comparator(EquipmentSort sort) {
+        Comparator<SortEntry> order = entryOrder(sort);
+        return (a, b) -> order.compare(entryFor(a, sort), entryFor(b, sort));
+    }
+
+    private static Comparator<SortEntry> entryOrder(EquipmentSort sort) {
+        Comparator<SortEntry> order = switch (sort) {
+            case NAME_ASC, NAME_DESC, CATEGORY -> Comparator.comparing(SortEntry::text);
+            default -> Comparator.comparingDouble(SortEntry::number);
+        };
+        order = order.thenComparingInt(entry -> entry.equipment().getId());
+        return sort.isDescending() ? order.reversed() : order;
+    }
+
+    static String foldCase(String value) {
+        if (value == null) {
+            return "";
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                char[] folded = value.toCharArray();
+                for (int j = i; j < folded.length; j++) {
+                    if (folded[j] >= 'A' && folded[j] <= 'Z') {
+                        folded[j] += 'a' - 'A';
+                    }
+                }
+                return new String(folded);
+            }
+        }
+        return value;
+    }
+
+    private static SortEntry entryFor(Equipment equipment, EquipmentSort sort) {
+        return switch (sort) {
+            case ID -> new SortEntry(null, equipment.getId(), equipment);
+            case NAME_ASC, NAME_DESC -> new SortEntry(foldCase(equipment.getName()), 0, equipment);
+            case CATEGORY -> new SortEntry(foldCase(equipment.getCategory()), 0, equipment);
+            case QUANTITY_ASC, QUANTITY_DESC -> new SortEntry(null, equipment.getQuantity(), equipment);
+            case PRICE_ASC, PRICE_DESC -> new SortEntry(null, equipment.getUnitPrice(), equipment);
+            case EXPIRY_DATE -> new SortEntry(null, equipment.getExpiryDate() != null
+                    ? equipment.getExpiryDate().toEpochDay() : Double.POSITIVE_INFINITY, equipment);
+        };
+    }
+
+    private record SortEntry(String text, double number, Equipment equipment) {
+    }
+}
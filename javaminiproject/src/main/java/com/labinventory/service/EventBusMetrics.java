@@ -0,0 +1,20 @@
+package com.labinventory.service;
+
+public record EventBusMetrics(long published, long coalesced, long delivered, long frames, int subscribers) {
+
+    public double eventsPerFrame() {
+        return frames == 0 ? 0.0 : (double) delivered / frames;
+    }
+
+    @Override
+    public String toString() {
+        return "EventBusMetrics{" +
+                "published=" + published +
+                ", coalesced=" + coalesced +
+                ", delivered=" + delivered +
+                ", frames=" + frames +
+                ", subscribers=" + subscribers +
+                ", eventsPerFrame=" + String.format("%.1f", eventsPerFrame()) +
+                '}';
+    }
+}
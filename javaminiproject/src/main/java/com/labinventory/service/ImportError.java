@@ -0,0 +1,9 @@
+package com.labinventory.service;
+
+public record ImportError(long lineNumber, String message) {
+
+    @Override
+    public String toString() {
+        return "Line " + lineNumber + ": " + message;
+    }
+}
@@ -0,0 +1,22 @@
+package com.labinventory.service;
+
+import java.util.List;
+
+public record ImportReport(long rowsRead, long rowsImported, long rowsRejected, List<ImportError> errors,
+                           long elapsedMillis) {
+
+    public double rowsPerSecond() {
+        return elapsedMillis == 0 ? rowsImported * 1000.0 : rowsImported * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{" +
+                "rowsRead=" + rowsRead +
+                ", rowsImported=" + rowsImported +
+                ", rowsRejected=" + rowsRejected +
+                ", elapsedMillis=" + elapsedMillis +
+                ", rowsPerSecond=" + String.format("%.0f", rowsPerSecond()) +
+                '}';
+    }
+}
@@ -0,0 +1,18 @@
+package com.labinventory.service;
+
+import com.labinventory.model.Equipment;
+
+import java.time.LocalDate;
+
+public record InventoryAlert(Type type, Equipment equipment, LocalDate raisedOn) {
+
+    public enum Type {
+        LOW_STOCK,
+        NEAR_EXPIRY
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + equipment.getName() + " (id " + equipment.getId() + ") on " + raisedOn;
+    }
+}
@@ -0,0 +1,99 @@
+package com.labinventory.service;
+
+import com.labinventory.model.Equipment;
+import com.labinventory.model.Order;
+
+// Committed changes published by InventoryService. Events about the same equipment item or order share a key,
+// which is what InventoryEventBus merges on within a frame.
+public sealed interface InventoryEvent {
+
+    String key();
+
+    record EquipmentAdded(Equipment equipment) implements InventoryEvent {
+        public String key() {
+            return equipmentKey(equipment.getId());
+        }
+    }
+
+    // before is null when the previous state was not known, e.g. after a batch update.
+    record EquipmentUpdated(Equipment before, Equipment after) implements InventoryEvent {
+        public String key() {
+            return equipmentKey(after.getId());
+        }
+    }
+
+    record EquipmentDeleted(int id, Equipment before) implements InventoryEvent {
+        public String key() {
+            return equipmentKey(id);
+        }
+    }
+
+    record OrderPlaced(Order order) implements InventoryEvent {
+        public String key() {
+            return orderKey(order.getId());
+        }
+    }
+
+    record OrderStatusChanged(Order order, Order.OrderStatus previous) implements InventoryEvent {
+        public String key() {
+            return orderKey(order.getId());
+        }
+    }
+
+    record OrderDelivered(int orderId, int equipmentId, int quantity) implements InventoryEvent {
+        public String key() {
+            return orderKey(orderId);
+        }
+    }
+
+    record OrderDeleted(int orderId) implements InventoryEvent {
+        public String key() {
+            return orderKey(orderId);
+        }
+    }
+
+    record AlertRaised(InventoryAlert alert) implements InventoryEvent {
+        public String key() {
+            return "alert:" + alert.type() + ":" + alert.equipment().getId();
+        }
+    }
+
+    // Folds next into previous, an earlier event with the same key. Returns null when the two cancel out, e.g. an
+    // item added and deleted in the same frame.
+    static InventoryEvent merge(InventoryEvent previous, InventoryEvent next) {
+        if (previous instanceof EquipmentAdded) {
+            if (next instanceof EquipmentUpdated updated) {
+                return new EquipmentAdded(updated.after());
+            }
+            if (next instanceof EquipmentDeleted) {
+                return null;
+            }
+        }
+        if (previous instanceof EquipmentUpdated first && next instanceof EquipmentUpdated second) {
+            return new EquipmentUpdated(first.before(), second.after());
+        }
+        if (previous instanceof EquipmentDeleted deleted && next instanceof EquipmentAdded added) {
+            return new EquipmentUpdated(deleted.before(), added.equipment());
+        }
+        if (previous instanceof OrderPlaced) {
+            if (next instanceof OrderStatusChanged changed) {
+                return new OrderPlaced(changed.order());
+            }
+            if (next instanceof OrderDeleted) {
+                return null;
+            }
+        }
+        if (previous instanceof OrderStatusChanged first && next instanceof OrderStatusChanged second) {
+            return new OrderStatusChanged(second.order(), first.previous());
+        }
+        return next;
+    }
+
+    private static String equipmentKey(int id) {
+        return "equipment:" + id;
+    }
+
+    private static String orderKey(int id) {
+        return "order:" + id;
+    }
+}
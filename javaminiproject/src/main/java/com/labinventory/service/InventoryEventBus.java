@@ -0,0 +1,140 @@
+package com.labinventory.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// In-process bus for InventoryEvents. Events published within one frame are merged per equipment item or order and
+// handed to each subscriber as a single list on the subscriber's executor (Platform::runLater for views).
+// Events published while nobody is subscribed are counted but not kept.
+public class InventoryEventBus {
+    public static final long DEFAULT_FRAME_MILLIS = 16;
+
+    private final long frameMillis;
+    private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+    private Map<String, InventoryEvent> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    private ScheduledExecutorService scheduler;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder frames = new LongAdder();
+
+    public InventoryEventBus() {
+        this(DEFAULT_FRAME_MILLIS);
+    }
+
+    // With frameMillis 0 every publish is delivered straight away, without merging.
+    public InventoryEventBus(long frameMillis) {
+        this.frameMillis = frameMillis;
+    }
+
+    public Subscription subscribe(Consumer<List<InventoryEvent>> listener, Executor executor) {
+        Subscription subscription = new Subscription(listener, executor);
+        subscribers.add(subscription);
+        return subscription;
+    }
+
+    public void publish(InventoryEvent event) {
+        published.increment();
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (frameMillis <= 0) {
+            dispatch(List.of(event));
+            return;
+        }
+        synchronized (this) {
+            InventoryEvent previous = pending.get(event.key());
+            if (previous == null) {
+                pending.put(event.key(), event);
+            } else {
+                InventoryEvent merged = InventoryEvent.merge(previous, event);
+                if (merged == null) {
+                    pending.remove(event.key());
+                    coalesced.add(2);
+                } else {
+                    pending.put(event.key(), merged);
+                    coalesced.increment();
+                }
+            }
+            if (!flushScheduled) {
+                flushScheduled = true;
+                scheduler().schedule(this::flush, frameMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    public void flush() {
+        List<InventoryEvent> events;
+        synchronized (this) {
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            events = List.copyOf(pending.values());
+            pending = new LinkedHashMap<>();
+        }
+        dispatch(events);
+    }
+
+    public EventBusMetrics getMetrics() {
+        return new EventBusMetrics(published.sum(), coalesced.sum(), delivered.sum(), frames.sum(), subscribers.size());
+    }
+
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+        flushScheduled = false;
+        pending.clear();
+    }
+
+    private void dispatch(List<InventoryEvent> events) {
+        frames.increment();
+        delivered.add(events.size());
+        for (Subscription subscription : subscribers) {
+            subscription.executor.execute(() -> {
+                if (subscription.active) {
+                    subscription.listener.accept(events);
+                }
+            });
+        }
+    }
+
+    private synchronized ScheduledExecutorService scheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "inventory-events");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    public class Subscription {
+        private final Consumer<List<InventoryEvent>> listener;
+        private final Executor executor;
+        private volatile boolean active = true;
+
+        private Subscription(Consumer<List<InventoryEvent>> listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        public void cancel() {
+            active = false;
+            subscribers.remove(this);
+        }
+    }
+}
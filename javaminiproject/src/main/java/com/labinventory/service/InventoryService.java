@@ -1,113 +1,735 @@
 package com.labinventory.service;
 
+import com.labinventory.database.DatabaseManager;
 import com.labinventory.database.EquipmentDAO;
+import com.labinventory.database.EquipmentPageKey;
+import com.labinventory.database.EquipmentSearchHit;
 import com.labinventory.database.OrderDAO;
+import com.labinventory.database.SnapshotRun;
+import com.labinventory.database.StockLedgerDAO;
+import com.labinventory.database.TransactionWork;
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.metrics.MetricsRegistry;
+import com.labinventory.metrics.OperationMetrics;
+import com.labinventory.metrics.OperationTimer;
 import com.labinventory.model.Equipment;
+import com.labinventory.model.EquipmentSort;
 import com.labinventory.model.Order;
+import com.labinventory.model.StockMovement;
 
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 public class InventoryService {
+    public static final int SEARCH_LIMIT = 200;
+
+    private static final Logger LOG = Log.getLogger(InventoryService.class);
+    private static final OperationMetrics METRICS = MetricsRegistry.getDefault().operations("InventoryService");
+
+    private static InventoryService instance;
+
     private final EquipmentDAO equipmentDAO;
     private final OrderDAO orderDAO;
+    private final EquipmentCatalogCache catalog;
+    private final DashboardAggregates aggregates;
+    private final AlertEngine alerts;
+    private final TrigramSearchIndex searchIndex = new TrigramSearchIndex();
+    private final InventoryEventBus events = new InventoryEventBus();
+    private final StockLedgerDAO ledger = new StockLedgerDAO();
+    private final DemandForecaster demand = new DemandForecaster(ledger);
+    private final LedgerSnapshotter snapshots = new LedgerSnapshotter(ledger);
+    private final ReorderPlanner reorders;
+    private ReorderPolicy reorderPolicy = ReorderPolicy.fromSystemProperty();
 
     public InventoryService() {
-        this.equipmentDAO = new EquipmentDAO();
-        this.orderDAO = new OrderDAO();
+        this(new EquipmentDAO(), new OrderDAO());
+    }
+
+    public InventoryService(EquipmentDAO equipmentDAO, OrderDAO orderDAO) {
+        this(equipmentDAO, orderDAO, new EquipmentCatalogCache(equipmentDAO));
+    }
+
+    public InventoryService(EquipmentDAO equipmentDAO, OrderDAO orderDAO, EquipmentCatalogCache catalog) {
+        this.equipmentDAO = equipmentDAO;
+        this.orderDAO = orderDAO;
+        this.catalog = catalog;
+        this.alerts = new AlertEngine(catalog::getAll, alert -> events.publish(new InventoryEvent.AlertRaised(alert)));
+        this.aggregates = new DashboardAggregates(equipmentDAO, orderDAO, alerts);
+        this.reorders = new ReorderPlanner(alerts::getLowStockAlerts, orderDAO::getActiveQuantitiesByEquipment);
+    }
+
+    public static synchronized InventoryService getInstance() {
+        if (instance == null) {
+            instance = new InventoryService();
+            MetricsRegistry metrics = MetricsRegistry.getDefault();
+            metrics.gauge("labinventory_catalog_items", "Equipment items held in the in-memory catalog",
+                    () -> instance.catalog.getStats().size());
+            metrics.gauge("labinventory_catalog_hit_ratio", "In-memory catalog hit ratio",
+                    () -> instance.catalog.getStats().hitRate());
+        }
+        return instance;
     }
 
     public List<Equipment> getAllEquipment() {
-        return equipmentDAO.getAllEquipment();
+        OperationTimer timed = METRICS.start("getAllEquipment");
+        return timed.rows(catalog.getAll());
     }
 
     public Equipment getEquipmentById(int id) {
-        return equipmentDAO.getEquipmentById(id);
+        OperationTimer timed = METRICS.start("getEquipmentById");
+        return timed.row(catalog.get(id));
+    }
+
+    public int getEquipmentCount() {
+        OperationTimer timed = METRICS.start("getEquipmentCount");
+        return timed.row(equipmentDAO.countEquipment());
+    }
+
+    public List<Equipment> getEquipmentPage(EquipmentSort sort, EquipmentPageKey after, int offset, int limit) {
+        OperationTimer timed = METRICS.start("getEquipmentPage");
+        if (after != null) {
+            return timed.rows(equipmentDAO.getEquipmentPage(sort, after, limit));
+        }
+        return timed.rows(equipmentDAO.getEquipmentPageAt(sort, offset, limit));
     }
 
+    // Every stock change below is written to the stock ledger in the same transaction as the change itself.
     public boolean addEquipment(Equipment equipment) {
-        return equipmentDAO.addEquipment(equipment);
+        OperationTimer timed = METRICS.start("addEquipment");
+        try {
+            return timed.changed(inTransaction(() -> {
+                if (!equipmentDAO.addEquipment(equipment)) {
+                    return false;
+                }
+                recorded(ledger.record(received(List.of(equipment)), Instant.now()));
+                DatabaseManager.afterCommit(() -> {
+                    catalog.put(equipment);
+                    aggregates.equipmentAdded(equipment);
+                    searchIndex.put(equipment);
+                    publish(new InventoryEvent.EquipmentAdded(new Equipment(equipment)));
+                });
+                return true;
+            }));
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error adding equipment");
+            return false;
+        }
     }
 
     public boolean updateEquipment(Equipment equipment) {
-        return equipmentDAO.updateEquipment(equipment);
+        OperationTimer timed = METRICS.start("updateEquipment");
+        Equipment before = catalog.get(equipment.getId());
+        try {
+            return timed.changed(inTransaction(() -> {
+                List<StockMovement> moved = recorded(ledger.recordChanges(List.of(equipment),
+                        StockMovement.Reason.ADJUSTMENT, Instant.now()));
+                if (!equipmentDAO.updateEquipment(equipment)) {
+                    if (!moved.isEmpty()) {
+                        throw new SQLException("Equipment " + equipment.getId() + " could not be updated");
+                    }
+                    return false;
+                }
+                DatabaseManager.afterCommit(() -> {
+                    catalog.put(equipment);
+                    aggregates.equipmentUpdated(before, equipment);
+                    searchIndex.put(equipment);
+                    demand.record(moved);
+                    publish(new InventoryEvent.EquipmentUpdated(before, new Equipment(equipment)));
+                });
+                return true;
+            }));
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error updating equipment");
+            return false;
+        }
+    }
+
+    public int addEquipmentBatch(List<Equipment> items) {
+        OperationTimer timed = METRICS.start("addEquipmentBatch");
+        try {
+            return timed.rowCount(addEquipmentBatchOrThrow(items));
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error adding equipment batch");
+            return 0;
+        }
+    }
+
+    // The CSV import reports a failed write against the rows it came from, so it needs the SQL error.
+    int addEquipmentBatchOrThrow(List<Equipment> items) throws SQLException {
+        return inTransaction(() -> {
+            int added = equipmentDAO.addEquipmentBatchOrThrow(items);
+            if (added == 0) {
+                return 0;
+            }
+            recorded(ledger.record(received(items), Instant.now()));
+            DatabaseManager.afterCommit(() -> {
+                for (Equipment equipment : items) {
+                    catalog.put(equipment);
+                    aggregates.equipmentAdded(equipment);
+                    searchIndex.put(equipment);
+                    publish(new InventoryEvent.EquipmentAdded(new Equipment(equipment)));
+                }
+            });
+            return added;
+        });
+    }
+
+    public int updateEquipmentBatch(List<Equipment> items) {
+        OperationTimer timed = METRICS.start("updateEquipmentBatch");
+        try {
+            return timed.rowCount(inTransaction(() -> {
+                List<StockMovement> moved = recorded(ledger.recordChanges(items, StockMovement.Reason.ADJUSTMENT,
+                        Instant.now()));
+                int updated = equipmentDAO.updateEquipmentBatch(items);
+                if (updated == 0) {
+                    if (!moved.isEmpty()) {
+                        throw new SQLException("Equipment batch could not be updated");
+                    }
+                    return 0;
+                }
+                DatabaseManager.afterCommit(() -> {
+                    for (Equipment equipment : items) {
+                        catalog.put(equipment);
+                        searchIndex.put(equipment);
+                        publish(new InventoryEvent.EquipmentUpdated(null, new Equipment(equipment)));
+                    }
+                    demand.record(moved);
+                    aggregates.invalidate();
+                });
+                return updated;
+            }));
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error updating equipment batch");
+            return 0;
+        }
     }
 
     public boolean deleteEquipment(int id) {
-        return equipmentDAO.deleteEquipment(id);
+        OperationTimer timed = METRICS.start("deleteEquipment");
+        Equipment before = catalog.get(id);
+        Equipment emptied = new Equipment();
+        emptied.setId(id);
+        emptied.setQuantity(0);
+        try {
+            return timed.changed(inTransaction(() -> {
+                List<StockMovement> moved = recorded(ledger.recordChanges(List.of(emptied),
+                        StockMovement.Reason.REMOVED, Instant.now()));
+                if (!equipmentDAO.deleteEquipment(id)) {
+                    if (!moved.isEmpty()) {
+                        throw new SQLException("Equipment " + id + " could not be deleted");
+                    }
+                    return false;
+                }
+                DatabaseManager.afterCommit(() -> {
+                    catalog.remove(id);
+                    aggregates.equipmentRemoved(before);
+                    searchIndex.remove(id);
+                    demand.record(moved);
+                    publish(new InventoryEvent.EquipmentDeleted(id, before));
+                });
+                return true;
+            }));
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error deleting equipment");
+            return false;
+        }
+    }
+
+    private static List<StockMovement> received(Collection<Equipment> items) {
+        List<StockMovement> movements = new ArrayList<>(items.size());
+        for (Equipment equipment : items) {
+            if (equipment.getQuantity() != 0) {
+                movements.add(StockMovement.of(equipment.getId(), equipment.getQuantity(),
+                        StockMovement.Reason.RECEIVED, null));
+            }
+        }
+        return movements;
+    }
+
+    private List<StockMovement> recorded(List<StockMovement> movements) throws SQLException {
+        if (movements == null) {
+            throw new SQLException("Stock movements could not be recorded");
+        }
+        snapshots.movementsRecorded(movements.size());
+        return movements;
+    }
+
+    public void invalidateCatalog() {
+        OperationTimer timed = METRICS.start("invalidateCatalog");
+        catalog.invalidate();
+        searchIndex.invalidate();
+        alerts.invalidate();
+        demand.invalidate();
+        timed.done();
+    }
+
+    public void reloadCatalog() {
+        OperationTimer timed = METRICS.start("reloadCatalog");
+        catalog.reload();
+        searchIndex.invalidate();
+        alerts.invalidate();
+        demand.invalidate();
+        timed.done();
+    }
+
+    public InventoryEventBus getEventBus() {
+        return events;
+    }
+
+    public AlertEngine getAlertEngine() {
+        return alerts;
+    }
+
+    // Changes how many days ahead an expiry date raises an alert; takes effect immediately, without a query.
+    public void setExpiryHorizonDays(int days) {
+        alerts.setExpiryHorizonDays(days);
+    }
+
+    public DemandForecaster getDemandForecaster() {
+        return demand;
+    }
+
+    public StockForecast getStockForecast(Equipment equipment) {
+        OperationTimer timed = METRICS.start("getStockForecast");
+        return timed.row(demand.forecast(equipment));
+    }
+
+    public Map<Integer, StockForecast> getStockForecasts(Collection<Equipment> items) {
+        OperationTimer timed = METRICS.start("getStockForecasts");
+        return timed.rows(demand.forecast(items));
+    }
+
+    public LedgerSnapshotter getLedgerSnapshotter() {
+        return snapshots;
+    }
+
+    // Stock of the item at the given time, reconstructed from the ledger. Returns -1 if the query failed.
+    public int getStockLevelAt(int equipmentId, Instant at) {
+        OperationTimer timed = METRICS.start("getStockLevelAt");
+        int quantity = ledger.getQuantityAt(equipmentId, at);
+        if (quantity < 0) {
+            timed.failed();
+        }
+        return timed.row(quantity);
+    }
+
+    // Stock of every item held at the given time, keyed by equipment id.
+    public Map<Integer, Integer> getStockLevelsAt(Instant at) {
+        OperationTimer timed = METRICS.start("getStockLevelsAt");
+        return timed.rows(ledger.getQuantitiesAt(at));
+    }
+
+    // Stock of every item held at the end of the given local day.
+    public Map<Integer, Integer> getStockLevelsOn(LocalDate date) {
+        OperationTimer timed = METRICS.start("getStockLevelsOn");
+        Instant endOfDay = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().minusMillis(1);
+        return timed.rows(ledger.getQuantitiesAt(endOfDay));
+    }
+
+    // The item's stock at from, followed by its stock after each movement up to to.
+    public List<StockLevel> getStockHistory(int equipmentId, Instant from, Instant to) {
+        OperationTimer timed = METRICS.start("getStockHistory");
+        List<StockLevel> history = new ArrayList<>();
+        int quantity = ledger.getQuantityAt(equipmentId, from.minusMillis(1));
+        if (quantity < 0) {
+            timed.failed();
+            return history;
+        }
+        history.add(new StockLevel(equipmentId, from, quantity, null));
+        for (StockMovement movement : ledger.getMovementsBetween(equipmentId, from, to)) {
+            quantity += movement.delta();
+            history.add(new StockLevel(equipmentId, movement.movedAt(), quantity, movement));
+        }
+        return timed.rows(history);
+    }
+
+    public SnapshotRun takeStockSnapshots() {
+        OperationTimer timed = METRICS.start("takeStockSnapshots");
+        return timed.row(snapshots.runNow());
+    }
+
+    public ReorderPolicy getReorderPolicy() {
+        return reorderPolicy;
+    }
+
+    public void setReorderPolicy(ReorderPolicy policy) {
+        reorderPolicy = policy;
+    }
+
+    public ReorderPlanner getReorderPlanner() {
+        return reorders;
+    }
+
+    public CatalogCacheStats getCatalogStats() {
+        return catalog.getStats();
     }
 
     public List<Equipment> searchEquipment(String searchTerm) {
-        return equipmentDAO.searchEquipment(searchTerm);
+        OperationTimer timed = METRICS.start("searchEquipment");
+        List<EquipmentSearchHit> hits = equipmentDAO.searchEquipmentRanked(searchTerm, SEARCH_LIMIT);
+        List<Equipment> results = new ArrayList<>(hits.size());
+        for (EquipmentSearchHit hit : hits) {
+            results.add(hit.equipment());
+        }
+        return timed.rows(results);
+    }
+
+    public int buildSearchIndex() {
+        OperationTimer timed = METRICS.start("buildSearchIndex");
+        searchIndex.rebuild(catalog::getAll);
+        return timed.rowCount(searchIndex.size());
+    }
+
+    public List<Equipment> typeaheadSearch(String query, int limit) {
+        OperationTimer timed = METRICS.start("typeaheadSearch");
+        if (!searchIndex.isBuilt()) {
+            buildSearchIndex();
+        }
+        List<Equipment> results = new ArrayList<>();
+        for (int id : searchIndex.search(query, limit)) {
+            Equipment equipment = catalog.get(id);
+            if (equipment != null) {
+                results.add(equipment);
+            }
+        }
+        return timed.rows(results);
+    }
+
+    public List<EquipmentSearchHit> searchEquipmentRanked(String searchTerm, int limit) {
+        OperationTimer timed = METRICS.start("searchEquipmentRanked");
+        return timed.rows(equipmentDAO.searchEquipmentRanked(searchTerm, limit));
+    }
+
+    public boolean rebuildSearchIndex() {
+        OperationTimer timed = METRICS.start("rebuildSearchIndex");
+        return timed.changed(equipmentDAO.rebuildSearchIndex());
     }
 
     public List<Equipment> getLowStockAlerts() {
-        return equipmentDAO.getLowStockEquipment();
+        OperationTimer timed = METRICS.start("getLowStockAlerts");
+        return timed.rows(alerts.getLowStockAlerts());
     }
 
     public List<Equipment> getExpiryAlerts() {
-        return equipmentDAO.getEquipmentNearExpiry();
+        OperationTimer timed = METRICS.start("getExpiryAlerts");
+        return timed.rows(alerts.getExpiryAlerts());
     }
 
     public int getLowStockCount() {
-        return getLowStockAlerts().size();
+        OperationTimer timed = METRICS.start("getLowStockCount");
+        return timed.row(aggregates.snapshot().lowStockCount());
     }
 
     public int getExpiryAlertCount() {
-        return getExpiryAlerts().size();
+        OperationTimer timed = METRICS.start("getExpiryAlertCount");
+        return timed.row(aggregates.snapshot().nearExpiryCount());
     }
 
     public List<Order> getAllOrders() {
-        return orderDAO.getAllOrders();
+        OperationTimer timed = METRICS.start("getAllOrders");
+        return timed.rows(orderDAO.getAllOrders());
     }
 
     public List<Order> getActiveOrders() {
-        return orderDAO.getActiveOrders();
+        OperationTimer timed = METRICS.start("getActiveOrders");
+        return timed.rows(orderDAO.getActiveOrders());
     }
 
     public Order getOrderById(int id) {
-        return orderDAO.getOrderById(id);
+        OperationTimer timed = METRICS.start("getOrderById");
+        return timed.row(orderDAO.getOrderById(id));
     }
 
     public boolean addOrder(Order order) {
-        return orderDAO.addOrder(order);
+        OperationTimer timed = METRICS.start("addOrder");
+        boolean added = orderDAO.addOrder(order);
+        if (added) {
+            DatabaseManager.afterCommit(() -> {
+                aggregates.orderAdded(order);
+                publish(new InventoryEvent.OrderPlaced(order));
+            });
+        }
+        return timed.changed(added);
     }
 
     public boolean updateOrder(Order order) {
-        return orderDAO.updateOrder(order);
+        OperationTimer timed = METRICS.start("updateOrder");
+        Order before = orderDAO.getOrderById(order.getId());
+        boolean updated = orderDAO.updateOrder(order);
+        if (updated) {
+            Order.OrderStatus previous = before != null ? before.getStatus() : null;
+            DatabaseManager.afterCommit(() -> {
+                aggregates.orderStatusChanged(previous, order.getStatus());
+                publish(new InventoryEvent.OrderStatusChanged(order, previous));
+            });
+        }
+        return timed.changed(updated);
     }
 
     public boolean deleteOrder(int id) {
-        return orderDAO.deleteOrder(id);
+        OperationTimer timed = METRICS.start("deleteOrder");
+        Order before = orderDAO.getOrderById(id);
+        boolean deleted = orderDAO.deleteOrder(id);
+        if (deleted) {
+            DatabaseManager.afterCommit(() -> {
+                aggregates.orderRemoved(before);
+                publish(new InventoryEvent.OrderDeleted(id));
+            });
+        }
+        return timed.changed(deleted);
     }
 
     public boolean updateOrderStatus(int orderId, Order.OrderStatus newStatus) {
-        return orderDAO.updateOrderStatus(orderId, newStatus);
+        OperationTimer timed = METRICS.start("updateOrderStatus");
+        Order before = orderDAO.getOrderById(orderId);
+        boolean updated = orderDAO.updateOrderStatus(orderId, newStatus);
+        if (updated) {
+            Order.OrderStatus previous = before != null ? before.getStatus() : null;
+            DatabaseManager.afterCommit(() -> {
+                aggregates.orderStatusChanged(previous, newStatus);
+                if (before != null) {
+                    before.setStatus(newStatus);
+                    publish(new InventoryEvent.OrderStatusChanged(before, previous));
+                }
+            });
+        }
+        return timed.changed(updated);
     }
 
+    // Marks the order delivered and restocks its equipment in one transaction. The stock is incremented in SQL, so
+    // concurrent deliveries never lose an update, and an order that is no longer active is left untouched.
     public boolean markOrderAsDelivered(int orderId, int equipmentId, int quantity) {
-        boolean orderUpdated = orderDAO.markAsDelivered(orderId);
-        
-        if (orderUpdated) {
-            Equipment equipment = equipmentDAO.getEquipmentById(equipmentId);
-            if (equipment != null) {
-                equipment.setQuantity(equipment.getQuantity() + quantity);
-                return equipmentDAO.updateEquipment(equipment);
+        OperationTimer timed = METRICS.start("markOrderAsDelivered");
+        try {
+            return timed.changed(inTransaction(() -> {
+                if (!orderDAO.markAsDelivered(orderId)) {
+                    return false;
+                }
+                int newQuantity = equipmentDAO.adjustQuantity(equipmentId, quantity);
+                if (newQuantity < 0) {
+                    throw new SQLException("Equipment " + equipmentId + " of order " + orderId + " could not be restocked");
+                }
+                recorded(ledger.record(List.of(StockMovement.of(equipmentId, quantity, StockMovement.Reason.DELIVERY,
+                        orderId)), Instant.now()));
+                DatabaseManager.afterCommit(() -> {
+                    aggregates.activeOrderClosed();
+                    publish(new InventoryEvent.OrderDelivered(orderId, equipmentId, quantity));
+                    quantityAdjusted(equipmentId, newQuantity, quantity);
+                });
+                return true;
+            }));
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("orderId", orderId)
+                    .field("millis", timed.elapsedMillis()).cause(e).log("Error delivering order");
+            return false;
+        }
+    }
+
+    // Delivers a set of orders in one transaction: the active ones are marked with a single statement and their
+    // stock increments are summed per equipment, so the cost grows with the number of equipment items rather than
+    // the number of orders. Either every delivery in the report is applied or, on error, none is.
+    public ReceiveReport receiveOrders(Collection<Integer> orderIds) {
+        OperationTimer timed = METRICS.start("receiveOrders");
+        long start = System.nanoTime();
+        Set<Integer> ids = new LinkedHashSet<>(orderIds);
+        Map<Integer, OrderReceipt> receipts = new HashMap<>();
+        int restocked;
+        try {
+            restocked = inTransaction(() -> {
+                List<Order> delivered = orderDAO.markAsDelivered(ids);
+                if (delivered == null) {
+                    throw new SQLException("Orders could not be marked as delivered");
+                }
+                Map<Integer, Integer> deltas = new TreeMap<>();
+                List<StockMovement> movements = new ArrayList<>(delivered.size());
+                for (Order order : delivered) {
+                    deltas.merge(order.getEquipmentId(), order.getQuantity(), Integer::sum);
+                    movements.add(StockMovement.of(order.getEquipmentId(), order.getQuantity(),
+                            StockMovement.Reason.DELIVERY, order.getId()));
+                    receipts.put(order.getId(), new OrderReceipt(order.getId(), OrderReceipt.Outcome.DELIVERED,
+                            order.getEquipmentId(), order.getQuantity()));
+                }
+                Map<Integer, Integer> quantities = equipmentDAO.adjustQuantities(deltas);
+                if (quantities == null || quantities.size() != deltas.size()) {
+                    throw new SQLException("Equipment of the delivered orders could not be restocked");
+                }
+                recorded(ledger.record(movements, Instant.now()));
+
+                List<Integer> skipped = new ArrayList<>();
+                for (int id : ids) {
+                    if (!receipts.containsKey(id)) {
+                        skipped.add(id);
+                    }
+                }
+                for (Order order : orderDAO.getOrdersByIds(skipped)) {
+                    receipts.put(order.getId(), new OrderReceipt(order.getId(), skippedOutcome(order.getStatus()),
+                            order.getEquipmentId(), order.getQuantity()));
+                }
+
+                DatabaseManager.afterCommit(() -> {
+                    for (Order order : delivered) {
+                        aggregates.activeOrderClosed();
+                        publish(new InventoryEvent.OrderDelivered(order.getId(), order.getEquipmentId(),
+                                order.getQuantity()));
+                    }
+                    quantities.forEach((equipmentId, quantity) ->
+                            quantityAdjusted(equipmentId, quantity, deltas.get(equipmentId)));
+                });
+                return quantities.size();
+            });
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error receiving orders");
+            receipts.clear();
+            for (int id : ids) {
+                receipts.put(id, new OrderReceipt(id, OrderReceipt.Outcome.FAILED, 0, 0));
             }
+            restocked = 0;
+        }
+
+        List<OrderReceipt> report = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            report.add(receipts.getOrDefault(id, new OrderReceipt(id, OrderReceipt.Outcome.NOT_FOUND, 0, 0)));
+        }
+        timed.rows(report);
+        return new ReceiveReport(report, restocked, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public ReorderPlan planReorders() {
+        return planReorders(reorderPolicy);
+    }
+
+    // Proposes orders for the low-stock items without placing them.
+    public ReorderPlan planReorders(ReorderPolicy policy) {
+        OperationTimer timed = METRICS.start("planReorders");
+        ReorderPlan plan = reorders.plan(policy);
+        timed.rows(plan.orders());
+        return plan;
+    }
+
+    // Places the orders of the plan as one batch: either all of them are inserted or, on error, none is. An order
+    // for equipment that has had units ordered since the plan was made, by another user or by placing the same
+    // plan twice, is left out rather than ordered again. Returns the number placed, or -1 on error.
+    public int placeReorders(ReorderPlan plan) {
+        OperationTimer timed = METRICS.start("placeReorders");
+        try {
+            return timed.rowCount(inTransaction(() -> {
+                Map<Integer, Integer> onOrder = orderDAO.getActiveQuantitiesForUpdate();
+                if (onOrder == null) {
+                    throw new SQLException("Could not read the quantities on active orders");
+                }
+                List<Order> orders = new ArrayList<>();
+                for (Order order : plan.orders()) {
+                    int equipmentId = order.getEquipmentId();
+                    if (onOrder.getOrDefault(equipmentId, 0) <= plan.onOrder().getOrDefault(equipmentId, 0)) {
+                        orders.add(order);
+                    }
+                }
+                if (orders.isEmpty()) {
+                    return 0;
+                }
+                if (orderDAO.addOrderBatch(orders) != orders.size()) {
+                    throw new SQLException("Could not insert " + orders.size() + " reorders");
+                }
+                DatabaseManager.afterCommit(() -> {
+                    for (Order order : orders) {
+                        aggregates.orderAdded(order);
+                        publish(new InventoryEvent.OrderPlaced(order));
+                    }
+                });
+                return orders.size();
+            }));
+        } catch (SQLException e) {
+            timed.failed();
+            LOG.atError().field("operation", timed.getOperation()).field("millis", timed.elapsedMillis())
+                    .cause(e).log("Error placing reorders");
+            return -1;
         }
-        return false;
+    }
+
+    private static OrderReceipt.Outcome skippedOutcome(Order.OrderStatus status) {
+        return switch (status) {
+            case DELIVERED -> OrderReceipt.Outcome.ALREADY_DELIVERED;
+            case CANCELLED -> OrderReceipt.Outcome.CANCELLED;
+            default -> OrderReceipt.Outcome.EQUIPMENT_MISSING;
+        };
+    }
+
+    // Runs work as a single database transaction; service writes made inside it commit or roll back together,
+    // and their cache updates only happen once it commits.
+    public <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        return DatabaseManager.inTransaction(work);
+    }
+
+    // The alert engine sees every change first so events and alert queries made by subscribers agree.
+    private void publish(InventoryEvent event) {
+        alerts.apply(event);
+        events.publish(event);
+    }
+
+    private void quantityAdjusted(int equipmentId, int newQuantity, int delta) {
+        Equipment after = catalog.get(equipmentId);
+        if (after == null) {
+            return;
+        }
+        Equipment before = new Equipment(after);
+        before.setQuantity(newQuantity - delta);
+        after.setQuantity(newQuantity);
+        catalog.put(after);
+        aggregates.equipmentUpdated(before, after);
+        publish(new InventoryEvent.EquipmentUpdated(before, after));
     }
 
     public int getActiveOrderCount() {
-        return getActiveOrders().size();
+        OperationTimer timed = METRICS.start("getActiveOrderCount");
+        return timed.row(aggregates.snapshot().activeOrderCount());
     }
 
     public int getTotalEquipmentTypes() {
-        return getAllEquipment().size();
+        OperationTimer timed = METRICS.start("getTotalEquipmentTypes");
+        return timed.row(aggregates.snapshot().equipmentTypes());
+    }
+
+    public long getTotalEquipmentQuantity() {
+        OperationTimer timed = METRICS.start("getTotalEquipmentQuantity");
+        return timed.row(aggregates.snapshot().totalQuantity());
+    }
+
+    public double getTotalInventoryValue() {
+        OperationTimer timed = METRICS.start("getTotalInventoryValue");
+        return timed.row(aggregates.snapshot().totalValue());
+    }
+
+    public DashboardSnapshot getDashboardSnapshot() {
+        OperationTimer timed = METRICS.start("getDashboardSnapshot");
+        return timed.row(aggregates.snapshot());
     }
 
-    public int getTotalEquipmentQuantity() {
-        return getAllEquipment().stream()
-                .mapToInt(Equipment::getQuantity)
-                .sum();
+    public List<String> reconcileDashboard() {
+        OperationTimer timed = METRICS.start("reconcileDashboard");
+        return timed.rows(aggregates.reconcile());
     }
 }
@@ -0,0 +1,107 @@
+package com.labinventory.service;
+
+import com.labinventory.database.SnapshotRun;
+import com.labinventory.database.StockLedgerDAO;
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Takes stock snapshots in the background once started: every interval, and early when enough movements have been
+// recorded since the last run. A point-in-time stock query then only adds up the movements after the latest
+// snapshot, which is about one interval's worth for a busy item and fewer than MIN_MOVEMENTS for a quiet one.
+public class LedgerSnapshotter {
+    private static final Logger LOG = Log.getLogger(LedgerSnapshotter.class);
+
+    public static final String INTERVAL_PROPERTY = "labinventory.ledger.snapshotIntervalMinutes";
+    public static final long DEFAULT_INTERVAL_MINUTES = 60;
+    public static final long DEFAULT_RUN_AFTER_MOVEMENTS = 50_000;
+    // Items with fewer movements since their last snapshot wait for a later run.
+    public static final int MIN_MOVEMENTS = 16;
+
+    private final StockLedgerDAO ledger;
+    private final long intervalMinutes;
+    private final long runAfterMovements;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicBoolean runQueued = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+    private volatile SnapshotRun lastRun;
+
+    public LedgerSnapshotter(StockLedgerDAO ledger) {
+        this(ledger, intervalFromSystemProperty(), DEFAULT_RUN_AFTER_MOVEMENTS);
+    }
+
+    public LedgerSnapshotter(StockLedgerDAO ledger, long intervalMinutes, long runAfterMovements) {
+        this.ledger = ledger;
+        this.intervalMinutes = intervalMinutes;
+        this.runAfterMovements = runAfterMovements;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runNow, 0, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    // Counts movements written to the ledger and queues an early run once enough have built up.
+    public void movementsRecorded(int count) {
+        if (pending.addAndGet(count) < runAfterMovements || !runQueued.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (this) {
+            if (scheduler == null) {
+                runQueued.set(false);
+                return;
+            }
+            scheduler.execute(this::runNow);
+        }
+    }
+
+    // Runs a snapshot pass on the calling thread. Returns null if it failed.
+    public SnapshotRun runNow() {
+        runQueued.set(false);
+        pending.set(0);
+        SnapshotRun run = ledger.takeSnapshots(MIN_MOVEMENTS);
+        if (run != null) {
+            lastRun = run;
+            if (run.snapshots() > 0) {
+                LOG.atInfo().field("snapshots", run.snapshots()).field("movements", run.movementsCovered())
+                        .field("millis", run.elapsedMillis()).log("Stock snapshots taken");
+            }
+        }
+        return run;
+    }
+
+    public SnapshotRun getLastRun() {
+        return lastRun;
+    }
+
+    public long getPendingMovements() {
+        return pending.get();
+    }
+
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private static long intervalFromSystemProperty() {
+        String value = System.getProperty(INTERVAL_PROPERTY);
+        if (value == null || value.isBlank()) {
+            return DEFAULT_INTERVAL_MINUTES;
+        }
+        return Long.parseLong(value.trim());
+    }
+}
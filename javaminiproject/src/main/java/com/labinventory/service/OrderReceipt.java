@@ -0,0 +1,18 @@
+package com.labinventory.service;
+
+public record OrderReceipt(int orderId, Outcome outcome, int equipmentId, int quantity) {
+
+    public enum Outcome {
+        DELIVERED,
+        ALREADY_DELIVERED,
+        CANCELLED,
+        NOT_FOUND,
+        EQUIPMENT_MISSING,
+        FAILED
+    }
+
+    @Override
+    public String toString() {
+        return "Order " + orderId + ": " + outcome;
+    }
+}
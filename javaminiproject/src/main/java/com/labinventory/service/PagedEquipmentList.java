@@ -0,0 +1,132 @@
+package com.labinventory.service;
+
+import com.labinventory.database.EquipmentPageKey;
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.model.Equipment;
+import com.labinventory.model.EquipmentSort;
+import javafx.collections.ObservableListBase;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+// Read-only list of a fixed size whose rows are fetched page by page as the ListView asks for them.
+// Rows that are not resident yet read as null until their page arrives. Must be used from the JavaFX thread.
+public class PagedEquipmentList extends ObservableListBase<Equipment> {
+    private static final Logger LOG = Log.getLogger(PagedEquipmentList.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    public static final int DEFAULT_MAX_RESIDENT_PAGES = 8;
+
+    @FunctionalInterface
+    public interface PageLoader {
+        CompletableFuture<List<Equipment>> load(EquipmentSort sort, EquipmentPageKey after, int offset, int limit);
+    }
+
+    private final EquipmentSort sort;
+    private final int size;
+    private final PageLoader loader;
+    private final int pageSize;
+    private final int maxResidentPages;
+
+    private final Map<Integer, List<Equipment>> resident;
+    private final Map<Integer, EquipmentPageKey> pageEnds = new HashMap<>();
+    private final Set<Integer> requested = new HashSet<>();
+    private int pagesLoaded = 0;
+
+    public PagedEquipmentList(EquipmentSort sort, int size, PageLoader loader) {
+        this(sort, size, loader, DEFAULT_PAGE_SIZE, DEFAULT_MAX_RESIDENT_PAGES);
+    }
+
+    public PagedEquipmentList(EquipmentSort sort, int size, PageLoader loader, int pageSize, int maxResidentPages) {
+        this.sort = sort;
+        this.size = size;
+        this.loader = loader;
+        this.pageSize = pageSize;
+        this.maxResidentPages = maxResidentPages;
+        this.resident = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Equipment>> eldest) {
+                return size() > PagedEquipmentList.this.maxResidentPages;
+            }
+        };
+    }
+
+    public PagedEquipmentList resorted(EquipmentSort newSort) {
+        return new PagedEquipmentList(newSort, size, loader, pageSize, maxResidentPages);
+    }
+
+    public EquipmentSort getSort() {
+        return sort;
+    }
+
+    @Override
+    public Equipment get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        int page = index / pageSize;
+        List<Equipment> items = resident.get(page);
+        if (items == null) {
+            requestPage(page);
+            return null;
+        }
+        int offset = index % pageSize;
+        return offset < items.size() ? items.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int getResidentCount() {
+        int count = 0;
+        for (List<Equipment> items : resident.values()) {
+            count += items.size();
+        }
+        return count;
+    }
+
+    public int getPagesLoaded() {
+        return pagesLoaded;
+    }
+
+    private void requestPage(int page) {
+        if (!requested.add(page)) {
+            return;
+        }
+        // Continue from the previous page's last key when we have it; a jump far ahead falls back to OFFSET.
+        EquipmentPageKey after = page == 0 ? null : pageEnds.get(page - 1);
+        loader.load(sort, after, page * pageSize, pageSize)
+                .thenAccept(items -> pageLoaded(page, items))
+                .exceptionally(error -> {
+                    requested.remove(page);
+                    LOG.atWarn().field("page", page).cause(error).log("Error loading equipment page");
+                    return null;
+                });
+    }
+
+    private void pageLoaded(int page, List<Equipment> items) {
+        requested.remove(page);
+        resident.put(page, items);
+        pagesLoaded++;
+        if (!items.isEmpty()) {
+            pageEnds.put(page, EquipmentPageKey.after(sort, items.get(items.size() - 1)));
+        }
+
+        int from = page * pageSize;
+        int to = Math.min(from + pageSize, size);
+        if (from < to) {
+            beginChange();
+            nextReplace(from, to, Collections.nCopies(to - from, null));
+            endChange();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.labinventory.service;
+
+import java.util.List;
+
+public record ReceiveReport(List<OrderReceipt> receipts, int equipmentRestocked, long elapsedMillis) {
+
+    public int count(OrderReceipt.Outcome outcome) {
+        int count = 0;
+        for (OrderReceipt receipt : receipts) {
+            if (receipt.outcome() == outcome) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int delivered() {
+        return count(OrderReceipt.Outcome.DELIVERED);
+    }
+
+    public double ordersPerSecond() {
+        return elapsedMillis == 0 ? delivered() * 1000.0 : delivered() * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ReceiveReport{" +
+                "orders=" + receipts.size() +
+                ", delivered=" + delivered() +
+                ", equipmentRestocked=" + equipmentRestocked +
+                ", elapsedMillis=" + elapsedMillis +
+                ", ordersPerSecond=" + String.format("%.0f", ordersPerSecond()) +
+                '}';
+    }
+}
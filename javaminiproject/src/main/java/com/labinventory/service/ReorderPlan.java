@@ -0,0 +1,56 @@
+package com.labinventory.service;
+
+import com.labinventory.model.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Orders proposed by ReorderPlanner, grouped by supplier name ("" for items without one). coveredItems counts the
+// low-stock items that need nothing because active orders already lift them above their lower limit. onOrder is
+// the units on active orders per equipment id that the plan was netted against.
+public record ReorderPlan(Map<String, List<Order>> ordersBySupplier, Map<Integer, Integer> onOrder,
+                          int lowStockItems, int coveredItems, long elapsedMillis) {
+
+    public List<Order> orders() {
+        List<Order> orders = new ArrayList<>();
+        for (List<Order> supplierOrders : ordersBySupplier.values()) {
+            orders.addAll(supplierOrders);
+        }
+        return orders;
+    }
+
+    public int orderCount() {
+        int count = 0;
+        for (List<Order> supplierOrders : ordersBySupplier.values()) {
+            count += supplierOrders.size();
+        }
+        return count;
+    }
+
+    public double totalCost() {
+        double total = 0;
+        for (List<Order> supplierOrders : ordersBySupplier.values()) {
+            for (Order order : supplierOrders) {
+                total += order.getTotalCost();
+            }
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return ordersBySupplier.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ReorderPlan{" +
+                "lowStockItems=" + lowStockItems +
+                ", coveredItems=" + coveredItems +
+                ", orders=" + orderCount() +
+                ", suppliers=" + ordersBySupplier.size() +
+                ", totalCost=" + String.format("%.2f", totalCost()) +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
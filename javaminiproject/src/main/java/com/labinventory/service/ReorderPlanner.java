@@ -0,0 +1,62 @@
+package com.labinventory.service;
+
+import com.labinventory.model.Equipment;
+import com.labinventory.model.Order;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+// Turns the low-stock items into one PENDING order each, net of the units already on active orders for the same
+// equipment. Both inputs are read once per plan and the rest is a single pass with map lookups, so planning stays
+// linear in the number of low-stock items.
+public class ReorderPlanner {
+    public static final int DEFAULT_LEAD_TIME_DAYS = 10;
+
+    private final Supplier<List<Equipment>> lowStock;
+    private final Supplier<Map<Integer, Integer>> onOrder;
+    private int leadTimeDays = DEFAULT_LEAD_TIME_DAYS;
+
+    public ReorderPlanner(Supplier<List<Equipment>> lowStock, Supplier<Map<Integer, Integer>> onOrder) {
+        this.lowStock = lowStock;
+        this.onOrder = onOrder;
+    }
+
+    public int getLeadTimeDays() {
+        return leadTimeDays;
+    }
+
+    public void setLeadTimeDays(int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Lead time must not be negative: " + days);
+        }
+        leadTimeDays = days;
+    }
+
+    public ReorderPlan plan(ReorderPolicy policy) {
+        long start = System.nanoTime();
+        List<Equipment> items = lowStock.get();
+        Map<Integer, Integer> covered = onOrder.get();
+        LocalDate today = LocalDate.now();
+        LocalDate expected = today.plusDays(leadTimeDays);
+
+        Map<String, List<Order>> bySupplier = new TreeMap<>();
+        int coveredItems = 0;
+        for (Equipment equipment : items) {
+            int quantity = policy.reorderQuantity(equipment, covered.getOrDefault(equipment.getId(), 0),
+                    leadTimeDays);
+            if (quantity <= 0) {
+                coveredItems++;
+                continue;
+            }
+            String supplier = equipment.getSupplier() != null ? equipment.getSupplier().trim() : "";
+            Order order = new Order(0, equipment.getId(), equipment.getName(), quantity, today, expected, null,
+                    Order.OrderStatus.PENDING, supplier, quantity * equipment.getUnitPrice());
+            bySupplier.computeIfAbsent(supplier, key -> new ArrayList<>()).add(order);
+        }
+        return new ReorderPlan(bySupplier, covered, items.size(), coveredItems, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,80 @@
+package com.labinventory.service;
+
+import com.labinventory.model.Equipment;
+
+// How much to reorder for an item whose stock position (quantity in stock plus units already on active orders) is
+// at or below its lower limit. Items above their lower limit once active orders are counted are never reordered.
+// leadTimeDays is the planner's lead time, the days until an order placed now is expected to arrive.
+public sealed interface ReorderPolicy {
+    String POLICY_PROPERTY = "labinventory.reorder.policy";
+
+    int reorderQuantity(Equipment equipment, int onOrder, int leadTimeDays);
+
+    // Orders up to maxFactor times the lower limit.
+    record MinMax(double maxFactor) implements ReorderPolicy {
+        public static final double DEFAULT_MAX_FACTOR = 2.0;
+
+        public MinMax {
+            if (maxFactor < 1.0) {
+                throw new IllegalArgumentException("Max factor must be at least 1: " + maxFactor);
+            }
+        }
+
+        public int reorderQuantity(Equipment equipment, int onOrder, int leadTimeDays) {
+            int position = equipment.getQuantity() + onOrder;
+            if (position > equipment.getLowerLimit()) {
+                return 0;
+            }
+            int maxLevel = (int) Math.ceil(equipment.getLowerLimit() * maxFactor);
+            return Math.max(maxLevel, equipment.getLowerLimit() + 1) - position;
+        }
+    }
+
+    // Orders the economic order quantity sqrt(2DS/H), where S is the cost of placing one order and H is the yearly
+    // cost of holding a unit, holdingRate times its unit price. There is no usage history, so the yearly demand D
+    // is taken to be the lower limit used up once every lead time, counting a lead time under a day as one day. The
+    // order always lifts the position above the lower limit.
+    record EconomicOrderQuantity(double orderCost, double holdingRate) implements ReorderPolicy {
+        public static final double DEFAULT_ORDER_COST = 500.0;
+        public static final double DEFAULT_HOLDING_RATE = 0.25;
+
+        public EconomicOrderQuantity {
+            if (orderCost < 0 || holdingRate <= 0) {
+                throw new IllegalArgumentException("Order cost and holding rate must be positive");
+            }
+        }
+
+        public int reorderQuantity(Equipment equipment, int onOrder, int leadTimeDays) {
+            int position = equipment.getQuantity() + onOrder;
+            if (position > equipment.getLowerLimit()) {
+                return 0;
+            }
+            int shortfall = equipment.getLowerLimit() + 1 - position;
+            double holdingCost = equipment.getUnitPrice() * holdingRate;
+            if (holdingCost <= 0) {
+                return shortfall;
+            }
+            double yearlyDemand = equipment.getLowerLimit() * 365.0 / Math.max(leadTimeDays, 1);
+            int economic = (int) Math.ceil(Math.sqrt(2 * yearlyDemand * orderCost / holdingCost));
+            return Math.max(economic, shortfall);
+        }
+    }
+
+    static ReorderPolicy minMax() {
+        return new MinMax(MinMax.DEFAULT_MAX_FACTOR);
+    }
+
+    static ReorderPolicy economicOrderQuantity() {
+        return new EconomicOrderQuantity(EconomicOrderQuantity.DEFAULT_ORDER_COST,
+                EconomicOrderQuantity.DEFAULT_HOLDING_RATE);
+    }
+
+    // "eoq" selects the economic order quantity; anything else, or nothing, selects min/max.
+    static ReorderPolicy fromSystemProperty() {
+        String value = System.getProperty(POLICY_PROPERTY);
+        if (value != null && value.trim().equalsIgnoreCase("eoq")) {
+            return economicOrderQuantity();
+        }
+        return minMax();
+    }
+}
@@ -0,0 +1,22 @@
+package com.labinventory.service;
+
+// Recent usage of an equipment item and how long its stock lasts at that rate. dailyUsage is the smoothed usage
+// per day; daysUntilStockout is infinite when there has been no usage.
+public record StockForecast(int equipmentId, int usedToday, int usedLast7Days, int usedLast28Days,
+                            double dailyUsage, double daysUntilStockout) {
+
+    public boolean hasUsage() {
+        return dailyUsage > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "StockForecast{" +
+                "equipmentId=" + equipmentId +
+                ", usedLast7Days=" + usedLast7Days +
+                ", usedLast28Days=" + usedLast28Days +
+                ", dailyUsage=" + String.format("%.2f", dailyUsage) +
+                ", daysUntilStockout=" + (hasUsage() ? String.format("%.1f", daysUntilStockout) : "-") +
+                '}';
+    }
+}
@@ -0,0 +1,14 @@
+package com.labinventory.service;
+
+import com.labinventory.model.StockMovement;
+
+import java.time.Instant;
+
+// The stock of an item right after a movement; movement is null for the level at the start of a history.
+public record StockLevel(int equipmentId, Instant at, int quantity, StockMovement movement) {
+
+    @Override
+    public String toString() {
+        return quantity + " at " + at + (movement == null ? "" : " after " + movement.reason() + " " + movement.delta());
+    }
+}
@@ -0,0 +1,333 @@
+package com.labinventory.service;
+
+import com.labinventory.logging.Log;
+import com.labinventory.logging.Logger;
+import com.labinventory.model.Equipment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Substring index over name, category, location and supplier. Every distinct three-character sequence maps to
+// the sorted ids containing it; a query intersects its trigrams' id lists and then confirms the real substring.
+public class TrigramSearchIndex {
+    private static final Logger LOG = Log.getLogger(TrigramSearchIndex.class);
+
+    private static final int[] FIELD_WEIGHTS = {8, 4, 2, 1};
+    private static final Comparator<Match> RANKING = (a, b) -> a.ranksBefore(b) ? -1 : b.ranksBefore(a) ? 1 : 0;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IdList> postings = new HashMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private boolean built = false;
+
+    public void rebuild(Supplier<? extends Collection<Equipment>> source) {
+        lock.writeLock().lock();
+        try {
+            long start = System.nanoTime();
+            postings.clear();
+            documents.clear();
+            for (Equipment equipment : source.get()) {
+                add(equipment);
+            }
+            built = true;
+            LOG.atInfo().field("rows", documents.size()).field("trigrams", postings.size())
+                    .field("millis", (System.nanoTime() - start) / 1_000_000).log("Trigram search index built");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Equipment equipment) {
+        lock.writeLock().lock();
+        try {
+            if (built) {
+                removeDocument(equipment.getId());
+                add(equipment);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (built) {
+                removeDocument(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            built = false;
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isBuilt() {
+        lock.readLock().lock();
+        try {
+            return built;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Integer> search(String query, int limit) {
+        String term = query == null ? "" : fold(query.trim());
+        if (term.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Keep only the best `limit` matches in a heap whose head is the weakest one kept.
+            PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, (a, b) -> RANKING.compare(b, a));
+            if (term.length() < 3) {
+                for (Document document : documents.values()) {
+                    offer(best, limit, document, term);
+                }
+            } else {
+                for (int id : candidates(term)) {
+                    offer(best, limit, documents.get(id), term);
+                }
+            }
+
+            Match[] ranked = best.toArray(new Match[0]);
+            Arrays.sort(ranked, RANKING);
+            List<Integer> ids = new ArrayList<>(ranked.length);
+            for (Match match : ranked) {
+                ids.add(match.id());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] candidates(String term) {
+        long[] keys = trigrams(term);
+        IdList[] lists = new IdList[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            lists[i] = postings.get(keys[i]);
+            if (lists[i] == null) {
+                return new int[0];
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        int[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int count = result.length;
+        for (int i = 1; i < lists.length && count > 0; i++) {
+            count = lists[i].size > count * 16 ? retainBySearch(result, count, lists[i])
+                    : retainByMerge(result, count, lists[i]);
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int retainByMerge(int[] result, int count, IdList other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < other.size; i++) {
+            while (j < other.size && other.ids[j] < result[i]) {
+                j++;
+            }
+            if (j < other.size && other.ids[j] == result[i]) {
+                result[kept++] = result[i];
+            }
+        }
+        return kept;
+    }
+
+    private static int retainBySearch(int[] result, int count, IdList other) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (other.contains(result[i])) {
+                result[kept++] = result[i];
+            }
+        }
+        return kept;
+    }
+
+    private static void offer(PriorityQueue<Match> best, int limit, Document document, String term) {
+        int score = score(document, term);
+        if (score == 0) {
+            return;
+        }
+        Match match = new Match(document.id(), score);
+        if (best.size() < limit) {
+            best.add(match);
+        } else if (match.ranksBefore(best.peek())) {
+            best.poll();
+            best.add(match);
+        }
+    }
+
+    private static int score(Document document, String term) {
+        // Fields are stored as one newline-separated string; score the first hit in each field.
+        String text = document.text();
+        int score = 0;
+        int field = -1;
+        int at = text.indexOf(term);
+        while (at >= 0) {
+            int hitField = fieldAt(document.fieldEnds(), at);
+            if (hitField != field) {
+                field = hitField;
+                char before = at == 0 ? '\n' : text.charAt(at - 1);
+                int position = before == '\n' ? 3 : Character.isLetterOrDigit(before) ? 1 : 2;
+                score += FIELD_WEIGHTS[field] * position;
+            }
+            at = text.indexOf(term, at + 1);
+        }
+        return score;
+    }
+
+    private static int fieldAt(int[] fieldEnds, int position) {
+        int field = 0;
+        while (position > fieldEnds[field]) {
+            field++;
+        }
+        return field;
+    }
+
+    private void add(Equipment equipment) {
+        String[] fields = {
+            fold(equipment.getName()), fold(equipment.getCategory()),
+            fold(equipment.getLocation()), fold(equipment.getSupplier())
+        };
+        int[] fieldEnds = new int[fields.length];
+        int end = -1;
+        for (int f = 0; f < fields.length; f++) {
+            end += fields[f].length() + 1;
+            fieldEnds[f] = end;
+        }
+        String text = String.join("\n", fields);
+        long[] keys = trigrams(text);
+        documents.put(equipment.getId(), new Document(equipment.getId(), text, fieldEnds, keys));
+        for (long key : keys) {
+            postings.computeIfAbsent(key, k -> new IdList()).add(equipment.getId());
+        }
+    }
+
+    private void removeDocument(int id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (long key : document.trigrams()) {
+            IdList ids = postings.get(key);
+            if (ids != null && ids.remove(id) && ids.size == 0) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] keys = new long[text.length() - 2];
+        int count = 0;
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            char a = text.charAt(i);
+            char b = text.charAt(i + 1);
+            char c = text.charAt(i + 2);
+            if (a == '\n' || b == '\n' || c == '\n') {
+                continue;
+            }
+            keys[count++] = ((long) a << 32) | ((long) b << 16) | c;
+        }
+        Arrays.sort(keys, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || keys[i] != keys[distinct - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    private static String fold(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private record Document(int id, String text, int[] fieldEnds, long[] trigrams) {
+    }
+
+    private record Match(int id, int score) {
+        boolean ranksBefore(Match other) {
+            return score != other.score ? score > other.score : id < other.id;
+        }
+    }
+
+    private static class IdList {
+        private int[] ids = new int[4];
+        private int size = 0;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] < id) {
+                append(id);
+                return;
+            }
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            int insertAt = -at - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void append(int id) {
+            ensureCapacity();
+            ids[size++] = id;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.labinventory.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlScriptReaderTest {
+
+    @Test
+    void semicolonsInsideQuotesDoNotEndStatements() throws IOException {
+        List<SqlScriptReader.Statement> statements = read("""
+                INSERT INTO t VALUES ('a;b', 'it''s; here');
+                SELECT "odd;name", `back;tick`, [square;bracket] FROM t;
+                """);
+
+        assertEquals(List.of(
+                new SqlScriptReader.Statement("INSERT INTO t VALUES ('a;b', 'it''s; here')", 1),
+                new SqlScriptReader.Statement("SELECT \"odd;name\", `back;tick`, [square;bracket] FROM t", 2)),
+                statements);
+    }
+
+    @Test
+    void commentsAreDroppedAndDoNotEndStatements() throws IOException {
+        List<SqlScriptReader.Statement> statements = read("""
+                -- leading comment; with a semicolon
+                SELECT 1 -- trailing; comment
+                ;
+                /* block; comment
+                   over two lines */ SELECT 2;
+                SELECT '-- not a comment', '/* nor this */';
+                """);
+
+        assertEquals(3, statements.size());
+        assertEquals(new SqlScriptReader.Statement("SELECT 1", 2), statements.get(0));
+        assertEquals(new SqlScriptReader.Statement("SELECT 2", 5), statements.get(1));
+        assertEquals(new SqlScriptReader.Statement("SELECT '-- not a comment', '/* nor this */'", 6),
+                statements.get(2));
+    }
+
+    @Test
+    void triggerBodyIsOneStatement() throws IOException {
+        List<SqlScriptReader.Statement> statements = read("""
+                CREATE TRIGGER t_insert AFTER INSERT ON t BEGIN
+                    INSERT INTO log VALUES (new.id, 'inserted; ok');
+                    UPDATE totals SET n = n + 1;
+                END;
+                SELECT 3;
+                """);
+
+        assertEquals(2, statements.size());
+        assertTrue(statements.get(0).sql().startsWith("CREATE TRIGGER t_insert"));
+        assertTrue(statements.get(0).sql().endsWith("END"));
+        assertEquals(1, statements.get(0).line());
+        assertEquals(new SqlScriptReader.Statement("SELECT 3", 5), statements.get(1));
+    }
+
+    @Test
+    void caseExpressionDoesNotCloseTriggerBody() throws IOException {
+        List<SqlScriptReader.Statement> statements = read("""
+                CREATE TEMP TRIGGER t_update AFTER UPDATE ON t
+                WHEN CASE WHEN new.q > old.q THEN 1 ELSE 0 END
+                BEGIN
+                    UPDATE t SET a = CASE WHEN new.q > 0 THEN 1 ELSE 0 END;
+                    UPDATE t SET b = case when new.q < 0 then 1 else 0 end;
+                END;
+                SELECT 4;
+                """);
+
+        assertEquals(2, statements.size());
+        assertTrue(statements.get(0).sql().contains("SET b = case"));
+        assertTrue(statements.get(0).sql().endsWith("END"));
+        assertEquals(new SqlScriptReader.Statement("SELECT 4", 7), statements.get(1));
+    }
+
+    @Test
+    void wordsThatOnlyContainKeywordsAreIgnored() throws IOException {
+        List<SqlScriptReader.Statement> statements = read("""
+                CREATE TRIGGER t_legend AFTER INSERT ON t BEGIN
+                    UPDATE t SET legend_end = 'END', cased = begins_at;
+                END;
+                SELECT 5;
+                """);
+
+        assertEquals(2, statements.size());
+        assertEquals(new SqlScriptReader.Statement("SELECT 5", 4), statements.get(1));
+    }
+
+    @Test
+    void emptyStatementsAreSkippedAndLastStatementNeedsNoSemicolon() throws IOException {
+        List<SqlScriptReader.Statement> statements = read(";;\n\n  ;\nSELECT 6;\n\nSELECT 7");
+
+        assertEquals(List.of(new SqlScriptReader.Statement("SELECT 6", 4),
+                new SqlScriptReader.Statement("SELECT 7", 6)), statements);
+    }
+
+    @Test
+    void unterminatedQuoteReportsItsLine() {
+        IOException error = assertThrows(IOException.class, () -> read("SELECT 1;\nSELECT 'open;\nSELECT 2;\n"));
+
+        assertEquals("Unterminated quoted text starting on line 2", error.getMessage());
+    }
+
+    private static List<SqlScriptReader.Statement> read(String script) throws IOException {
+        List<SqlScriptReader.Statement> statements = new ArrayList<>();
+        try (SqlScriptReader reader = new SqlScriptReader(new StringReader(script))) {
+            SqlScriptReader.Statement statement;
+            while ((statement = reader.next()) != null) {
+                statements.add(statement);
+            }
+        }
+        return statements;
+    }
+}
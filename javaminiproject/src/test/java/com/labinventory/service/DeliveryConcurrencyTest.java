@@ -0,0 +1,134 @@
+package com.labinventory.service;
+
+import com.labinventory.database.DatabaseManager;
+import com.labinventory.database.EquipmentDAO;
+import com.labinventory.database.OrderDAO;
+import com.labinventory.model.Equipment;
+import com.labinventory.model.Order;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Every order is delivered by two attempts racing on different threads. Exactly one may win, and each winner's
+// stock increment must reach the database, the catalog cache, the ledger and the dashboard totals.
+class DeliveryConcurrencyTest {
+    private static final int EQUIPMENT_ITEMS = 4;
+    private static final int ORDERS = 400;
+    private static final int ORDER_QUANTITY = 3;
+    private static final int THREADS = 8;
+
+    @TempDir
+    static Path directory;
+
+    private static InventoryService service;
+    private static final EquipmentDAO equipmentDAO = new EquipmentDAO();
+    private static final OrderDAO orderDAO = new OrderDAO();
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabasePath(directory.resolve("delivery.db").toString());
+        DatabaseManager.initialize();
+        service = new InventoryService();
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        DatabaseManager.close();
+    }
+
+    @Test
+    void racingDeliveriesApplyEachOrderExactlyOnce() throws Exception {
+        List<Equipment> equipment = new ArrayList<>();
+        for (int i = 0; i < EQUIPMENT_ITEMS; i++) {
+            Equipment item = new Equipment();
+            item.setName("Flask " + i);
+            item.setCategory("Glassware");
+            item.setQuantity(10 * i);
+            item.setLowerLimit(5);
+            item.setUnitPrice(12.5);
+            item.setSupplier("Borosil");
+            item.setDateAdded(LocalDate.now());
+            assertTrue(service.addEquipment(item));
+            equipment.add(item);
+        }
+        service.getDashboardSnapshot();
+
+        int[] orderIds = new int[ORDERS];
+        int[] orderEquipment = new int[ORDERS];
+        service.inTransaction(() -> {
+            for (int i = 0; i < ORDERS; i++) {
+                Equipment item = equipment.get(i % EQUIPMENT_ITEMS);
+                Order order = new Order(0, item.getId(), item.getName(), ORDER_QUANTITY, LocalDate.now(),
+                        LocalDate.now().plusDays(3), null, Order.OrderStatus.PENDING, item.getSupplier(),
+                        ORDER_QUANTITY * item.getUnitPrice());
+                if (!service.addOrder(order)) {
+                    throw new SQLException("Could not place order " + i);
+                }
+                orderIds[i] = order.getId();
+                orderEquipment[i] = item.getId();
+            }
+            return ORDERS;
+        });
+
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (Equipment item : equipment) {
+            expected.put(item.getId(), item.getQuantity());
+        }
+        for (int equipmentId : orderEquipment) {
+            expected.merge(equipmentId, ORDER_QUANTITY, Integer::sum);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        try {
+            for (int i = 0; i < ORDERS; i++) {
+                int order = i;
+                for (int attempt = 0; attempt < 2; attempt++) {
+                    attempts.add(pool.submit(() -> {
+                        go.await();
+                        return service.markOrderAsDelivered(orderIds[order], orderEquipment[order], ORDER_QUANTITY);
+                    }));
+                }
+            }
+            go.countDown();
+            for (int i = 0; i < ORDERS; i++) {
+                int wins = (attempts.get(2 * i).get(1, TimeUnit.MINUTES) ? 1 : 0)
+                        + (attempts.get(2 * i + 1).get(1, TimeUnit.MINUTES) ? 1 : 0);
+                assertEquals(1, wins, "winning deliveries of order " + orderIds[i]);
+                assertEquals(Order.OrderStatus.DELIVERED, orderDAO.getOrderById(orderIds[i]).getStatus());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            int equipmentId = entry.getKey();
+            assertEquals(entry.getValue(), equipmentDAO.getEquipmentById(equipmentId).getQuantity(),
+                    "stored quantity of equipment " + equipmentId);
+            assertEquals(entry.getValue(), service.getEquipmentById(equipmentId).getQuantity(),
+                    "cached quantity of equipment " + equipmentId);
+            assertEquals(entry.getValue(), service.getStockLevelAt(equipmentId, Instant.now()),
+                    "ledger quantity of equipment " + equipmentId);
+        }
+        assertEquals(List.of(), service.reconcileDashboard());
+    }
+}
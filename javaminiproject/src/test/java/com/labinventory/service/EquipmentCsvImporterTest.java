@@ -0,0 +1,121 @@
+package com.labinventory.service;
+
+import com.labinventory.database.DatabaseManager;
+import com.labinventory.model.Equipment;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EquipmentCsvImporterTest {
+    @TempDir
+    static Path directory;
+
+    private static InventoryService service;
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabasePath(directory.resolve("import.db").toString());
+        DatabaseManager.initialize();
+        service = new InventoryService();
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        DatabaseManager.close();
+    }
+
+    @Test
+    void importsCsvWithQuotedFieldsAndRejectsBadRows() throws IOException {
+        String csv = """
+                name,category,quantity,lower_limit,unit_price,expiry_date,location,supplier
+                "Beaker, 250ml",Glassware,10,2,120.50,,Lab A,Borosil
+                "Label ""A""
+                Rack",Lab Tools,3,1,40,,"Lab B, Shelf 2",
+                Pipette,Lab Tools,ten,2,15,,Lab A,
+                ,Chemicals,1,1,1,,,
+                Flask,Glassware,4,1,30,2027-01-01,Lab C,Borosil
+                """;
+
+        ImportReport report = new EquipmentCsvImporter(service, 2).importFrom(new StringReader(csv));
+
+        assertEquals(5, report.rowsRead());
+        assertEquals(3, report.rowsImported());
+        assertEquals(2, report.rowsRejected());
+        assertEquals(List.of(new ImportError(5, "Invalid quantity: ten"),
+                new ImportError(6, "Missing value for 'name'")), report.errors());
+
+        Equipment beaker = find("Beaker, 250ml");
+        assertEquals(10, beaker.getQuantity());
+        assertEquals(120.50, beaker.getUnitPrice());
+        assertNull(beaker.getExpiryDate());
+        Equipment rack = find("Label \"A\"\nRack");
+        assertEquals("Lab B, Shelf 2", rack.getLocation());
+        assertNull(rack.getSupplier());
+        assertEquals(LocalDate.of(2027, 1, 1), find("Flask").getExpiryDate());
+    }
+
+    @Test
+    void importsTsvWithNormalizedHeaders() throws IOException {
+        String tsv = "Name\tCategory\tQuantity\tLower Limit\tUnit Price\n" +
+                "\"Gloves\tLarge\"\tConsumables\t100\t20\t9.5\n" +
+                "Goggles\tSafety Equipment\t-1\t2\t300\n" +
+                "Scalpel\tMedical Supplies\t5\t2\t12\n";
+
+        ImportReport report = new EquipmentCsvImporter(service).importFrom(new StringReader(tsv));
+
+        assertEquals(3, report.rowsRead());
+        assertEquals(2, report.rowsImported());
+        assertEquals(1, report.rowsRejected());
+        assertEquals(List.of(new ImportError(3, "Negative quantity: -1")), report.errors());
+        assertEquals(20, find("Gloves\tLarge").getLowerLimit());
+        assertNotNull(find("Scalpel"));
+    }
+
+    @Test
+    void missingRequiredColumnRejectsTheHeader() throws IOException {
+        String csv = "name,category,quantity,unit_price\nTongs,Lab Tools,2,10\n";
+
+        ImportReport report = new EquipmentCsvImporter(service).importFrom(new StringReader(csv));
+
+        assertEquals(0, report.rowsRead());
+        assertEquals(0, report.rowsImported());
+        assertEquals(1, report.rowsRejected());
+        assertEquals(List.of(new ImportError(1, "Missing required column 'lowerlimit'")), report.errors());
+    }
+
+    @Test
+    void unterminatedQuoteSkipsTheRestOfTheFile() throws IOException {
+        String csv = """
+                name,category,quantity,lower_limit,unit_price
+                Tweezers,Lab Tools,2,1,10
+                "Open,Lab Tools,2,1,10
+                Never,Lab Tools,1,1,1
+                """;
+
+        ImportReport report = new EquipmentCsvImporter(service).importFrom(new StringReader(csv));
+
+        assertEquals(2, report.rowsRead());
+        assertEquals(1, report.rowsImported());
+        assertEquals(1, report.rowsRejected());
+        assertEquals(List.of(new ImportError(3, "Unterminated quoted field, rest of file skipped")), report.errors());
+        assertNotNull(find("Tweezers"));
+    }
+
+    private static Equipment find(String name) {
+        return service.getAllEquipment().stream()
+                .filter(equipment -> equipment.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No equipment named " + name));
+    }
+}
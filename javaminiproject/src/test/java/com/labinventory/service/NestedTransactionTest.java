@@ -0,0 +1,85 @@
+package com.labinventory.service;
+
+import com.labinventory.database.DatabaseManager;
+import com.labinventory.database.EquipmentDAO;
+import com.labinventory.model.Equipment;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A nested block that fails is rolled back to its savepoint. The cache, dashboard and search updates of the writes
+// it made must be dropped with it, while those of the enclosing transaction still run when it commits.
+class NestedTransactionTest {
+    @TempDir
+    static Path directory;
+
+    private static InventoryService service;
+    private static final EquipmentDAO equipmentDAO = new EquipmentDAO();
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabasePath(directory.resolve("nested.db").toString());
+        DatabaseManager.initialize();
+        service = new InventoryService();
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        DatabaseManager.close();
+    }
+
+    @Test
+    void failedNestedBlockDropsItsAfterCommitHooks() throws Exception {
+        Equipment flask = equipment("Conical Flask", 10);
+        assertTrue(service.addEquipment(flask));
+        service.buildSearchIndex();
+        service.getDashboardSnapshot();
+
+        Equipment beaker = equipment("Beaker", 4);
+        service.inTransaction(() -> {
+            assertThrows(SQLException.class, () -> service.inTransaction(() -> {
+                Equipment renamed = new Equipment(flask);
+                renamed.setName("Retort Stand");
+                renamed.setQuantity(50);
+                assertTrue(service.updateEquipment(renamed));
+                throw new SQLException("abandoned");
+            }));
+            assertTrue(service.addEquipment(beaker));
+            return null;
+        });
+
+        assertEquals(10, equipmentDAO.getEquipmentById(flask.getId()).getQuantity());
+        assertEquals(10, service.getEquipmentById(flask.getId()).getQuantity());
+        assertEquals("Conical Flask", service.getEquipmentById(flask.getId()).getName());
+        assertEquals(10, service.getStockLevelAt(flask.getId(), Instant.now()));
+        assertEquals(14, service.getTotalEquipmentQuantity());
+        assertEquals(2, service.getTotalEquipmentTypes());
+        assertEquals(List.of(), service.typeaheadSearch("Retort", 10));
+        assertEquals(List.of(beaker.getId()),
+                service.typeaheadSearch("Beaker", 10).stream().map(Equipment::getId).toList());
+        assertEquals(List.of(), service.reconcileDashboard());
+    }
+
+    private static Equipment equipment(String name, int quantity) {
+        Equipment item = new Equipment();
+        item.setName(name);
+        item.setCategory("Glassware");
+        item.setQuantity(quantity);
+        item.setLowerLimit(2);
+        item.setUnitPrice(20);
+        item.setSupplier("Borosil");
+        item.setDateAdded(LocalDate.now());
+        return item;
+    }
+}
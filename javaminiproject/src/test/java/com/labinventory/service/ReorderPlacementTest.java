@@ -0,0 +1,94 @@
+package com.labinventory.service;
+
+import com.labinventory.database.DatabaseManager;
+import com.labinventory.database.OrderDAO;
+import com.labinventory.model.Equipment;
+import com.labinventory.model.Order;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A plan is placed some time after it was made. Whatever was ordered in between, by an earlier placement of the
+// same plan or by another user, must not be ordered again.
+class ReorderPlacementTest {
+    @TempDir
+    static Path directory;
+
+    private static InventoryService service;
+    private static final OrderDAO orderDAO = new OrderDAO();
+
+    @BeforeAll
+    static void openDatabase() {
+        DatabaseManager.setDatabasePath(directory.resolve("reorder.db").toString());
+        DatabaseManager.initialize();
+        service = new InventoryService();
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        DatabaseManager.close();
+    }
+
+    @Test
+    void placingStalePlansDoesNotOrderTwice() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(service.addEquipment(lowStock("Pipette " + i)));
+        }
+        ReorderPlan first = service.planReorders();
+        ReorderPlan second = service.planReorders();
+        assertEquals(3, first.orderCount());
+
+        assertEquals(3, service.placeReorders(first));
+        assertEquals(0, service.placeReorders(second));
+        assertEquals(3, service.getActiveOrders().size());
+
+        Equipment flask = lowStock("Flask");
+        assertTrue(service.addEquipment(flask));
+        ReorderPlan plan = service.planReorders();
+        assertEquals(1, plan.orderCount());
+        assertTrue(service.addOrder(new Order(0, flask.getId(), flask.getName(), 2, LocalDate.now(),
+                LocalDate.now().plusDays(5), null, Order.OrderStatus.PENDING, "Borosil", 20)));
+
+        assertEquals(0, service.placeReorders(plan));
+        assertEquals(4, service.getActiveOrders().size());
+        assertEquals(List.of(), service.reconcileDashboard());
+    }
+
+    @Test
+    void failedOrderBatchResetsIds() {
+        Equipment beaker = lowStock("Beaker");
+        beaker.setQuantity(50);
+        assertTrue(service.addEquipment(beaker));
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            orders.add(new Order(0, beaker.getId(), i == 149 ? null : beaker.getName(), 1, LocalDate.now(),
+                    LocalDate.now().plusDays(5), null, Order.OrderStatus.PENDING, "Borosil", 10));
+        }
+
+        assertEquals(0, orderDAO.addOrderBatch(orders));
+        for (Order order : orders) {
+            assertEquals(0, order.getId());
+        }
+    }
+
+    private static Equipment lowStock(String name) {
+        Equipment item = new Equipment();
+        item.setName(name);
+        item.setCategory("Glassware");
+        item.setQuantity(1);
+        item.setLowerLimit(5);
+        item.setUnitPrice(10);
+        item.setSupplier("Borosil");
+        item.setDateAdded(LocalDate.now());
+        return item;
+    }
+}
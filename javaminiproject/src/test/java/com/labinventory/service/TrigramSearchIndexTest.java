@@ -0,0 +1,108 @@
+package com.labinventory.service;
+
+import com.labinventory.model.Equipment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// A hit scores its field's weight (name 8, category 4, location 2, supplier 1) times 3 at the start of the field,
+// 2 at the start of a later word and 1 inside a word. Equal scores rank by id.
+class TrigramSearchIndexTest {
+    private TrigramSearchIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        index = new TrigramSearchIndex();
+        index.rebuild(() -> List.of(
+                equipment(1, "Microscope", "Optical Equipment", "Lab A", "Zeiss"),
+                equipment(2, "Stereo Microscope", "Optical Equipment", "Lab B", "Olympus"),
+                equipment(3, "Slide Box", "Microscopy Supplies", "Lab A", "Zeiss"),
+                equipment(4, "Glass Beaker", "Glassware", "Lab A", "Borosil"),
+                equipment(5, "Spatula", "Lab Tools", "Microscope Room", "Fisher")));
+    }
+
+    @Test
+    void ranksByFieldAndPosition() {
+        assertEquals(List.of(1, 2, 3, 5), index.search("micro", 10));
+        assertEquals(List.of(1, 2, 5), index.search("SCOPE", 10));
+        assertEquals(List.of(1, 2), index.search("micro", 2));
+        assertEquals(List.of(3), index.search("microscopy", 10));
+    }
+
+    @Test
+    void shortQueriesScanEveryRow() {
+        assertEquals(List.of(4), index.search("gl", 10));
+        assertEquals(List.of(5, 4, 1, 2, 3), index.search(" La ", 10));
+        assertEquals(List.of(), index.search("qz", 10));
+    }
+
+    @Test
+    void queriesWithAMissingTrigramFindNothing() {
+        assertEquals(List.of(), index.search("microx", 10));
+        assertEquals(List.of(), index.search("xyz", 10));
+        assertEquals(List.of(), index.search("   ", 10));
+        assertEquals(List.of(), index.search(null, 10));
+        assertEquals(List.of(), index.search("micro", 0));
+    }
+
+    @Test
+    void putReplacesAnUpdatedRow() {
+        index.put(equipment(2, "Stereo Zoom", "Optical Equipment", "Lab B", "Olympus"));
+
+        assertEquals(List.of(1, 3, 5), index.search("micro", 10));
+        assertEquals(List.of(1, 5), index.search("scope", 10));
+        assertEquals(List.of(2), index.search("zoom", 10));
+        assertEquals(5, index.size());
+
+        index.put(equipment(6, "Micrometer", "Measurement Tools", "Lab C", "Mitutoyo"));
+
+        assertEquals(List.of(1, 6, 3, 5), index.search("micro", 10));
+        assertEquals(6, index.size());
+    }
+
+    @Test
+    void removeDropsTheRowFromEveryTrigram() {
+        index.remove(1);
+
+        assertEquals(List.of(2, 3, 5), index.search("micro", 10));
+        assertEquals(List.of(3), index.search("zeiss", 10));
+        assertEquals(List.of(3), index.search("zei", 10));
+        assertEquals(4, index.size());
+
+        index.remove(42);
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void intersectsARareTrigramWithACommonOne() {
+        List<Equipment> items = new ArrayList<>();
+        for (int id = 1; id <= 200; id++) {
+            items.add(equipment(id, "Beaker " + id, "Glassware", "Lab A", "Borosil"));
+        }
+        items.add(equipment(201, "Rare Beaker", "Glassware", "Lab A", "Borosil"));
+        index.rebuild(() -> items);
+
+        assertEquals(List.of(201), index.search("rare beaker", 10));
+        assertEquals(List.of(1, 2, 3), index.search("beaker", 3));
+    }
+
+    @Test
+    void changesBeforeTheFirstBuildAreIgnored() {
+        TrigramSearchIndex unbuilt = new TrigramSearchIndex();
+        unbuilt.put(equipment(1, "Microscope", "Optical Equipment", "Lab A", "Zeiss"));
+
+        assertFalse(unbuilt.isBuilt());
+        assertEquals(0, unbuilt.size());
+        assertEquals(List.of(), unbuilt.search("micro", 10));
+    }
+
+    private static Equipment equipment(int id, String name, String category, String location, String supplier) {
+        return new Equipment(id, name, category, 10, 2, 100, null, location, supplier, LocalDate.now());
+    }
+}